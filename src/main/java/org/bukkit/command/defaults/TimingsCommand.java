@@ -14,7 +14,7 @@ import org.bukkit.event.Event;
 import org.bukkit.event.HandlerList;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.RegisteredListener;
-import org.bukkit.plugin.TimedRegisteredListener;
+import org.bukkit.plugin.TimingsSnapshot;
 import org.bukkit.util.StringUtil;
 
 import com.google.common.collect.ImmutableList;
@@ -45,9 +45,7 @@ public class TimingsCommand extends BukkitCommand {
         if ("reset".equals(args[0])) {
             for (HandlerList handlerList : HandlerList.getHandlerLists()) {
                 for (RegisteredListener listener : handlerList.getRegisteredListeners()) {
-                    if (listener instanceof TimedRegisteredListener) {
-                        ((TimedRegisteredListener)listener).reset();
-                    }
+                    listener.getTimings().reset();
                 }
             }
             sender.sendMessage("Timings reset");
@@ -77,17 +75,15 @@ public class TimingsCommand extends BukkitCommand {
                     }
                     else fileTimings.println(plugin.getDescription().getFullName());
                     for (RegisteredListener listener : HandlerList.getRegisteredListeners(plugin)) {
-                        if (listener instanceof TimedRegisteredListener) {
-                            TimedRegisteredListener trl = (TimedRegisteredListener) listener;
-                            long time = trl.getTotalTime();
-                            int count = trl.getCount();
-                            if (count == 0) continue;
-                            long avg = time / count;
-                            totalTime += time;
-                            Class<? extends Event> eventClass = trl.getEventClass();
-                            if (count > 0 && eventClass != null) {
-                                fileTimings.println("    " + eventClass.getSimpleName() + (trl.hasMultiple() ? " (and sub-classes)" : "") + " Time: " + time + " Count: " + count + " Avg: " + avg);
-                            }
+                        TimingsSnapshot snapshot = listener.getTimings().getSnapshot();
+                        long time = snapshot.getTotalTime();
+                        long count = snapshot.getCount();
+                        if (count == 0) continue;
+                        long avg = time / count;
+                        totalTime += time;
+                        Class<? extends Event> eventClass = listener.getEventClass();
+                        if (eventClass != null) {
+                            fileTimings.println("    " + eventClass.getSimpleName() + (listener.hasMultiple() ? " (and sub-classes)" : "") + " Time: " + time + " Count: " + count + " Avg: " + avg + " P50: " + snapshot.getPercentile(50) + " P99: " + snapshot.getPercentile(99) + " Max: " + snapshot.getMaxTime());
                         }
                     }
                     fileTimings.println("    Total time " + totalTime + " (" + totalTime / 1000000000 + "s)");
@@ -0,0 +1,142 @@
+package org.bukkit.configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * A path into a {@link ConfigurationSection}, split into its keys once.
+ * <p>
+ * Sections can resolve and cache the values of such paths, so plugins which
+ * read the same values repeatedly should keep their paths in constants:
+ * <pre>
+ * private static final ConfigPath MAX_HOMES = ConfigPath.of("homes.max");
+ * ...
+ * int max = getConfig().getInt(MAX_HOMES);
+ * </pre>
+ * Paths are split by their own separator, regardless of the {@link
+ * ConfigurationOptions#pathSeparator() separator} of the section they are
+ * used with.
+ */
+public final class ConfigPath {
+    private static final char DEFAULT_SEPARATOR = '.';
+    private static final int MAX_INTERNED = 1 << 16;
+    private static final ConcurrentMap<String, ConfigPath> interned = new ConcurrentHashMap<String, ConfigPath>();
+
+    private final String path;
+    private final char separator;
+    private final String[] keys;
+    private final int hash;
+
+    private ConfigPath(String path, char separator) {
+        this.path = path;
+        this.separator = separator;
+
+        List<String> keys = new ArrayList<String>();
+        if (path.length() > 0) {
+            // i1 is the leading (higher) index
+            // i2 is the trailing (lower) index
+            int i1 = -1, i2;
+            while ((i1 = path.indexOf(separator, i2 = i1 + 1)) != -1) {
+                keys.add(path.substring(i2, i1));
+            }
+            keys.add(path.substring(i2));
+        }
+        this.keys = keys.toArray(new String[keys.size()]);
+        this.hash = Arrays.hashCode(this.keys);
+    }
+
+    /**
+     * Gets the path for the given string, split by the default separator
+     * <code>'.'</code>
+     *
+     * @param path Path to split
+     * @return The path
+     * @throws IllegalArgumentException Thrown when path is null.
+     */
+    public static ConfigPath of(String path) {
+        return of(path, DEFAULT_SEPARATOR);
+    }
+
+    /**
+     * Gets the path for the given string, split by the given separator
+     *
+     * @param path Path to split
+     * @param separator Separator of the keys in the path
+     * @return The path
+     * @throws IllegalArgumentException Thrown when path is null.
+     */
+    public static ConfigPath of(String path, char separator) {
+        Validate.notNull(path, "Path cannot be null");
+
+        if (separator != DEFAULT_SEPARATOR) {
+            return new ConfigPath(path, separator);
+        }
+
+        ConfigPath result = interned.get(path);
+        if (result == null) {
+            result = new ConfigPath(path, separator);
+            if (interned.size() < MAX_INTERNED) {
+                ConfigPath existing = interned.putIfAbsent(path, result);
+                if (existing != null) {
+                    result = existing;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of keys in this path, which is 0 for the empty path
+     *
+     * @return Number of keys
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Gets a key of this path
+     *
+     * @param index Index of the key, from the outermost section
+     * @return The key
+     */
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Gets the separator this path was split by
+     *
+     * @return The separator
+     */
+    public char getSeparator() {
+        return separator;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof ConfigPath)) {
+            return false;
+        }
+        ConfigPath other = (ConfigPath) obj;
+        return hash == other.hash && Arrays.equals(keys, other.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
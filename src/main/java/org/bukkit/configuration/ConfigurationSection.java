@@ -58,6 +58,17 @@ public interface ConfigurationSection {
      */
     public boolean contains(String path);
 
+    /**
+     * Checks if this {@link ConfigurationSection} contains the given path.
+     *
+     * @param path Path to check for existence.
+     * @return True if this section contains the requested path, either via
+     *     default or being set.
+     * @throws IllegalArgumentException Thrown when path is null.
+     * @see #contains(String)
+     */
+    public boolean contains(ConfigPath path);
+
     /**
      * Checks if this {@link ConfigurationSection} has a value set for the
      * given path.
@@ -153,6 +164,29 @@ public interface ConfigurationSection {
      */
     public Object get(String path, Object def);
 
+    /**
+     * Gets the requested Object by a path which was split beforehand.
+     * <p>
+     * Implementations may cache the value of the path until the section is
+     * changed.
+     *
+     * @param path Path of the Object to get.
+     * @return Requested Object.
+     * @see #get(String)
+     */
+    public Object get(ConfigPath path);
+
+    /**
+     * Gets the requested Object by a path which was split beforehand,
+     * returning a default value if not found.
+     *
+     * @param path Path of the Object to get.
+     * @param def The default value to return if the path is not found.
+     * @return Requested Object.
+     * @see #get(String, Object)
+     */
+    public Object get(ConfigPath path, Object def);
+
     /**
      * Sets the specified path to the given value.
      * <p>
@@ -169,6 +203,15 @@ public interface ConfigurationSection {
      */
     public void set(String path, Object value);
 
+    /**
+     * Sets a path which was split beforehand to the given value.
+     *
+     * @param path Path of the object to set.
+     * @param value New value to set the path to.
+     * @see #set(String, Object)
+     */
+    public void set(ConfigPath path, Object value);
+
     /**
      * Creates an empty {@link ConfigurationSection} at the specified path.
      * <p>
@@ -208,6 +251,15 @@ public interface ConfigurationSection {
      */
     public String getString(String path);
 
+    /**
+     * Gets the requested String by a path which was split beforehand.
+     *
+     * @param path Path of the String to get.
+     * @return Requested String.
+     * @see #getString(String)
+     */
+    public String getString(ConfigPath path);
+
     /**
      * Gets the requested String by path, returning a default value if not
      * found.
@@ -248,6 +300,15 @@ public interface ConfigurationSection {
      */
     public int getInt(String path);
 
+    /**
+     * Gets the requested int by a path which was split beforehand.
+     *
+     * @param path Path of the int to get.
+     * @return Requested int.
+     * @see #getInt(String)
+     */
+    public int getInt(ConfigPath path);
+
     /**
      * Gets the requested int by path, returning a default value if not found.
      * <p>
@@ -287,6 +348,15 @@ public interface ConfigurationSection {
      */
     public boolean getBoolean(String path);
 
+    /**
+     * Gets the requested boolean by a path which was split beforehand.
+     *
+     * @param path Path of the boolean to get.
+     * @return Requested boolean.
+     * @see #getBoolean(String)
+     */
+    public boolean getBoolean(ConfigPath path);
+
     /**
      * Gets the requested boolean by path, returning a default value if not
      * found.
@@ -327,6 +397,15 @@ public interface ConfigurationSection {
      */
     public double getDouble(String path);
 
+    /**
+     * Gets the requested double by a path which was split beforehand.
+     *
+     * @param path Path of the double to get.
+     * @return Requested double.
+     * @see #getDouble(String)
+     */
+    public double getDouble(ConfigPath path);
+
     /**
      * Gets the requested double by path, returning a default value if not
      * found.
@@ -367,6 +446,15 @@ public interface ConfigurationSection {
      */
     public long getLong(String path);
 
+    /**
+     * Gets the requested long by a path which was split beforehand.
+     *
+     * @param path Path of the long to get.
+     * @return Requested long.
+     * @see #getLong(String)
+     */
+    public long getLong(ConfigPath path);
+
     /**
      * Gets the requested long by path, returning a default value if not
      * found.
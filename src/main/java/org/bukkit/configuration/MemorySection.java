@@ -2,12 +2,17 @@ package org.bukkit.configuration;
 
 import static org.bukkit.util.NumberConversions.*;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang.Validate;
 import org.bukkit.Color;
@@ -19,11 +24,20 @@ import org.bukkit.util.Vector;
  * A type of {@link ConfigurationSection} that is stored in memory.
  */
 public class MemorySection implements ConfigurationSection {
+    private static final Object MISSING = new Object();
+    private static final int MAX_CACHED_PATHS = 1024;
+
     protected final Map<String, Object> map = new LinkedHashMap<String, Object>();
     private final Configuration root;
     private final ConfigurationSection parent;
     private final String path;
     private final String fullPath;
+    /**
+     * Number of changes to the tree of this section, only counted by the
+     * root section
+     */
+    private volatile int modifications;
+    private volatile PathCache pathCache;
 
     /**
      * Creates an empty MemorySection for use as a root {@link Configuration}
@@ -70,35 +84,33 @@ public class MemorySection implements ConfigurationSection {
 
     public Set<String> getKeys(boolean deep) {
         Set<String> result = new LinkedHashSet<String>();
+        mapChildrenKeys(result, this, deep);
 
         Configuration root = getRoot();
         if (root != null && root.options().copyDefaults()) {
             ConfigurationSection defaults = getDefaultSection();
 
             if (defaults != null) {
-                result.addAll(defaults.getKeys(deep));
+                return new MergedKeys(result, defaults, deep, root.options().pathSeparator());
             }
         }
 
-        mapChildrenKeys(result, this, deep);
-
         return result;
     }
 
     public Map<String, Object> getValues(boolean deep) {
         Map<String, Object> result = new LinkedHashMap<String, Object>();
+        mapChildrenValues(result, this, deep);
 
         Configuration root = getRoot();
         if (root != null && root.options().copyDefaults()) {
             ConfigurationSection defaults = getDefaultSection();
 
             if (defaults != null) {
-                result.putAll(defaults.getValues(deep));
+                return new MergedValues(result, defaults, deep, root.options().pathSeparator());
             }
         }
 
-        mapChildrenValues(result, this, deep);
-
         return result;
     }
 
@@ -106,6 +118,10 @@ public class MemorySection implements ConfigurationSection {
         return get(path) != null;
     }
 
+    public boolean contains(ConfigPath path) {
+        return get(path) != null;
+    }
+
     public boolean isSet(String path) {
         Configuration root = getRoot();
         if (root == null) {
@@ -184,18 +200,68 @@ public class MemorySection implements ConfigurationSection {
 
         String key = path.substring(i2);
         if (section == this) {
-            if (value == null) {
-                map.remove(key);
+            setLocal(key, value);
+        } else {
+            section.set(key, value);
+        }
+    }
+
+    public void set(ConfigPath path, Object value) {
+        Validate.notNull(path, "Path cannot be null");
+        Validate.isTrue(path.size() > 0, "Cannot set to an empty path");
+
+        ConfigurationSection section = this;
+        for (int i = 0; i < path.size() - 1; i++) {
+            String node = path.getKey(i);
+            if (section instanceof MemorySection) {
+                MemorySection memorySection = (MemorySection) section;
+                Object subSection = memorySection.map.get(node);
+                section = subSection instanceof ConfigurationSection ? (ConfigurationSection) subSection : memorySection.createLocalSection(node);
             } else {
-                map.put(key, value);
+                ConfigurationSection subSection = section.getConfigurationSection(node);
+                section = subSection == null ? section.createSection(node) : subSection;
             }
+        }
+
+        String key = path.getKey(path.size() - 1);
+        if (section instanceof MemorySection) {
+            ((MemorySection) section).setLocal(key, value);
         } else {
             section.set(key, value);
         }
     }
 
+    private void setLocal(String key, Object value) {
+        if (value == null) {
+            map.remove(key);
+        } else {
+            map.put(key, value);
+        }
+        modified();
+    }
+
+    private MemorySection createLocalSection(String key) {
+        MemorySection result = new MemorySection(this, key);
+        map.put(key, result);
+        modified();
+        return result;
+    }
+
+    /**
+     * Drops the values cached for {@link ConfigPath}s of every section of
+     * the root of this section. This must be called by subclasses changing
+     * {@link #map} directly.
+     */
+    protected void modified() {
+        Configuration root = getRoot();
+        if (root instanceof MemorySection) {
+            ((MemorySection) root).modifications++;
+        }
+    }
+
     public Object get(String path) {
-        return get(path, getDefault(path));
+        Object result = get(path, MISSING);
+        return result == MISSING ? getDefault(path) : result;
     }
 
     public Object get(String path, Object def) {
@@ -230,6 +296,74 @@ public class MemorySection implements ConfigurationSection {
         return section.get(key, def);
     }
 
+    public Object get(ConfigPath path) {
+        Object result = get(path, MISSING);
+        return result == MISSING ? getDefault(path) : result;
+    }
+
+    public Object get(ConfigPath path, Object def) {
+        Validate.notNull(path, "Path cannot be null");
+
+        Object result = resolve(path);
+        return result == MISSING ? def : result;
+    }
+
+    /**
+     * Gets the value of a path in the tree of this section, ignoring
+     * defaults
+     *
+     * @param path Path of the value
+     * @return The value, or MISSING
+     */
+    private Object resolve(ConfigPath path) {
+        Configuration root = getRoot();
+        if (root == null) {
+            throw new IllegalStateException("Cannot access section without a root");
+        }
+
+        PathCache cache = null;
+        if (root instanceof MemorySection) {
+            int modifications = ((MemorySection) root).modifications;
+            cache = pathCache;
+            if (cache == null || cache.modifications != modifications) {
+                cache = new PathCache(modifications);
+                pathCache = cache;
+            }
+
+            Object cached = cache.values.get(path);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // Values found through sections of other roots are not covered by our modification count
+        boolean cacheable = cache != null;
+        Object value = this;
+        for (int i = 0; i < path.size(); i++) {
+            String key = path.getKey(i);
+            if (value instanceof MemorySection) {
+                MemorySection section = (MemorySection) value;
+                cacheable &= section.getRoot() == root;
+                value = section.map.get(key);
+            } else if (value instanceof ConfigurationSection) {
+                cacheable = false;
+                value = ((ConfigurationSection) value).get(key, null);
+            } else {
+                value = null;
+            }
+
+            if (value == null) {
+                value = MISSING;
+                break;
+            }
+        }
+
+        if (cacheable && cache.values.size() < MAX_CACHED_PATHS) {
+            cache.values.put(path, value);
+        }
+        return value;
+    }
+
     public ConfigurationSection createSection(String path) {
         Validate.notEmpty(path, "Cannot create section at empty path");
         Configuration root = getRoot();
@@ -254,9 +388,7 @@ public class MemorySection implements ConfigurationSection {
 
         String key = path.substring(i2);
         if (section == this) {
-            ConfigurationSection result = new MemorySection(this, key);
-            map.put(key, result);
-            return result;
+            return createLocalSection(key);
         }
         return section.createSection(key);
     }
@@ -277,8 +409,21 @@ public class MemorySection implements ConfigurationSection {
 
     // Primitives
     public String getString(String path) {
+        Object val = get(path, null);
+        if (val != null) {
+            return val.toString();
+        }
         Object def = getDefault(path);
-        return getString(path, def != null ? def.toString() : null);
+        return (def != null) ? def.toString() : null;
+    }
+
+    public String getString(ConfigPath path) {
+        Object val = get(path, null);
+        if (val != null) {
+            return val.toString();
+        }
+        Object def = getDefault(path);
+        return (def != null) ? def.toString() : null;
     }
 
     public String getString(String path, String def) {
@@ -292,8 +437,21 @@ public class MemorySection implements ConfigurationSection {
     }
 
     public int getInt(String path) {
+        Object val = get(path, null);
+        if (val instanceof Number) {
+            return toInt(val);
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? toInt(def) : 0;
+    }
+
+    public int getInt(ConfigPath path) {
+        Object val = get(path, null);
+        if (val instanceof Number) {
+            return toInt(val);
+        }
         Object def = getDefault(path);
-        return getInt(path, (def instanceof Number) ? toInt(def) : 0);
+        return (def instanceof Number) ? toInt(def) : 0;
     }
 
     public int getInt(String path, int def) {
@@ -307,8 +465,21 @@ public class MemorySection implements ConfigurationSection {
     }
 
     public boolean getBoolean(String path) {
+        Object val = get(path, null);
+        if (val instanceof Boolean) {
+            return (Boolean) val;
+        }
+        Object def = getDefault(path);
+        return (def instanceof Boolean) ? (Boolean) def : false;
+    }
+
+    public boolean getBoolean(ConfigPath path) {
+        Object val = get(path, null);
+        if (val instanceof Boolean) {
+            return (Boolean) val;
+        }
         Object def = getDefault(path);
-        return getBoolean(path, (def instanceof Boolean) ? (Boolean) def : false);
+        return (def instanceof Boolean) ? (Boolean) def : false;
     }
 
     public boolean getBoolean(String path, boolean def) {
@@ -322,8 +493,21 @@ public class MemorySection implements ConfigurationSection {
     }
 
     public double getDouble(String path) {
+        Object val = get(path, null);
+        if (val instanceof Number) {
+            return toDouble(val);
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? toDouble(def) : 0;
+    }
+
+    public double getDouble(ConfigPath path) {
+        Object val = get(path, null);
+        if (val instanceof Number) {
+            return toDouble(val);
+        }
         Object def = getDefault(path);
-        return getDouble(path, (def instanceof Number) ? toDouble(def) : 0);
+        return (def instanceof Number) ? toDouble(def) : 0;
     }
 
     public double getDouble(String path, double def) {
@@ -337,8 +521,21 @@ public class MemorySection implements ConfigurationSection {
     }
 
     public long getLong(String path) {
+        Object val = get(path, null);
+        if (val instanceof Number) {
+            return toLong(val);
+        }
         Object def = getDefault(path);
-        return getLong(path, (def instanceof Number) ? toLong(def) : 0);
+        return (def instanceof Number) ? toLong(def) : 0;
+    }
+
+    public long getLong(ConfigPath path) {
+        Object val = get(path, null);
+        if (val instanceof Number) {
+            return toLong(val);
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? toLong(def) : 0;
     }
 
     public long getLong(String path, long def) {
@@ -353,8 +550,12 @@ public class MemorySection implements ConfigurationSection {
 
     // Java
     public List<?> getList(String path) {
+        Object val = get(path, null);
+        if (val instanceof List) {
+            return (List<?>) val;
+        }
         Object def = getDefault(path);
-        return getList(path, (def instanceof List) ? (List<?>) def : null);
+        return (def instanceof List) ? (List<?>) def : null;
     }
 
     public List<?> getList(String path, List<?> def) {
@@ -616,8 +817,12 @@ public class MemorySection implements ConfigurationSection {
 
     // Bukkit
     public Vector getVector(String path) {
+        Object val = get(path, null);
+        if (val instanceof Vector) {
+            return (Vector) val;
+        }
         Object def = getDefault(path);
-        return getVector(path, (def instanceof Vector) ? (Vector) def : null);
+        return (def instanceof Vector) ? (Vector) def : null;
     }
 
     public Vector getVector(String path, Vector def) {
@@ -631,8 +836,12 @@ public class MemorySection implements ConfigurationSection {
     }
 
     public OfflinePlayer getOfflinePlayer(String path) {
+        Object val = get(path, null);
+        if (val instanceof OfflinePlayer) {
+            return (OfflinePlayer) val;
+        }
         Object def = getDefault(path);
-        return getOfflinePlayer(path, (def instanceof OfflinePlayer) ? (OfflinePlayer) def : null);
+        return (def instanceof OfflinePlayer) ? (OfflinePlayer) def : null;
     }
 
     public OfflinePlayer getOfflinePlayer(String path, OfflinePlayer def) {
@@ -646,8 +855,12 @@ public class MemorySection implements ConfigurationSection {
     }
 
     public ItemStack getItemStack(String path) {
+        Object val = get(path, null);
+        if (val instanceof ItemStack) {
+            return (ItemStack) val;
+        }
         Object def = getDefault(path);
-        return getItemStack(path, (def instanceof ItemStack) ? (ItemStack) def : null);
+        return (def instanceof ItemStack) ? (ItemStack) def : null;
     }
 
     public ItemStack getItemStack(String path, ItemStack def) {
@@ -661,8 +874,12 @@ public class MemorySection implements ConfigurationSection {
     }
 
     public Color getColor(String path) {
+        Object val = get(path, null);
+        if (val instanceof Color) {
+            return (Color) val;
+        }
         Object def = getDefault(path);
-        return getColor(path, (def instanceof Color) ? (Color) def : null);
+        return (def instanceof Color) ? (Color) def : null;
     }
 
     public Color getColor(String path, Color def) {
@@ -681,7 +898,7 @@ public class MemorySection implements ConfigurationSection {
             return (val instanceof ConfigurationSection) ? (ConfigurationSection) val : null;
         }
 
-        val = get(path, getDefault(path));
+        val = getDefault(path);
         return (val instanceof ConfigurationSection) ? createSection(path) : null;
     }
 
@@ -705,6 +922,25 @@ public class MemorySection implements ConfigurationSection {
         return (defaults == null) ? null : defaults.get(createPath(this, path));
     }
 
+    /**
+     * Gets the default value of a path relative to this section
+     *
+     * @param path Path of the value
+     * @return The default value, or null if there is none
+     */
+    protected Object getDefault(ConfigPath path) {
+        Validate.notNull(path, "Path cannot be null");
+
+        Configuration root = getRoot();
+        Configuration defaults = root == null ? null : root.getDefaults();
+        if (defaults == null) {
+            return null;
+        }
+
+        ConfigurationSection section = (root == this) ? defaults : getDefaultSection();
+        return (section == null) ? null : section.get(path, null);
+    }
+
     protected void mapChildrenKeys(Set<String> output, ConfigurationSection section, boolean deep) {
         if (section instanceof MemorySection) {
             MemorySection sec = (MemorySection) section;
@@ -817,4 +1053,155 @@ public class MemorySection implements ConfigurationSection {
             .append("']")
             .toString();
     }
+
+    private static final class PathCache {
+        final int modifications;
+        final ConcurrentMap<ConfigPath, Object> values = new ConcurrentHashMap<ConfigPath, Object>();
+
+        PathCache(int modifications) {
+            this.modifications = modifications;
+        }
+    }
+
+    /**
+     * Checks whether a section has a key as returned by {@link
+     * #getKeys(boolean)}, without listing its keys
+     */
+    private static boolean hasKey(ConfigurationSection section, String key, boolean deep, char separator) {
+        return (deep || key.indexOf(separator) == -1) && section.get(key, null) != null;
+    }
+
+    /**
+     * The keys of a section followed by those of its defaults, as {@link
+     * #getKeys(boolean)} returns them when defaults are copied. The keys of
+     * the defaults are only listed once the set is iterated or changed.
+     */
+    private static final class MergedKeys extends AbstractSet<String> {
+        private final Set<String> keys;
+        private final ConfigurationSection defaults;
+        private final boolean deep;
+        private final char separator;
+        private Set<String> merged;
+
+        MergedKeys(Set<String> keys, ConfigurationSection defaults, boolean deep, char separator) {
+            this.keys = keys;
+            this.defaults = defaults;
+            this.deep = deep;
+            this.separator = separator;
+        }
+
+        private Set<String> merged() {
+            if (merged == null) {
+                merged = new LinkedHashSet<String>(defaults.getKeys(deep));
+                merged.addAll(keys);
+            }
+            return merged;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (merged != null) {
+                return merged.contains(o);
+            }
+            return keys.contains(o) || (o instanceof String && hasKey(defaults, (String) o, deep, separator));
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return keys.isEmpty() && merged().isEmpty();
+        }
+
+        @Override
+        public boolean add(String e) {
+            return merged().add(e);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return merged().remove(o);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return merged().iterator();
+        }
+
+        @Override
+        public int size() {
+            return merged().size();
+        }
+    }
+
+    /**
+     * The values of a section and those of its defaults, as {@link
+     * #getValues(boolean)} returns them when defaults are copied. Defaults
+     * are looked up one by one until the map is iterated or changed.
+     */
+    private static final class MergedValues extends AbstractMap<String, Object> {
+        private final Map<String, Object> values;
+        private final ConfigurationSection defaults;
+        private final boolean deep;
+        private final char separator;
+        private Map<String, Object> merged;
+
+        MergedValues(Map<String, Object> values, ConfigurationSection defaults, boolean deep, char separator) {
+            this.values = values;
+            this.defaults = defaults;
+            this.deep = deep;
+            this.separator = separator;
+        }
+
+        private Map<String, Object> merged() {
+            if (merged == null) {
+                merged = new LinkedHashMap<String, Object>(defaults.getValues(deep));
+                merged.putAll(values);
+            }
+            return merged;
+        }
+
+        @Override
+        public Object get(Object key) {
+            if (merged != null) {
+                return merged.get(key);
+            }
+            Object value = values.get(key);
+            if (value == null && key instanceof String && (deep || ((String) key).indexOf(separator) == -1)) {
+                value = defaults.get((String) key, null);
+            }
+            return value;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            if (merged != null) {
+                return merged.containsKey(key);
+            }
+            return values.containsKey(key) || (key instanceof String && hasKey(defaults, (String) key, deep, separator));
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return values.isEmpty() && merged().isEmpty();
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            return merged().put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return merged().remove(key);
+        }
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            return merged().entrySet();
+        }
+
+        @Override
+        public int size() {
+            return merged().size();
+        }
+    }
 }
@@ -0,0 +1,177 @@
+package org.bukkit.configuration.file;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Writes {@link FileConfiguration} snapshots on a background thread.
+ * <p>
+ * Saves of the same file which are requested before the pending save has
+ * started are coalesced, so only the latest snapshot is written. Files are
+ * written to a temporary file first, which is then renamed over the target.
+ * The saver thread does not keep the JVM alive, so pending saves are
+ * {@link #flush() flushed} when plugins are disabled.
+ */
+final class ConfigurationSaver {
+    private static final Map<File, PendingSave> pending = new HashMap<File, PendingSave>();
+    private static final Set<PendingSave> unwritten = new HashSet<PendingSave>();
+    private static ScheduledExecutorService executor;
+
+    private ConfigurationSaver() {}
+
+    static Future<Void> save(File file, FileConfiguration snapshot, long delay, TimeUnit unit) {
+        File key = file.getAbsoluteFile();
+
+        synchronized (pending) {
+            PendingSave save = pending.get(key);
+            if (save != null && !save.future.isCancelled()) {
+                save.snapshot = snapshot;
+                return save.future;
+            }
+
+            save = new PendingSave(key, snapshot);
+            pending.put(key, save);
+            unwritten.add(save);
+            getExecutor().schedule(save.future, delay, unit);
+            return save.future;
+        }
+    }
+
+    /**
+     * Writes every pending save on the calling thread, without waiting for
+     * its delay, and waits for saves which are being written already
+     */
+    static void flush() {
+        List<PendingSave> saves;
+        synchronized (pending) {
+            if (unwritten.isEmpty()) {
+                return;
+            }
+            saves = new ArrayList<PendingSave>(unwritten);
+        }
+
+        for (PendingSave save : saves) {
+            // Does nothing if the saver thread started it already
+            save.future.run();
+        }
+
+        boolean interrupted = false;
+        for (PendingSave save : saves) {
+            while (true) {
+                try {
+                    save.future.get();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    Bukkit.getLogger().log(Level.SEVERE, "Could not save " + save.file, ex.getCause());
+                    break;
+                } catch (CancellationException ex) {
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ScheduledExecutorService getExecutor() {
+        if (executor == null) {
+            executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Configuration Saver");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Writes a configuration next to the target file, and then moves it into
+     * place
+     *
+     * @param file File to save to
+     * @param configuration Configuration to save
+     * @throws IOException Thrown when the file cannot be written
+     */
+    static void writeAtomically(File file, FileConfiguration configuration) throws IOException {
+        Files.createParentDirs(file);
+        // Temporary file prefixes need at least three characters
+        File temp = File.createTempFile("." + file.getName() + "-", ".tmp", file.getParentFile());
+
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temp), FileConfiguration.UTF8_OVERRIDE && !FileConfiguration.UTF_BIG ? Charsets.UTF_8 : Charset.defaultCharset()));
+            try {
+                configuration.save(writer);
+            } finally {
+                writer.close();
+            }
+
+            // Renaming over an existing file is atomic where the platform allows it, which Windows does not
+            if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+                throw new IOException("Cannot move " + temp + " to " + file);
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+
+    private static final class PendingSave implements Callable<Void> {
+        private final File file;
+        private final FutureTask<Void> future;
+        private volatile FileConfiguration snapshot;
+
+        PendingSave(File file, FileConfiguration snapshot) {
+            this.file = file;
+            this.snapshot = snapshot;
+            this.future = new FutureTask<Void>(this) {
+                @Override
+                protected void done() {
+                    synchronized (pending) {
+                        unwritten.remove(PendingSave.this);
+                    }
+                }
+            };
+        }
+
+        public Void call() throws IOException {
+            FileConfiguration snapshot;
+            synchronized (pending) {
+                pending.remove(file);
+                snapshot = this.snapshot;
+            }
+
+            writeAtomically(file, snapshot);
+            return null;
+        }
+    }
+}
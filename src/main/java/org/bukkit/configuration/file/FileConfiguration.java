@@ -7,6 +7,7 @@ import org.apache.commons.lang.Validate;
 import org.bukkit.configuration.InvalidConfigurationException;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -18,6 +19,8 @@ import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.MemoryConfiguration;
@@ -28,6 +31,8 @@ import org.yaml.snakeyaml.external.biz.base64Coder.Base64Coder;
  * Configuration}
  */
 public abstract class FileConfiguration extends MemoryConfiguration {
+    private static final long DEFAULT_SAVE_DELAY = 500;
+
     /**
      * This value specified that the system default encoding should be
      * completely ignored, as it cannot handle the ASCII character set, or it
@@ -100,12 +105,10 @@ public abstract class FileConfiguration extends MemoryConfiguration {
 
         Files.createParentDirs(file);
 
-        String data = saveToString();
-
-        Writer writer = new OutputStreamWriter(new FileOutputStream(file), UTF8_OVERRIDE && !UTF_BIG ? Charsets.UTF_8 : Charset.defaultCharset());
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF8_OVERRIDE && !UTF_BIG ? Charsets.UTF_8 : Charset.defaultCharset()));
 
         try {
-            writer.write(data);
+            save(writer);
         } finally {
             writer.close();
         }
@@ -132,6 +135,90 @@ public abstract class FileConfiguration extends MemoryConfiguration {
         save(new File(file));
     }
 
+    /**
+     * Saves this {@link FileConfiguration} to the specified location on a
+     * background thread, within half a second.
+     *
+     * @param file File to save to.
+     * @return Future which completes once the file is written
+     * @throws IllegalArgumentException Thrown when file is null.
+     * @see #saveAsync(File, long, TimeUnit)
+     */
+    public Future<Void> saveAsync(File file) {
+        return saveAsync(file, DEFAULT_SAVE_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Saves this {@link FileConfiguration} to the specified location on a
+     * background thread.
+     * <p>
+     * A {@link #snapshot() snapshot} of the configuration is taken right
+     * away, and written after the given delay. If the same file is saved
+     * again before the write started, only the latest snapshot is written and
+     * the same future is returned.
+     * <p>
+     * The configuration is written to a temporary file which then replaces
+     * the given file, so the file is never left partially written. Pending
+     * saves are written right away when a plugin is disabled, or by {@link
+     * #flushPendingSaves()}.
+     *
+     * @param file File to save to.
+     * @param delay How long to wait for further saves of the same file.
+     * @param unit Unit of the delay.
+     * @return Future which completes once the file is written, or fails with
+     *     the IOException that prevented it
+     * @throws IllegalArgumentException Thrown when file is null.
+     */
+    public Future<Void> saveAsync(File file, long delay, TimeUnit unit) {
+        Validate.notNull(file, "File cannot be null");
+        Validate.notNull(unit, "Unit cannot be null");
+
+        return ConfigurationSaver.save(file, snapshot(), delay, unit);
+    }
+
+    /**
+     * Creates a copy of this {@link FileConfiguration} which can be saved on
+     * another thread while this one is changed.
+     * <p>
+     * Implementations should copy the section tree, which is cheaper than
+     * serializing it. By default, the configuration is serialized right away.
+     *
+     * @return Copy of this configuration, only meant to be saved
+     */
+    protected FileConfiguration snapshot() {
+        return new SerializedConfiguration(saveToString());
+    }
+
+    /**
+     * Writes all configurations which are waiting to be saved by {@link
+     * #saveAsync(File, long, TimeUnit)}, without waiting for their delay.
+     * <p>
+     * This blocks until every pending save is written. Saves which fail are
+     * logged, and reported by their future.
+     */
+    public static void flushPendingSaves() {
+        ConfigurationSaver.flush();
+    }
+
+    /**
+     * Saves this {@link FileConfiguration} to the specified writer.
+     * <p>
+     * The writer is flushed, but not closed. Implementations may write the
+     * configuration as it is serialized, rather than building it as a string
+     * first.
+     *
+     * @param writer Writer to save to.
+     * @throws IOException Thrown when the underlying writer throws an
+     *     IOException.
+     * @throws IllegalArgumentException Thrown when writer is null.
+     */
+    public void save(Writer writer) throws IOException {
+        Validate.notNull(writer, "Writer cannot be null");
+
+        writer.write(saveToString());
+        writer.flush();
+    }
+
     /**
      * Saves this {@link FileConfiguration} to a string, and returns it.
      *
@@ -200,6 +287,9 @@ public abstract class FileConfiguration extends MemoryConfiguration {
      * All the values contained within this configuration will be removed,
      * leaving only settings and defaults, and the new values will be loaded
      * from the given stream.
+     * <p>
+     * Implementations may parse the configuration as it is read, rather than
+     * reading it into a string first. The reader is closed afterwards.
      *
      * @param reader the reader to load from
      * @throws IOException thrown when underlying reader throws an IOException
@@ -287,4 +377,30 @@ public abstract class FileConfiguration extends MemoryConfiguration {
 
         return (FileConfigurationOptions) options;
     }
-}
\ No newline at end of file
+
+    /**
+     * A configuration serialized by the default {@link #snapshot()}
+     */
+    private static final class SerializedConfiguration extends FileConfiguration {
+        private final String data;
+
+        SerializedConfiguration(String data) {
+            this.data = data;
+        }
+
+        @Override
+        public String saveToString() {
+            return data;
+        }
+
+        @Override
+        public void loadFromString(String contents) {
+            throw new UnsupportedOperationException("Cannot load into a snapshot");
+        }
+
+        @Override
+        protected String buildHeader() {
+            return "";
+        }
+    }
+}
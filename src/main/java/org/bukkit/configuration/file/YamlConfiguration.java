@@ -1,10 +1,15 @@
 package org.bukkit.configuration.file;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FilterReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 
@@ -13,9 +18,16 @@ import org.bukkit.Bukkit;
 import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
 import org.yaml.snakeyaml.representer.Representer;
 
 /**
@@ -31,10 +43,7 @@ public class YamlConfiguration extends FileConfiguration {
 
     @Override
     public String saveToString() {
-        yamlOptions.setIndent(options().indent());
-        yamlOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-        yamlOptions.setAllowUnicode(SYSTEM_UTF);
-        yamlRepresenter.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        configureDumper();
 
         String header = buildHeader();
         String dump = yaml.dump(getValues(false));
@@ -46,6 +55,175 @@ public class YamlConfiguration extends FileConfiguration {
         return header + dump;
     }
 
+    @Override
+    public void save(Writer writer) throws IOException {
+        Validate.notNull(writer, "Writer cannot be null");
+
+        configureDumper();
+
+        writer.write(buildHeader());
+        Map<String, Object> values = getValues(false);
+        if (!values.isEmpty()) {
+            try {
+                yaml.dump(values, writer);
+            } catch (YAMLException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Copies the sections and lists of this configuration. Other values are
+     * shared with the snapshot, so they must not be changed while it is
+     * saved.
+     *
+     * @return Copy of this configuration, only meant to be saved
+     */
+    @Override
+    protected FileConfiguration snapshot() {
+        YamlConfiguration snapshot = new YamlConfiguration();
+        snapshot.options()
+            .indent(options().indent())
+            .pathSeparator(options().pathSeparator())
+            .header(options().header())
+            .copyHeader(options().copyHeader());
+        if (getDefaults() != null) {
+            // Only consulted for the header, as defaults are copied below
+            snapshot.setDefaults(getDefaults());
+        }
+
+        copySection(this, snapshot, true);
+        return snapshot;
+    }
+
+    private static void copySection(ConfigurationSection from, ConfigurationSection to, boolean copyLists) {
+        for (Map.Entry<String, Object> entry : from.getValues(false).entrySet()) {
+            Object value = entry.getValue();
+
+            if (value instanceof ConfigurationSection) {
+                copySection((ConfigurationSection) value, to.createSection(entry.getKey()), copyLists);
+            } else if (copyLists && value instanceof List) {
+                to.set(entry.getKey(), new ArrayList<Object>((List<?>) value));
+            } else {
+                to.set(entry.getKey(), value);
+            }
+        }
+    }
+
+    private void configureDumper() {
+        yamlOptions.setIndent(options().indent());
+        yamlOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        yamlOptions.setAllowUnicode(SYSTEM_UTF);
+        yamlRepresenter.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+    }
+
+    /**
+     * Loads this configuration from the specified reader.
+     * <p>
+     * The document is composed into a node tree, from which the sections of
+     * this configuration are created directly, without going through a
+     * string and a map of the whole document. If this configuration already
+     * holds values, the document is loaded into a separate configuration
+     * first and then copied in. Either way, a document which cannot be
+     * loaded leaves this configuration unchanged.
+     *
+     * @param reader the reader to load from
+     * @throws IOException thrown when underlying reader throws an IOException
+     * @throws InvalidConfigurationException thrown when the reader does not
+     *      represent a valid Configuration
+     * @throws IllegalArgumentException thrown when reader is null
+     */
+    @Override
+    public void load(Reader reader) throws IOException, InvalidConfigurationException {
+        Validate.notNull(reader, "Reader cannot be null");
+
+        HeaderReader input = new HeaderReader(reader instanceof BufferedReader ? reader : new BufferedReader(reader));
+        try {
+            Node node = yaml.compose(input);
+            input.finish();
+
+            // Constructed nodes are remembered for aliases until the document is done
+            YamlConstructor constructor = new YamlConstructor();
+            if (node != null && !isSection(constructor, node)) {
+                throw new InvalidConfigurationException("Top level is not a Map.");
+            }
+
+            if (node != null) {
+                if (map.isEmpty()) {
+                    // Nothing to restore, so a failure only has to remove what was added
+                    boolean complete = false;
+                    try {
+                        loadSection(constructor, (MappingNode) node, this);
+                        complete = true;
+                    } finally {
+                        if (!complete) {
+                            map.clear();
+                        }
+                    }
+                } else {
+                    MemoryConfiguration loaded = new MemoryConfiguration();
+                    loaded.options().pathSeparator(options().pathSeparator());
+                    loadSection(constructor, (MappingNode) node, loaded);
+                    copySection(loaded, this, false);
+                }
+            }
+
+            String header = input.getHeader();
+            if (header.length() > 0) {
+                options().header(header);
+            }
+        } catch (YAMLException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new InvalidConfigurationException(e);
+        } finally {
+            input.close();
+        }
+    }
+
+    private void loadSection(YamlConstructor constructor, MappingNode node, ConfigurationSection section) {
+        for (NodeTuple tuple : node.getValue()) {
+            String key = String.valueOf(constructor.constructNode(tuple.getKeyNode()));
+            Node value = tuple.getValueNode();
+
+            if (isSection(constructor, value)) {
+                loadSection(constructor, (MappingNode) value, section.createSection(key));
+            } else {
+                Object object = constructor.constructNode(value);
+                if (object instanceof Map) {
+                    convertMapsToSections((Map<?, ?>) object, section.createSection(key));
+                } else {
+                    section.set(key, object);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a node is a plain mapping, which becomes a section
+     * rather than being constructed
+     */
+    private boolean isSection(YamlConstructor constructor, Node node) {
+        if (!(node instanceof MappingNode) || !Tag.MAP.equals(node.getTag()) || node.isTwoStepsConstruction()) {
+            return false;
+        }
+
+        MappingNode mapping = (MappingNode) node;
+        constructor.flattenNode(mapping);
+        for (NodeTuple tuple : mapping.getValue()) {
+            Node key = tuple.getKeyNode();
+            if (key instanceof ScalarNode && ConfigurationSerialization.SERIALIZED_TYPE_KEY.equals(((ScalarNode) key).getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public void loadFromString(String contents) throws InvalidConfigurationException {
         Validate.notNull(contents, "Contents cannot be null");
@@ -246,4 +424,102 @@ public class YamlConfiguration extends FileConfiguration {
 
         return config;
     }
+
+    /**
+     * Passes a document through while picking up its header, the same way
+     * {@link #parseHeader(String)} does
+     */
+    private static final class HeaderReader extends FilterReader {
+        private final StringBuilder header = new StringBuilder();
+        private final StringBuilder line = new StringBuilder();
+        private int lineNumber = 0;
+        private boolean readingHeader = true;
+        private boolean foundHeader = false;
+        private boolean lastWasCarriageReturn = false;
+
+        HeaderReader(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (readingHeader) {
+                if (c == -1) {
+                    finish();
+                } else {
+                    accept((char) c);
+                }
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int read = super.read(cbuf, off, len);
+            if (readingHeader) {
+                if (read == -1) {
+                    finish();
+                }
+                for (int i = 0; i < read && readingHeader; i++) {
+                    accept(cbuf[off + i]);
+                }
+            }
+            return read;
+        }
+
+        private void accept(char c) {
+            if (c == '\n' && lastWasCarriageReturn) {
+                lastWasCarriageReturn = false;
+                return;
+            }
+            lastWasCarriageReturn = c == '\r';
+
+            if (c == '\n' || c == '\r') {
+                endLine();
+            } else if (line.length() < COMMENT_PREFIX.length() || line.indexOf(COMMENT_PREFIX) == 0) {
+                // Only comments need to be kept whole
+                line.append(c);
+            }
+        }
+
+        private void endLine() {
+            if (line.indexOf(COMMENT_PREFIX) == 0) {
+                if (lineNumber > 0) {
+                    header.append("\n");
+                }
+
+                header.append(line, COMMENT_PREFIX.length(), line.length());
+                foundHeader = true;
+            } else if ((foundHeader) && (line.length() == 0)) {
+                header.append("\n");
+            } else if (foundHeader) {
+                readingHeader = false;
+            }
+
+            line.setLength(0);
+            lineNumber++;
+        }
+
+        /**
+         * Handles the end of the document, which is treated as ending with a
+         * line break like documents read by {@link
+         * FileConfiguration#load(Reader)}
+         */
+        void finish() {
+            if (readingHeader) {
+                if (line.length() > 0) {
+                    endLine();
+                }
+                if (readingHeader) {
+                    endLine();
+                }
+                readingHeader = false;
+            }
+        }
+
+        String getHeader() {
+            return header.toString();
+        }
+    }
 }
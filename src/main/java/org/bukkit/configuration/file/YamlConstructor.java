@@ -3,6 +3,7 @@ package org.bukkit.configuration.file;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
 import org.yaml.snakeyaml.constructor.SafeConstructor;
 import org.yaml.snakeyaml.error.YAMLException;
@@ -16,6 +17,22 @@ public class YamlConstructor extends SafeConstructor {
         this.yamlConstructors.put(Tag.MAP, new ConstructCustomObject());
     }
 
+    /**
+     * Constructs a single node of a document which is loaded piece by piece.
+     * Constructed nodes are remembered for aliases, so the constructor
+     * should not be reused for another document.
+     */
+    Object constructNode(Node node) {
+        return constructObject(node);
+    }
+
+    /**
+     * Applies the merge keys of a mapping node to its entries
+     */
+    void flattenNode(MappingNode node) {
+        flattenMapping(node);
+    }
+
     private class ConstructCustomObject extends ConstructYamlMap {
         @Override
         public Object construct(Node node) {
@@ -4,8 +4,9 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,8 +24,19 @@ import org.bukkit.util.Vector;
  */
 public class ConfigurationSerialization {
     public static final String SERIALIZED_TYPE_KEY = "==";
+    private static final Logger logger = Logger.getLogger(ConfigurationSerialization.class.getName());
     private final Class<? extends ConfigurationSerializable> clazz;
-    private static Map<String, Class<? extends ConfigurationSerializable>> aliases = new HashMap<String, Class<? extends ConfigurationSerializable>>();
+    private static Map<String, Class<? extends ConfigurationSerializable>> aliases = new ConcurrentHashMap<String, Class<? extends ConfigurationSerializable>>();
+    /**
+     * Serializations of registered classes, which look up their
+     * deserialization methods only once
+     */
+    private static final ConcurrentMap<Class<? extends ConfigurationSerializable>, ConfigurationSerialization> serializations = new ConcurrentHashMap<Class<? extends ConfigurationSerializable>, ConfigurationSerialization>();
+
+    private Method deserializeMethod;
+    private Method valueOfMethod;
+    private Constructor<? extends ConfigurationSerializable> constructor;
+    private volatile boolean resolved = false;
 
     static {
         registerClass(Vector.class);
@@ -73,12 +85,12 @@ public class ConfigurationSerialization {
             ConfigurationSerializable result = (ConfigurationSerializable) method.invoke(null, args);
 
             if (result == null) {
-                Logger.getLogger(ConfigurationSerialization.class.getName()).log(Level.SEVERE, "Could not call method '" + method.toString() + "' of " + clazz + " for deserialization: method returned null");
+                logger.log(Level.SEVERE, "Could not call method '" + method.toString() + "' of " + clazz + " for deserialization: method returned null");
             } else {
                 return result;
             }
         } catch (Throwable ex) {
-            Logger.getLogger(ConfigurationSerialization.class.getName()).log(
+            logger.log(
                     Level.SEVERE,
                     "Could not call method '" + method.toString() + "' of " + clazz + " for deserialization",
                     ex instanceof InvocationTargetException ? ex.getCause() : ex);
@@ -91,7 +103,7 @@ public class ConfigurationSerialization {
         try {
             return ctor.newInstance(args);
         } catch (Throwable ex) {
-            Logger.getLogger(ConfigurationSerialization.class.getName()).log(
+            logger.log(
                     Level.SEVERE,
                     "Could not call constructor '" + ctor.toString() + "' of " + clazz + " for deserialization",
                     ex instanceof InvocationTargetException ? ex.getCause() : ex);
@@ -103,34 +115,41 @@ public class ConfigurationSerialization {
     public ConfigurationSerializable deserialize(Map<String, ?> args) {
         Validate.notNull(args, "Args must not be null");
 
+        resolve();
         ConfigurationSerializable result = null;
-        Method method = null;
 
-        if (result == null) {
-            method = getMethod("deserialize", true);
-
-            if (method != null) {
-                result = deserializeViaMethod(method, args);
-            }
+        if (deserializeMethod != null) {
+            result = deserializeViaMethod(deserializeMethod, args);
         }
 
-        if (result == null) {
-            method = getMethod("valueOf", true);
+        if (result == null && valueOfMethod != null) {
+            result = deserializeViaMethod(valueOfMethod, args);
+        }
 
-            if (method != null) {
-                result = deserializeViaMethod(method, args);
-            }
+        if (result == null && constructor != null) {
+            result = deserializeViaCtor(constructor, args);
         }
 
-        if (result == null) {
-            Constructor<? extends ConfigurationSerializable> constructor = getConstructor();
+        return result;
+    }
 
-            if (constructor != null) {
-                result = deserializeViaCtor(constructor, args);
-            }
+    /**
+     * Looks up the methods and constructor used for deserialization, once
+     * per instance
+     */
+    private void resolve() {
+        if (!resolved) {
+            deserializeMethod = getMethod("deserialize", true);
+            valueOfMethod = getMethod("valueOf", true);
+            constructor = getConstructor();
+            resolved = true;
         }
+    }
 
-        return result;
+    private static ConfigurationSerialization getSerialization(Class<? extends ConfigurationSerializable> clazz) {
+        ConfigurationSerialization serialization = serializations.get(clazz);
+        // Unregistered classes are not cached, so they can still be unloaded
+        return serialization != null ? serialization : new ConfigurationSerialization(clazz);
     }
 
     /**
@@ -149,7 +168,7 @@ public class ConfigurationSerialization {
      * @return New instance of the specified class
      */
     public static ConfigurationSerializable deserializeObject(Map<String, ?> args, Class<? extends ConfigurationSerializable> clazz) {
-        return new ConfigurationSerialization(clazz).deserialize(args);
+        return getSerialization(clazz).deserialize(args);
     }
 
     /**
@@ -188,7 +207,7 @@ public class ConfigurationSerialization {
             throw new IllegalArgumentException("Args doesn't contain type key ('" + SERIALIZED_TYPE_KEY + "')");
         }
 
-        return new ConfigurationSerialization(clazz).deserialize(args);
+        return getSerialization(clazz).deserialize(args);
     }
 
     /**
@@ -215,7 +234,14 @@ public class ConfigurationSerialization {
      * @see SerializableAs
      */
     public static void registerClass(Class<? extends ConfigurationSerializable> clazz, String alias) {
-        aliases.put(alias, clazz);
+        if (!serializations.containsKey(clazz)) {
+            ConfigurationSerialization serialization = new ConfigurationSerialization(clazz);
+            serialization.resolve();
+            serializations.putIfAbsent(clazz, serialization);
+        }
+        if (alias != null) {
+            aliases.put(alias, clazz);
+        }
     }
 
     /**
@@ -224,7 +250,13 @@ public class ConfigurationSerialization {
      * @param alias Alias to unregister
      */
     public static void unregisterClass(String alias) {
-        aliases.remove(alias);
+        if (alias == null) {
+            return;
+        }
+        Class<? extends ConfigurationSerializable> clazz = aliases.remove(alias);
+        if (clazz != null && !aliases.containsValue(clazz)) {
+            serializations.remove(clazz);
+        }
     }
 
     /**
@@ -237,6 +269,7 @@ public class ConfigurationSerialization {
         while (aliases.values().remove(clazz)) {
             ;
         }
+        serializations.remove(clazz);
     }
 
     /**
@@ -247,7 +280,7 @@ public class ConfigurationSerialization {
      * @return Registered class, or null if not found
      */
     public static Class<? extends ConfigurationSerializable> getClassByAlias(String alias) {
-        return aliases.get(alias);
+        return alias == null ? null : aliases.get(alias);
     }
 
     /**
@@ -34,4 +34,18 @@ public @interface EventHandler {
      * not called. Otherwise, the method is always called.
      */
     boolean ignoreCancelled() default false;
+
+    /**
+     * Define if the handler is independent of other handlers of the same
+     * priority.
+     * <p>
+     * If concurrent is true, the event is asynchronous and the server has
+     * parallel asynchronous dispatch enabled, the method may be called at
+     * the same time as other concurrent handlers of the same priority, on a
+     * thread pool belonging to the plugin. Handlers of lower priorities
+     * still finish before it is called, and handlers of higher priorities
+     * still start after it returns. Such handlers must not depend on changes
+     * other handlers of the same priority make to the event.
+     */
+    boolean concurrent() default false;
 }
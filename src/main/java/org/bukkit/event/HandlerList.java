@@ -13,7 +13,10 @@ public class HandlerList {
 
     /**
      * Handler array. This field being an array is the key to this system's
-     * speed.
+     * speed. Only listeners of enabled plugins are baked into it.
+     * <p>
+     * Once baked, registering and unregistering replace it with a patched
+     * copy instead of forcing a full re-bake.
      */
     private volatile RegisteredListener[] handlers = null;
 
@@ -29,6 +32,20 @@ public class HandlerList {
      */
     private static ArrayList<HandlerList> allLists = new ArrayList<HandlerList>();
 
+    /**
+     * The HandlerLists each plugin and each listener has registrations in,
+     * so that per-plugin and per-listener operations only visit those lists
+     */
+    private static final Map<Plugin, Set<HandlerList>> pluginLists = new HashMap<Plugin, Set<HandlerList>>();
+    private static final Map<Listener, Set<HandlerList>> listenerLists = new HashMap<Listener, Set<HandlerList>>();
+
+    /**
+     * Number of registrations in this list per plugin and per listener, so
+     * this list leaves the index when the last one is unregistered
+     */
+    private final Map<Plugin, Integer> pluginCounts = new HashMap<Plugin, Integer>();
+    private final Map<Listener, Integer> listenerCounts = new HashMap<Listener, Integer>();
+
     /**
      * Bake all handler lists. Best used just after all normal event
      * registration is complete, ie just after all plugins are loaded if
@@ -42,6 +59,19 @@ public class HandlerList {
         }
     }
 
+    /**
+     * Mark every handler list holding listeners of a specific plugin to be
+     * baked again, as only listeners of enabled plugins are baked. The plugin
+     * manager calls this when it enables or disables a plugin.
+     *
+     * @param plugin plugin whose enabled state changed
+     */
+    public static void invalidateAll(Plugin plugin) {
+        for (HandlerList h : getIndexed(pluginLists, plugin)) {
+            h.invalidate(plugin);
+        }
+    }
+
     /**
      * Unregister all listeners from all handler lists.
      */
@@ -53,6 +83,14 @@ public class HandlerList {
                         list.clear();
                     }
                     h.handlers = null;
+                    for (Plugin plugin : h.pluginCounts.keySet()) {
+                        removeIndex(pluginLists, plugin, h);
+                    }
+                    for (Listener listener : h.listenerCounts.keySet()) {
+                        removeIndex(listenerLists, listener, h);
+                    }
+                    h.pluginCounts.clear();
+                    h.listenerCounts.clear();
                 }
             }
         }
@@ -64,10 +102,8 @@ public class HandlerList {
      * @param plugin plugin to unregister
      */
     public static void unregisterAll(Plugin plugin) {
-        synchronized (allLists) {
-            for (HandlerList h : allLists) {
-                h.unregister(plugin);
-            }
+        for (HandlerList h : getIndexed(pluginLists, plugin)) {
+            h.unregister(plugin);
         }
     }
 
@@ -77,9 +113,37 @@ public class HandlerList {
      * @param listener listener to unregister
      */
     public static void unregisterAll(Listener listener) {
-        synchronized (allLists) {
-            for (HandlerList h : allLists) {
-                h.unregister(listener);
+        for (HandlerList h : getIndexed(listenerLists, listener)) {
+            h.unregister(listener);
+        }
+    }
+
+    private static <K> List<HandlerList> getIndexed(Map<K, Set<HandlerList>> index, K key) {
+        synchronized (index) {
+            Set<HandlerList> lists = index.get(key);
+            if (lists == null) {
+                return Collections.emptyList();
+            }
+            return new ArrayList<HandlerList>(lists);
+        }
+    }
+
+    private static <K> void addIndex(Map<K, Set<HandlerList>> index, K key, HandlerList list) {
+        synchronized (index) {
+            Set<HandlerList> lists = index.get(key);
+            if (lists == null) {
+                lists = new HashSet<HandlerList>();
+                index.put(key, lists);
+            }
+            lists.add(list);
+        }
+    }
+
+    private static <K> void removeIndex(Map<K, Set<HandlerList>> index, K key, HandlerList list) {
+        synchronized (index) {
+            Set<HandlerList> lists = index.get(key);
+            if (lists != null && lists.remove(list) && lists.isEmpty()) {
+                index.remove(key);
             }
         }
     }
@@ -107,8 +171,14 @@ public class HandlerList {
     public synchronized void register(RegisteredListener listener) {
         if (handlerslots.get(listener.getPriority()).contains(listener))
             throw new IllegalStateException("This listener is already registered to priority " + listener.getPriority().toString());
-        handlers = null;
         handlerslots.get(listener.getPriority()).add(listener);
+        if (retain(pluginCounts, listener.getPlugin())) {
+            addIndex(pluginLists, listener.getPlugin(), this);
+        }
+        if (retain(listenerCounts, listener.getListener())) {
+            addIndex(listenerLists, listener.getListener(), this);
+        }
+        insertBaked(listener);
     }
 
     /**
@@ -129,7 +199,9 @@ public class HandlerList {
      */
     public synchronized void unregister(RegisteredListener listener) {
         if (handlerslots.get(listener.getPriority()).remove(listener)) {
-            handlers = null;
+            List<RegisteredListener> removed = Collections.singletonList(listener);
+            removeBaked(removed);
+            updateIndex(removed);
         }
     }
 
@@ -139,16 +211,20 @@ public class HandlerList {
      * @param plugin plugin to remove
      */
     public synchronized void unregister(Plugin plugin) {
-        boolean changed = false;
+        List<RegisteredListener> removed = new ArrayList<RegisteredListener>();
         for (List<RegisteredListener> list : handlerslots.values()) {
             for (ListIterator<RegisteredListener> i = list.listIterator(); i.hasNext();) {
-                if (i.next().getPlugin().equals(plugin)) {
+                RegisteredListener listener = i.next();
+                if (listener.getPlugin().equals(plugin)) {
                     i.remove();
-                    changed = true;
+                    removed.add(listener);
                 }
             }
         }
-        if (changed) handlers = null;
+        if (!removed.isEmpty()) {
+            removeBaked(removed);
+            updateIndex(removed);
+        }
     }
 
     /**
@@ -157,32 +233,143 @@ public class HandlerList {
      * @param listener listener to remove
      */
     public synchronized void unregister(Listener listener) {
-        boolean changed = false;
+        List<RegisteredListener> removed = new ArrayList<RegisteredListener>();
         for (List<RegisteredListener> list : handlerslots.values()) {
             for (ListIterator<RegisteredListener> i = list.listIterator(); i.hasNext();) {
-                if (i.next().getListener().equals(listener)) {
+                RegisteredListener registration = i.next();
+                if (registration.getListener().equals(listener)) {
                     i.remove();
-                    changed = true;
+                    removed.add(registration);
+                }
+            }
+        }
+        if (!removed.isEmpty()) {
+            removeBaked(removed);
+            updateIndex(removed);
+        }
+    }
+
+    /**
+     * Drops this list from the plugin and listener index of removed
+     * registrations, unless other registrations still need it there
+     */
+    private void updateIndex(Collection<RegisteredListener> removed) {
+        for (RegisteredListener listener : removed) {
+            if (release(pluginCounts, listener.getPlugin())) {
+                removeIndex(pluginLists, listener.getPlugin(), this);
+            }
+            if (release(listenerCounts, listener.getListener())) {
+                removeIndex(listenerLists, listener.getListener(), this);
+            }
+        }
+    }
+
+    /**
+     * Counts a registration of the key, returning true if it is the first
+     */
+    private static <K> boolean retain(Map<K, Integer> counts, K key) {
+        Integer count = counts.get(key);
+        counts.put(key, count == null ? 1 : count + 1);
+        return count == null;
+    }
+
+    /**
+     * Uncounts a registration of the key, returning true if it was the last
+     */
+    private static <K> boolean release(Map<K, Integer> counts, K key) {
+        Integer count = counts.get(key);
+        if (count == null || count <= 1) {
+            counts.remove(key);
+            return true;
+        }
+        counts.put(key, count - 1);
+        return false;
+    }
+
+    /**
+     * Adds a listener to the end of its priority in a copy of the baked
+     * array, the same position a full bake would put it in
+     */
+    private void insertBaked(RegisteredListener listener) {
+        RegisteredListener[] baked = handlers;
+        if (baked == null || !listener.getPlugin().isEnabled()) return;
+
+        int slot = listener.getPriority().ordinal();
+        int index = baked.length;
+        while (index > 0 && baked[index - 1].getPriority().ordinal() > slot) {
+            index--;
+        }
+
+        RegisteredListener[] patched = new RegisteredListener[baked.length + 1];
+        System.arraycopy(baked, 0, patched, 0, index);
+        patched[index] = listener;
+        System.arraycopy(baked, index, patched, index + 1, baked.length - index);
+        handlers = patched;
+    }
+
+    /**
+     * Replaces the baked array with a copy that no longer holds the given
+     * listeners
+     */
+    private void removeBaked(Collection<RegisteredListener> removed) {
+        RegisteredListener[] baked = handlers;
+        if (baked == null) return;
+
+        Set<RegisteredListener> remove = removed.size() == 1 ? Collections.singleton(removed.iterator().next()) : new HashSet<RegisteredListener>(removed);
+        RegisteredListener[] patched = new RegisteredListener[baked.length];
+        int size = 0;
+        for (RegisteredListener listener : baked) {
+            if (!remove.contains(listener)) {
+                patched[size++] = listener;
+            }
+        }
+        if (size != baked.length) {
+            handlers = Arrays.copyOf(patched, size);
+        }
+    }
+
+    /**
+     * Mark this handler list to be baked again if it holds listeners of a
+     * specific plugin
+     *
+     * @param plugin plugin whose enabled state changed
+     */
+    public synchronized void invalidate(Plugin plugin) {
+        if (handlers == null) return;
+        for (List<RegisteredListener> list : handlerslots.values()) {
+            for (RegisteredListener listener : list) {
+                if (listener.getPlugin().equals(plugin)) {
+                    handlers = null;
+                    return;
                 }
             }
         }
-        if (changed) handlers = null;
     }
 
     /**
      * Bake HashMap and ArrayLists to 2d array - does nothing if not necessary
+     * <p>
+     * Listeners belonging to disabled plugins are left out.
      */
     public synchronized void bake() {
         if (handlers != null) return; // don't re-bake when still valid
         List<RegisteredListener> entries = new ArrayList<RegisteredListener>();
         for (Entry<EventPriority, ArrayList<RegisteredListener>> entry : handlerslots.entrySet()) {
-            entries.addAll(entry.getValue());
+            for (RegisteredListener listener : entry.getValue()) {
+                if (listener.getPlugin().isEnabled()) {
+                    entries.add(listener);
+                }
+            }
         }
         handlers = entries.toArray(new RegisteredListener[entries.size()]);
     }
 
     /**
      * Get the baked registered listeners associated with this handler list
+     * <p>
+     * Listeners of plugins which were disabled when this list was baked are
+     * left out. Callers should still skip listeners of disabled plugins, as
+     * a plugin may be disabled without the list being baked again.
      *
      * @return the array of registered listeners
      */
@@ -192,6 +379,18 @@ public class HandlerList {
         return handlers;
     }
 
+    /**
+     * Check whether any enabled plugin listens through this handler list.
+     * <p>
+     * This is meant to be checked before constructing an event which is
+     * expensive to create or fired very often.
+     *
+     * @return true if at least one listener would be called
+     */
+    public boolean hasListeners() {
+        return getRegisteredListeners().length != 0;
+    }
+
     /**
      * Get a specific plugin's registered listeners associated with this
      * handler list
@@ -201,14 +400,12 @@ public class HandlerList {
      */
     public static ArrayList<RegisteredListener> getRegisteredListeners(Plugin plugin) {
         ArrayList<RegisteredListener> listeners = new ArrayList<RegisteredListener>();
-        synchronized (allLists) {
-            for (HandlerList h : allLists) {
-                synchronized (h) {
-                    for (List<RegisteredListener> list : h.handlerslots.values()) {
-                        for (RegisteredListener listener : list) {
-                            if (listener.getPlugin().equals(plugin)) {
-                                listeners.add(listener);
-                            }
+        for (HandlerList h : getIndexed(pluginLists, plugin)) {
+            synchronized (h) {
+                for (List<RegisteredListener> list : h.handlerslots.values()) {
+                    for (RegisteredListener listener : list) {
+                        if (listener.getPlugin().equals(plugin)) {
+                            listeners.add(listener);
                         }
                     }
                 }
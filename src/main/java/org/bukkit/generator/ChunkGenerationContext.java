@@ -0,0 +1,183 @@
+package org.bukkit.generator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.generator.ChunkGenerator.BiomeGrid;
+
+/**
+ * The state used to generate one chunk after another on a single thread.
+ * <p>
+ * A context holds a {@link Random} which is seeded for every chunk, a
+ * {@link BiomeGrid} and buffers for the block sections of the chunk, which
+ * are reused for the next chunk. It must only be used by the thread it was
+ * created for, so generators which are {@link
+ * ChunkGenerator#isParallelCapable() parallel capable} get a context per
+ * thread.
+ */
+public final class ChunkGenerationContext {
+    private final World world;
+    private final Random random = new Random();
+    private final ArrayBiomeGrid biomes = new ArrayBiomeGrid();
+    private final short[][] sections;
+    private final short[][] buffers;
+    private int chunkX;
+    private int chunkZ;
+
+    /**
+     * Creates a context for generating chunks of the given world
+     *
+     * @param world World the chunks are generated for
+     * @throws IllegalArgumentException Thrown when world is null
+     */
+    public ChunkGenerationContext(World world) {
+        Validate.notNull(world, "World cannot be null");
+
+        this.world = world;
+        this.sections = new short[world.getMaxHeight() / 16][];
+        this.buffers = new short[sections.length][];
+        reset(0, 0);
+    }
+
+    /**
+     * Prepares this context for the given chunk
+     * <p>
+     * This seeds the random for the chunk, resets all biomes to plains and
+     * empties the block sections, so the sections of the previous chunk may
+     * no longer be used.
+     *
+     * @param x The X-coordinate of the chunk
+     * @param z The Z-coordinate of the chunk
+     */
+    public void reset(int x, int z) {
+        chunkX = x;
+        chunkZ = z;
+        random.setSeed((long) x * 341873128712L + (long) z * 132897987541L);
+        Arrays.fill(biomes.biomes, Biome.PLAINS);
+        Arrays.fill(sections, null);
+    }
+
+    /**
+     * Gets the world the chunks are generated for
+     *
+     * @return The world
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Gets the X-coordinate of the chunk being generated
+     *
+     * @return X-coordinate of the chunk
+     */
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    /**
+     * Gets the Z-coordinate of the chunk being generated
+     *
+     * @return Z-coordinate of the chunk
+     */
+    public int getChunkZ() {
+        return chunkZ;
+    }
+
+    /**
+     * Gets the random for the chunk being generated, which is seeded the
+     * same way for a chunk regardless of the thread it is generated on
+     *
+     * @return The random
+     */
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Gets the biomes of the chunk being generated
+     *
+     * @return The biomes
+     */
+    public BiomeGrid getBiomes() {
+        return biomes;
+    }
+
+    /**
+     * Gets the block sections of the chunk being generated, in the format
+     * returned by {@link ChunkGenerator#generateExtBlockSections(World,
+     * Random, int, int, BiomeGrid)}
+     * <p>
+     * Sections are null until a block is set in them. The array is reused
+     * for the next chunk, so it must not be kept after the chunk has been
+     * handled.
+     *
+     * @return The block sections
+     */
+    public short[][] getSections() {
+        return sections;
+    }
+
+    /**
+     * Gets a block section of the chunk being generated, creating it if it
+     * is empty
+     *
+     * @param section Index of the section, which is <code>y &gt;&gt;
+     *     4</code>
+     * @return The blocks of the section, indexed by <code>((y &amp; 0xF)
+     *     &lt;&lt; 8) | (z &lt;&lt; 4) | x</code>
+     */
+    public short[] getSection(int section) {
+        short[] blocks = sections[section];
+        if (blocks == null) {
+            blocks = buffers[section];
+            if (blocks == null) {
+                blocks = buffers[section] = new short[4096];
+            } else {
+                Arrays.fill(blocks, (short) 0);
+            }
+            sections[section] = blocks;
+        }
+        return blocks;
+    }
+
+    /**
+     * Sets a block of the chunk being generated
+     *
+     * @param x X-coordinate of the block within the chunk, 0-15
+     * @param y Y-coordinate of the block
+     * @param z Z-coordinate of the block within the chunk, 0-15
+     * @param id Block ID to set
+     */
+    public void setBlock(int x, int y, int z, short id) {
+        getSection(y >> 4)[((y & 0xF) << 8) | (z << 4) | x] = id;
+    }
+
+    /**
+     * Gets a block of the chunk being generated
+     *
+     * @param x X-coordinate of the block within the chunk, 0-15
+     * @param y Y-coordinate of the block
+     * @param z Z-coordinate of the block within the chunk, 0-15
+     * @return Block ID, or 0 if it has not been set
+     */
+    public short getBlock(int x, int y, int z) {
+        short[] blocks = sections[y >> 4];
+        return blocks == null ? 0 : blocks[((y & 0xF) << 8) | (z << 4) | x];
+    }
+
+    private static final class ArrayBiomeGrid implements BiomeGrid {
+        private final Biome[] biomes = new Biome[256];
+
+        public Biome getBiome(int x, int z) {
+            return biomes[(z << 4) | x];
+        }
+
+        public void setBiome(int x, int z, Biome bio) {
+            biomes[(z << 4) | x] = bio;
+        }
+    }
+}
@@ -219,6 +219,85 @@ public abstract class ChunkGenerator {
         return null; // Default - returns null, which drives call to generate()
     }
 
+    /**
+     * Gets if this generator can shape several chunks at once, on different
+     * threads.
+     * <p>
+     * Servers and tools such as {@link ChunkPregenerator} only generate
+     * chunks in parallel for generators which return true. Such generators
+     * must not change any state shared between chunks while generating, and
+     * must keep their per-chunk state in the {@link ChunkGenerationContext},
+     * or in the Random and BiomeGrid they are passed, which are confined to
+     * the generating thread. Populators are not affected by this.
+     * <p>
+     * The default implementation returns false.
+     *
+     * @return true if chunks may be generated concurrently
+     */
+    public boolean isParallelCapable() {
+        return false;
+    }
+
+    /**
+     * Shapes the chunk for the given coordinates using the given context,
+     * with extended block IDs supported (0-4095).
+     * <p>
+     * The context has been {@link ChunkGenerationContext#reset(int, int)
+     * reset} for the chunk. Generators may set the blocks in the context and
+     * return {@link ChunkGenerationContext#getSections()}, which avoids
+     * allocating the sections for every chunk, or return their own sections
+     * in the format of {@link #generateExtBlockSections(World, Random, int,
+     * int, BiomeGrid)}.
+     * <p>
+     * The default implementation calls generateExtBlockSections(),
+     * generateBlockSections() or generate() with the world, random and
+     * biomes of the context, in that order, and copies the blocks of the
+     * older formats into the context.
+     *
+     * @param context The context of the generating thread
+     * @param x The X-coordinate of the chunk
+     * @param z The Z-coordinate of the chunk
+     * @return short[][] containing the types for each block created by this
+     *     generator
+     */
+    public short[][] generateExtBlockSections(ChunkGenerationContext context, int x, int z) {
+        World world = context.getWorld();
+        Random random = context.getRandom();
+        BiomeGrid biomes = context.getBiomes();
+
+        short[][] result = generateExtBlockSections(world, random, x, z, biomes);
+        if (result != null) {
+            return result;
+        }
+
+        byte[][] sections = generateBlockSections(world, random, x, z, biomes);
+        if (sections != null) {
+            for (int i = 0; i < sections.length && i < context.getSections().length; i++) {
+                if (sections[i] != null) {
+                    short[] blocks = context.getSection(i);
+                    for (int j = 0; j < blocks.length; j++) {
+                        blocks[j] = (short) (sections[i][j] & 0xFF);
+                    }
+                }
+            }
+            return context.getSections();
+        }
+
+        byte[] blocks = generate(world, random, x, z);
+        int height = Math.min(blocks.length / 256, context.getSections().length * 16);
+        for (int bx = 0; bx < 16; bx++) {
+            for (int bz = 0; bz < 16; bz++) {
+                int offset = (bx * 16 + bz) * (blocks.length / 256);
+                for (int by = 0; by < height; by++) {
+                    if (blocks[offset + by] != 0) {
+                        context.setBlock(bx, by, bz, (short) (blocks[offset + by] & 0xFF));
+                    }
+                }
+            }
+        }
+        return context.getSections();
+    }
+
     /**
      * Tests if the specified location is valid for a natural spawn position
      *
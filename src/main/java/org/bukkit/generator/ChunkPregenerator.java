@@ -0,0 +1,218 @@
+package org.bukkit.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.World;
+import org.bukkit.generator.ChunkGenerator.BiomeGrid;
+
+/**
+ * Generates the chunks of a region ahead of time, on all cores if the
+ * generator is {@link ChunkGenerator#isParallelCapable() parallel capable}.
+ * <p>
+ * Every thread generates chunks with its own {@link ChunkGenerationContext}
+ * and hands them to a {@link ChunkConsumer}, such as one storing them for the
+ * world. Generators which are not parallel capable are run on the calling
+ * thread only.
+ */
+public class ChunkPregenerator {
+    /**
+     * The most chunks a single call to {@link #generate} accepts, leaving
+     * room for the chunk counter to run past the end without overflowing
+     */
+    public static final int MAX_CHUNKS = 1 << 30;
+
+    private final World world;
+    private final ChunkGenerator generator;
+    private final int threads;
+
+    /**
+     * Handles the chunks generated by a {@link ChunkPregenerator}
+     */
+    public interface ChunkConsumer {
+
+        /**
+         * Handles a generated chunk.
+         * <p>
+         * This is called on the thread which generated the chunk, and may be
+         * called by several threads at once. The sections and biomes are only
+         * valid until this returns.
+         *
+         * @param x The X-coordinate of the chunk
+         * @param z The Z-coordinate of the chunk
+         * @param sections The block sections of the chunk, in the format
+         *     returned by {@link ChunkGenerator#generateExtBlockSections(
+         *     ChunkGenerationContext, int, int)}
+         * @param biomes The biomes of the chunk
+         */
+        void accept(int x, int z, short[][] sections, BiomeGrid biomes);
+    }
+
+    /**
+     * Creates a pregenerator which uses one thread per core if the generator
+     * is parallel capable
+     *
+     * @param world World to generate chunks for
+     * @param generator Generator of the world
+     */
+    public ChunkPregenerator(World world, ChunkGenerator generator) {
+        this(world, generator, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a pregenerator which uses up to the given number of threads if
+     * the generator is parallel capable
+     *
+     * @param world World to generate chunks for
+     * @param generator Generator of the world
+     * @param threads Number of threads to use
+     * @throws IllegalArgumentException Thrown when world or generator is
+     *     null, or threads is not positive
+     */
+    public ChunkPregenerator(World world, ChunkGenerator generator, int threads) {
+        Validate.notNull(world, "World cannot be null");
+        Validate.notNull(generator, "Generator cannot be null");
+        Validate.isTrue(threads > 0, "Threads must be positive");
+
+        this.world = world;
+        this.generator = generator;
+        this.threads = generator.isParallelCapable() ? threads : 1;
+    }
+
+    /**
+     * Gets the number of threads chunks are generated on
+     *
+     * @return Number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Generates all chunks between the given chunk coordinates, inclusive
+     * <p>
+     * This returns once every chunk has been handled. If generating or
+     * handling a chunk fails, the remaining chunks are skipped and the
+     * exception is thrown.
+     *
+     * @param minX The smallest X-coordinate of the chunks
+     * @param minZ The smallest Z-coordinate of the chunks
+     * @param maxX The largest X-coordinate of the chunks
+     * @param maxZ The largest Z-coordinate of the chunks
+     * @param consumer Consumer to hand the chunks to
+     * @throws IllegalArgumentException Thrown when consumer is null, or the
+     *     region holds more than {@link #MAX_CHUNKS} chunks
+     */
+    public void generate(int minX, int minZ, int maxX, int maxZ, ChunkConsumer consumer) {
+        Validate.notNull(consumer, "Consumer cannot be null");
+        if (maxX < minX || maxZ < minZ) {
+            return;
+        }
+
+        long width = (long) maxX - minX + 1;
+        long total = width * ((long) maxZ - minZ + 1);
+        Validate.isTrue(total <= MAX_CHUNKS, "Cannot generate more than " + MAX_CHUNKS + " chunks at once, got " + total);
+        int count = (int) total;
+        Worker worker = new Worker(minX, minZ, (int) width, count, consumer);
+
+        int threads = Math.min(this.threads, count);
+        if (threads <= 1) {
+            worker.call();
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger();
+
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Chunk Pregenerator - " + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(worker));
+            }
+
+            // Wait for every thread, even after a failure, so none hands out chunks after this returns
+            boolean interrupted = false;
+            Throwable failure = null;
+            for (Future<Void> future : futures) {
+                while (true) {
+                    try {
+                        future.get();
+                        break;
+                    } catch (InterruptedException ex) {
+                        interrupted = true;
+                    } catch (ExecutionException ex) {
+                        if (failure == null) {
+                            failure = ex.getCause();
+                        }
+                        break;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new IllegalStateException(failure);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private final class Worker implements Callable<Void> {
+        final AtomicInteger next = new AtomicInteger();
+        final int minX;
+        final int minZ;
+        final int width;
+        final int count;
+        final ChunkConsumer consumer;
+
+        Worker(int minX, int minZ, int width, int count, ChunkConsumer consumer) {
+            this.minX = minX;
+            this.minZ = minZ;
+            this.width = width;
+            this.count = count;
+            this.consumer = consumer;
+        }
+
+        public Void call() {
+            ChunkGenerationContext context = new ChunkGenerationContext(world);
+            boolean completed = false;
+            try {
+                int index;
+                while ((index = next.getAndIncrement()) < count) {
+                    int x = minX + index % width;
+                    int z = minZ + index / width;
+                    context.reset(x, z);
+                    consumer.accept(x, z, generator.generateExtBlockSections(context, x, z), context.getBiomes());
+                }
+                completed = true;
+            } finally {
+                if (!completed) {
+                    // Let the other threads stop after their current chunk
+                    next.set(count);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -2,6 +2,11 @@ package org.bukkit.metadata;
 
 import java.lang.ref.SoftReference;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.Validate;
 import org.bukkit.plugin.Plugin;
@@ -16,12 +21,24 @@ import org.bukkit.plugin.Plugin;
  * by a {@link CacheStrategy} or invalidated at the individual or plugin
  * level. Once invalidated, the LazyMetadataValue will recompute its value
  * when asked.
+ * <p>
+ * Values which are expensive to compute can be refreshed in the background
+ * with {@link CacheStrategy#REFRESH_ASYNCHRONOUSLY}, so readers keep getting
+ * the last value instead of waiting for the new one.
  */
 public class LazyMetadataValue extends MetadataValueAdapter implements MetadataValue {
     private Callable<Object> lazyValue;
     private CacheStrategy cacheStrategy;
-    private SoftReference<Object> internalValue;
+    private volatile SoftReference<Object> internalValue;
     private static final Object ACTUALLY_NULL = new Object();
+    private static final int MAX_RETRY_SHIFT = 4;
+
+    private Executor executor;
+    private long refreshInterval;
+    private volatile long refreshAt;
+    private FutureTask<Object> computation;
+    private int generation;
+    private int failures;
 
     /**
      * Initialized a LazyMetadataValue object with the default
@@ -48,11 +65,37 @@ public class LazyMetadataValue extends MetadataValueAdapter implements MetadataV
         super(owningPlugin);
         Validate.notNull(cacheStrategy, "cacheStrategy cannot be null");
         Validate.notNull(lazyValue, "lazyValue cannot be null");
+        Validate.isTrue(cacheStrategy != CacheStrategy.REFRESH_ASYNCHRONOUSLY, "REFRESH_ASYNCHRONOUSLY requires an executor and refresh interval");
         this.internalValue = new SoftReference<Object>(null);
         this.lazyValue = lazyValue;
         this.cacheStrategy = cacheStrategy;
     }
 
+    /**
+     * Initializes a LazyMetadataValue object with the
+     * REFRESH_ASYNCHRONOUSLY cache strategy.
+     *
+     * @param owningPlugin the {@link Plugin} that created this metadata
+     *     value.
+     * @param executor runs the refreshes of this metadata value.
+     * @param refreshInterval how long a value is served before it is
+     *     refreshed.
+     * @param unit the unit of the refresh interval.
+     * @param lazyValue the lazy value assigned to this metadata value.
+     */
+    public LazyMetadataValue(Plugin owningPlugin, Executor executor, long refreshInterval, TimeUnit unit, Callable<Object> lazyValue) {
+        super(owningPlugin);
+        Validate.notNull(executor, "executor cannot be null");
+        Validate.isTrue(refreshInterval > 0, "refreshInterval must be positive");
+        Validate.notNull(unit, "unit cannot be null");
+        Validate.notNull(lazyValue, "lazyValue cannot be null");
+        this.internalValue = new SoftReference<Object>(null);
+        this.lazyValue = lazyValue;
+        this.cacheStrategy = CacheStrategy.REFRESH_ASYNCHRONOUSLY;
+        this.executor = executor;
+        this.refreshInterval = unit.toNanos(refreshInterval);
+    }
+
     /**
      * Protected special constructor used by FixedMetadataValue to bypass
      * standard setup.
@@ -62,8 +105,13 @@ public class LazyMetadataValue extends MetadataValueAdapter implements MetadataV
     }
 
     public Object value() {
-        eval();
-        Object value = internalValue.get();
+        Object value;
+        if (cacheStrategy == CacheStrategy.REFRESH_ASYNCHRONOUSLY) {
+            value = evalAsync();
+        } else {
+            eval();
+            value = internalValue.get();
+        }
         if (value == ACTUALLY_NULL) {
             return null;
         }
@@ -76,7 +124,16 @@ public class LazyMetadataValue extends MetadataValueAdapter implements MetadataV
      * @throws MetadataEvaluationException if computing the metadata value
      *     fails.
      */
-    private synchronized void eval() throws MetadataEvaluationException {
+    private void eval() throws MetadataEvaluationException {
+        if (cacheStrategy != CacheStrategy.NEVER_CACHE && internalValue.get() != null) {
+            return;
+        }
+        synchronized (this) {
+            evalLocked();
+        }
+    }
+
+    private void evalLocked() throws MetadataEvaluationException {
         if (cacheStrategy == CacheStrategy.NEVER_CACHE || internalValue.get() == null) {
             try {
                 Object value = lazyValue.call();
@@ -90,8 +147,108 @@ public class LazyMetadataValue extends MetadataValueAdapter implements MetadataV
         }
     }
 
+    /**
+     * Evaluates the value of this metadata item with the
+     * REFRESH_ASYNCHRONOUSLY strategy. Only the first evaluation, or one
+     * after the value was garbage collected, waits for the computation.
+     *
+     * @return the value, or ACTUALLY_NULL
+     * @throws MetadataEvaluationException if computing the metadata value
+     *     fails.
+     */
+    private Object evalAsync() throws MetadataEvaluationException {
+        Object value = internalValue.get();
+        if (value != null) {
+            if (System.nanoTime() - refreshAt >= 0) {
+                refresh();
+            }
+            return value;
+        }
+
+        FutureTask<Object> task;
+        boolean owner = false;
+        synchronized (this) {
+            value = internalValue.get();
+            if (value != null) {
+                return value;
+            }
+            task = computation;
+            if (task == null) {
+                task = computation = newComputation();
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            task.run();
+        }
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            throw new MetadataEvaluationException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MetadataEvaluationException(e);
+        }
+    }
+
+    /**
+     * Starts a background refresh, unless one is running already. Failed
+     * refreshes keep the last value, and are retried after a delay which
+     * starts at a sixteenth of the refresh interval and doubles with each
+     * failure in a row, up to the refresh interval.
+     */
+    private void refresh() {
+        FutureTask<Object> task;
+        synchronized (this) {
+            if (computation != null) {
+                return;
+            }
+            task = computation = newComputation();
+        }
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                computation = null;
+            }
+        }
+    }
+
+    private FutureTask<Object> newComputation() {
+        // Invalidations after this point ask for another refresh
+        final int started = generation;
+        return new FutureTask<Object>(new Callable<Object>() {
+            public Object call() throws Exception {
+                boolean success = false;
+                try {
+                    Object value = lazyValue.call();
+                    if (value == null) {
+                        value = ACTUALLY_NULL;
+                    }
+                    internalValue = new SoftReference<Object>(value);
+                    success = true;
+                    return value;
+                } finally {
+                    synchronized (LazyMetadataValue.this) {
+                        computation = null;
+                        failures = success ? 0 : failures + 1;
+                        if (generation == started) {
+                            long delay = success ? refreshInterval : refreshInterval >> Math.max(0, MAX_RETRY_SHIFT + 1 - failures);
+                            refreshAt = System.nanoTime() + delay;
+                        }
+                    }
+                }
+            }
+        });
+    }
+
     public synchronized void invalidate() {
-        if (cacheStrategy != CacheStrategy.CACHE_ETERNALLY) {
+        if (cacheStrategy == CacheStrategy.REFRESH_ASYNCHRONOUSLY) {
+            generation++;
+            refreshAt = System.nanoTime();
+        } else if (cacheStrategy != CacheStrategy.CACHE_ETERNALLY) {
             internalValue.clear();
         }
     }
@@ -115,6 +272,17 @@ public class LazyMetadataValue extends MetadataValueAdapter implements MetadataV
          * Once the metadata value has been evaluated, do not re-evaluate the
          * value in spite of manual invalidation.
          */
-        CACHE_ETERNALLY
+        CACHE_ETERNALLY,
+
+        /**
+         * Once the metadata value has been evaluated, keep serving it while
+         * it is re-evaluated in the background when it is older than the
+         * refresh interval or invalidated. Concurrent first evaluations
+         * share a single computation.
+         *
+         * @see LazyMetadataValue#LazyMetadataValue(Plugin, Executor, long,
+         *     TimeUnit, Callable)
+         */
+        REFRESH_ASYNCHRONOUSLY
     }
 }
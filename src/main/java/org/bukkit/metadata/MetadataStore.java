@@ -57,4 +57,21 @@ public interface MetadataStore<T> {
      * @throws IllegalArgumentException If plugin is null
      */
     public void invalidateAll(Plugin owningPlugin);
+
+    /**
+     * Removes all metadata in the metadata store that originates from the
+     * given plugin, such as when the plugin is disabled.
+     *
+     * @param owningPlugin the plugin whose metadata should be removed.
+     * @throws IllegalArgumentException If plugin is null
+     */
+    public void removeAll(Plugin owningPlugin);
+
+    /**
+     * Removes all metadata attached to an object, such as when the object
+     * is removed from the world or the player left.
+     *
+     * @param subject the object to remove the metadata from.
+     */
+    public void removeAll(T subject);
 }
@@ -1,12 +1,44 @@
 package org.bukkit.metadata;
 
 import org.apache.commons.lang.Validate;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
 import org.bukkit.plugin.Plugin;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class MetadataStoreBase<T> {
-    private Map<String, Map<Plugin, MetadataValue>> metadataMap = new HashMap<String, Map<Plugin, MetadataValue>>();
+    private static final int STRIPES = 64;
+    private static final int EXPIRY_CHECK_INTERVAL = 1024;
+
+    /**
+     * Metadata by subject key, then by metadata key, then by owning plugin.
+     * The per-plugin maps are only touched while holding the lock of the
+     * subject's stripe.
+     */
+    private final ConcurrentMap<Object, SubjectMetadata> metadataMap = new ConcurrentHashMap<Object, SubjectMetadata>();
+    private final Object[] locks = new Object[STRIPES];
+    private final AtomicInteger writes = new AtomicInteger();
+    private volatile long maximumAge = 0;
+    private volatile int maximumSubjects = 0;
+
+    {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    private Object lockFor(Object subjectKey) {
+        int hash = subjectKey.hashCode();
+        hash ^= (hash >>> 16);
+        return locks[hash & (STRIPES - 1)];
+    }
 
     /**
      * Adds a metadata value to an object. Each metadata value is owned by a
@@ -15,13 +47,9 @@ public abstract class MetadataStoreBase<T> {
      * newMetadataValue}. Multiple plugins can set independent values for the
      * same {@code metadataKey} without conflict.
      * <p>
-     * Implementation note: I considered using a {@link
-     * java.util.concurrent.locks.ReadWriteLock} for controlling access to
-     * {@code metadataMap}, but decided that the added overhead wasn't worth
-     * the finer grained access control.
-     * <p>
-     * Bukkit is almost entirely single threaded so locking overhead shouldn't
-     * pose a problem.
+     * Implementation note: metadata is locked per group of subjects, so
+     * threads working on different subjects rarely contend, and lookups of
+     * metadata which is not present take no lock at all.
      *
      * @param subject The object receiving the metadata.
      * @param metadataKey A unique key to identify this metadata.
@@ -30,17 +58,30 @@ public abstract class MetadataStoreBase<T> {
      * @throws IllegalArgumentException If value is null, or the owning plugin
      *     is null
      */
-    public synchronized void setMetadata(T subject, String metadataKey, MetadataValue newMetadataValue) {
+    public void setMetadata(T subject, String metadataKey, MetadataValue newMetadataValue) {
         Validate.notNull(newMetadataValue, "Value cannot be null");
         Plugin owningPlugin = newMetadataValue.getOwningPlugin();
         Validate.notNull(owningPlugin, "Plugin cannot be null");
-        String key = disambiguate(subject, metadataKey);
-        Map<Plugin, MetadataValue> entry = metadataMap.get(key);
-        if (entry == null) {
-            entry = new WeakHashMap<Plugin, MetadataValue>(1);
-            metadataMap.put(key, entry);
+        Object subjectKey = getSubjectKey(subject);
+        synchronized (lockFor(subjectKey)) {
+            SubjectMetadata subjectMap = metadataMap.get(subjectKey);
+            if (subjectMap == null) {
+                subjectMap = new SubjectMetadata();
+                metadataMap.put(subjectKey, subjectMap);
+            }
+            Map<Plugin, MetadataValue> entry = subjectMap.get(metadataKey);
+            if (entry == null) {
+                entry = new WeakHashMap<Plugin, MetadataValue>(1);
+                subjectMap.put(metadataKey, entry);
+            }
+            entry.put(owningPlugin, newMetadataValue);
+            touch(subjectMap);
+        }
+
+        int maximumSubjects = this.maximumSubjects;
+        if ((maximumSubjects > 0 && metadataMap.size() > maximumSubjects) || (maximumAge > 0 && writes.incrementAndGet() % EXPIRY_CHECK_INTERVAL == 0)) {
+            evict();
         }
-        entry.put(owningPlugin, newMetadataValue);
     }
 
     /**
@@ -53,14 +94,20 @@ public abstract class MetadataStoreBase<T> {
      *     requested value.
      * @see MetadataStore#getMetadata(Object, String)
      */
-    public synchronized List<MetadataValue> getMetadata(T subject, String metadataKey) {
-        String key = disambiguate(subject, metadataKey);
-        if (metadataMap.containsKey(key)) {
-            Collection<MetadataValue> values = metadataMap.get(key).values();
-            return Collections.unmodifiableList(new ArrayList<MetadataValue>(values));
-        } else {
+    public List<MetadataValue> getMetadata(T subject, String metadataKey) {
+        Object subjectKey = getSubjectKey(subject);
+        SubjectMetadata subjectMap = metadataMap.get(subjectKey);
+        if (subjectMap == null) {
             return Collections.emptyList();
         }
+        touch(subjectMap);
+        Map<Plugin, MetadataValue> entry = subjectMap.get(metadataKey);
+        if (entry == null) {
+            return Collections.emptyList();
+        }
+        synchronized (lockFor(subjectKey)) {
+            return Collections.unmodifiableList(new ArrayList<MetadataValue>(entry.values()));
+        }
     }
 
     /**
@@ -71,9 +118,13 @@ public abstract class MetadataStoreBase<T> {
      * @param metadataKey the unique metadata key being queried.
      * @return the existence of the metadataKey within subject.
      */
-    public synchronized boolean hasMetadata(T subject, String metadataKey) {
-        String key = disambiguate(subject, metadataKey);
-        return metadataMap.containsKey(key);
+    public boolean hasMetadata(T subject, String metadataKey) {
+        SubjectMetadata subjectMap = metadataMap.get(getSubjectKey(subject));
+        if (subjectMap == null) {
+            return false;
+        }
+        touch(subjectMap);
+        return subjectMap.containsKey(metadataKey);
     }
 
     /**
@@ -87,17 +138,26 @@ public abstract class MetadataStoreBase<T> {
      *     org.bukkit.plugin.Plugin)
      * @throws IllegalArgumentException If plugin is null
      */
-    public synchronized void removeMetadata(T subject, String metadataKey, Plugin owningPlugin) {
+    public void removeMetadata(T subject, String metadataKey, Plugin owningPlugin) {
         Validate.notNull(owningPlugin, "Plugin cannot be null");
-        String key = disambiguate(subject, metadataKey);
-        Map<Plugin, MetadataValue> entry = metadataMap.get(key);
-        if (entry == null) {
-            return;
-        }
+        Object subjectKey = getSubjectKey(subject);
+        synchronized (lockFor(subjectKey)) {
+            SubjectMetadata subjectMap = metadataMap.get(subjectKey);
+            if (subjectMap == null) {
+                return;
+            }
+            Map<Plugin, MetadataValue> entry = subjectMap.get(metadataKey);
+            if (entry == null) {
+                return;
+            }
 
-        entry.remove(owningPlugin);
-        if (entry.isEmpty()) {
-            metadataMap.remove(key);
+            entry.remove(owningPlugin);
+            if (entry.isEmpty()) {
+                subjectMap.remove(metadataKey);
+                if (subjectMap.isEmpty()) {
+                    metadataMap.remove(subjectKey);
+                }
+            }
         }
     }
 
@@ -110,15 +170,182 @@ public abstract class MetadataStoreBase<T> {
      * @see MetadataStore#invalidateAll(org.bukkit.plugin.Plugin)
      * @throws IllegalArgumentException If plugin is null
      */
-    public synchronized void invalidateAll(Plugin owningPlugin) {
+    public void invalidateAll(Plugin owningPlugin) {
         Validate.notNull(owningPlugin, "Plugin cannot be null");
-        for (Map<Plugin, MetadataValue> values : metadataMap.values()) {
-            if (values.containsKey(owningPlugin)) {
-                values.get(owningPlugin).invalidate();
+        for (Map.Entry<Object, SubjectMetadata> subject : metadataMap.entrySet()) {
+            synchronized (lockFor(subject.getKey())) {
+                for (Map<Plugin, MetadataValue> values : subject.getValue().values()) {
+                    MetadataValue value = values.get(owningPlugin);
+                    if (value != null) {
+                        value.invalidate();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all metadata in the metadata store that originates from the
+     * given plugin.
+     *
+     * @param owningPlugin the plugin whose metadata should be removed.
+     * @see MetadataStore#removeAll(org.bukkit.plugin.Plugin)
+     * @throws IllegalArgumentException If plugin is null
+     */
+    public void removeAll(Plugin owningPlugin) {
+        Validate.notNull(owningPlugin, "Plugin cannot be null");
+        for (Map.Entry<Object, SubjectMetadata> subject : metadataMap.entrySet()) {
+            synchronized (lockFor(subject.getKey())) {
+                SubjectMetadata subjectMap = subject.getValue();
+                for (Iterator<Map<Plugin, MetadataValue>> i = subjectMap.values().iterator(); i.hasNext();) {
+                    Map<Plugin, MetadataValue> values = i.next();
+                    values.remove(owningPlugin);
+                    if (values.isEmpty()) {
+                        i.remove();
+                    }
+                }
+                if (subjectMap.isEmpty()) {
+                    metadataMap.remove(subject.getKey(), subjectMap);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all metadata attached to an object.
+     *
+     * @param subject the object to remove the metadata from.
+     * @see MetadataStore#removeAll(Object)
+     */
+    public void removeAll(T subject) {
+        Object subjectKey = getSubjectKey(subject);
+        synchronized (lockFor(subjectKey)) {
+            metadataMap.remove(subjectKey);
+        }
+    }
+
+    /**
+     * Sets how long metadata of a subject is kept after its metadata was
+     * last set, read or tested. Expired subjects are removed as if {@link
+     * #removeAll(Object)} was called for them.
+     *
+     * @param maximumAge the maximum age, or 0 to keep metadata until removed
+     * @param unit the unit of the maximum age
+     */
+    public void setMaximumAge(long maximumAge, TimeUnit unit) {
+        Validate.isTrue(maximumAge >= 0, "Maximum age cannot be negative");
+        this.maximumAge = unit.toMillis(maximumAge);
+    }
+
+    /**
+     * Sets the number of subjects this store keeps metadata for. When more
+     * subjects have metadata, the metadata of the least recently accessed
+     * subjects is removed.
+     *
+     * @param maximumSubjects the maximum number of subjects, or 0 for no
+     *     limit
+     */
+    public void setMaximumSubjects(int maximumSubjects) {
+        Validate.isTrue(maximumSubjects >= 0, "Maximum subjects cannot be negative");
+        this.maximumSubjects = maximumSubjects;
+    }
+
+    /**
+     * Removes the metadata of expired subjects, and of the least recently
+     * accessed subjects beyond the {@link #setMaximumSubjects(int) maximum}.
+     * <p>
+     * This is done automatically while metadata is set, but may be called
+     * periodically by stores which are rarely written to.
+     *
+     * @return the number of subjects whose metadata was removed
+     */
+    public int evict() {
+        long maximumAge = this.maximumAge;
+        int maximumSubjects = this.maximumSubjects;
+        if (maximumAge == 0 && maximumSubjects == 0) {
+            return 0;
+        }
+
+        int evicted = 0;
+        if (maximumAge > 0) {
+            long expired = System.currentTimeMillis() - maximumAge;
+            for (Map.Entry<Object, SubjectMetadata> subject : metadataMap.entrySet()) {
+                if (subject.getValue().lastAccess < expired && evict(subject.getKey(), subject.getValue(), expired)) {
+                    evicted++;
+                }
+            }
+        }
+
+        int excess = maximumSubjects > 0 ? metadataMap.size() - maximumSubjects : 0;
+        if (excess > 0) {
+            // Make some room, so the next subjects do not each cause a scan
+            excess += maximumSubjects / 8;
+            List<Map.Entry<Object, SubjectMetadata>> subjects = new ArrayList<Map.Entry<Object, SubjectMetadata>>(metadataMap.entrySet());
+            if (subjects.isEmpty()) {
+                return evicted;
+            }
+
+            // Access times change while we look, so sort a copy of them
+            long[] accessed = new long[subjects.size()];
+            for (int i = 0; i < accessed.length; i++) {
+                accessed[i] = subjects.get(i).getValue().lastAccess;
             }
+            Arrays.sort(accessed);
+            long accessedBefore = accessed[Math.min(excess, accessed.length) - 1] + 1;
+
+            int removed = 0;
+            for (int i = 0; removed < excess && i < subjects.size(); i++) {
+                Map.Entry<Object, SubjectMetadata> subject = subjects.get(i);
+                if (evict(subject.getKey(), subject.getValue(), accessedBefore)) {
+                    removed++;
+                }
+            }
+            evicted += removed;
+        }
+        return evicted;
+    }
+
+    private boolean evict(Object subjectKey, SubjectMetadata subjectMap, long accessedBefore) {
+        synchronized (lockFor(subjectKey)) {
+            return subjectMap.lastAccess < accessedBefore && metadataMap.remove(subjectKey, subjectMap);
+        }
+    }
+
+    private void touch(SubjectMetadata subjectMap) {
+        if (maximumAge > 0 || maximumSubjects > 0) {
+            subjectMap.lastAccess = System.currentTimeMillis();
         }
     }
 
+    /**
+     * Gets the number of subjects this store holds metadata for
+     *
+     * @return the number of subjects
+     */
+    public int getSubjectCount() {
+        return metadataMap.size();
+    }
+
+    /**
+     * Counts the metadata values this store holds for each plugin
+     *
+     * @return the number of values by owning plugin
+     */
+    public Map<Plugin, Integer> getValueCounts() {
+        Map<Plugin, Integer> counts = new HashMap<Plugin, Integer>();
+        for (Map.Entry<Object, SubjectMetadata> subject : metadataMap.entrySet()) {
+            synchronized (lockFor(subject.getKey())) {
+                for (Map<Plugin, MetadataValue> values : subject.getValue().values()) {
+                    for (Plugin plugin : values.keySet()) {
+                        Integer count = counts.get(plugin);
+                        counts.put(plugin, count == null ? 1 : count + 1);
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
     /**
      * Creates a unique name for the object receiving metadata by combining
      * unique data from the subject with a metadataKey.
@@ -133,4 +360,72 @@ public abstract class MetadataStoreBase<T> {
      * @return a unique metadata key for the given subject.
      */
     protected abstract String disambiguate(T subject, String metadataKey);
+
+    /**
+     * Gets the key identifying the subject in this store. Any two equivalent
+     * subjects must return equal keys, with consistent hash codes.
+     * <p>
+     * The default implementation uses the {@link java.util.UUID} of players,
+     * entities and worlds, and the world and coordinates of blocks. Other
+     * subjects fall back to {@link #disambiguate(Object, String)} with an
+     * empty metadata key, so stores of other subjects should override this
+     * to avoid building a string for each access.
+     *
+     * @param subject The object for which this key is being generated.
+     * @return a key identifying the subject.
+     */
+    protected Object getSubjectKey(T subject) {
+        if (subject instanceof OfflinePlayer) {
+            return ((OfflinePlayer) subject).getUniqueId();
+        }
+        if (subject instanceof Entity) {
+            return ((Entity) subject).getUniqueId();
+        }
+        if (subject instanceof World) {
+            return ((World) subject).getUID();
+        }
+        if (subject instanceof Block) {
+            Block block = (Block) subject;
+            return new BlockKey(block.getWorld().getUID(), block.getX(), block.getY(), block.getZ());
+        }
+        return disambiguate(subject, "");
+    }
+
+    private static final class BlockKey {
+        private final UUID world;
+        private final int x;
+        private final int y;
+        private final int z;
+
+        BlockKey(UUID world, int x, int y, int z) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((world.hashCode() * 31 + x) * 31 + y) * 31 + z;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof BlockKey)) {
+                return false;
+            }
+            BlockKey other = (BlockKey) obj;
+            return x == other.x && y == other.y && z == other.z && world.equals(other.world);
+        }
+    }
+
+    private static final class SubjectMetadata extends ConcurrentHashMap<String, Map<Plugin, MetadataValue>> {
+        private static final long serialVersionUID = 1L;
+
+        volatile long lastAccess = System.currentTimeMillis();
+
+        SubjectMetadata() {
+            super(4, 0.75f, 1);
+        }
+    }
 }
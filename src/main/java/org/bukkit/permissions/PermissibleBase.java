@@ -1,5 +1,6 @@
 package org.bukkit.permissions;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -18,6 +19,11 @@ public class PermissibleBase implements Permissible {
     private Permissible parent = this;
     private final List<PermissionAttachment> attachments = new LinkedList<PermissionAttachment>();
     private final Map<String, PermissionAttachmentInfo> permissions = new HashMap<String, PermissionAttachmentInfo>();
+    /**
+     * Bits 2n and 2n+1 tell whether the permission with id n is set and its
+     * value, mirroring the permissions map
+     */
+    private volatile long[] permissionBits = new long[0];
 
     public PermissibleBase(ServerOperator opable) {
         this.opable = opable;
@@ -50,7 +56,8 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Permission name cannot be null");
         }
 
-        return permissions.containsKey(name.toLowerCase());
+        int id = PermissionIndex.findId(name);
+        return id >= 0 && isPermissionSet(permissionBits, id);
     }
 
     public boolean isPermissionSet(Permission perm) {
@@ -66,12 +73,18 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Permission name cannot be null");
         }
 
-        String name = inName.toLowerCase();
+        int id = PermissionIndex.lookupId(inName);
+        if (id < 0) {
+            // Too many distinct names were checked, this one is not set
+            Permission perm = Bukkit.getServer().getPluginManager().getPermission(inName);
+            return (perm != null ? perm.getDefault() : Permission.DEFAULT_PERMISSION).getValue(isOp());
+        }
 
-        if (isPermissionSet(name)) {
-            return permissions.get(name).getValue();
+        long[] bits = permissionBits;
+        if (isPermissionSet(bits, id)) {
+            return getPermissionValue(bits, id);
         } else {
-            Permission perm = Bukkit.getServer().getPluginManager().getPermission(name);
+            Permission perm = PermissionIndex.getPermission(id);
 
             if (perm != null) {
                 return perm.getDefault().getValue(isOp());
@@ -86,14 +99,24 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Permission cannot be null");
         }
 
-        String name = perm.getName().toLowerCase();
-
-        if (isPermissionSet(name)) {
-            return permissions.get(name).getValue();
+        int id = PermissionIndex.findId(perm.getName());
+        long[] bits = permissionBits;
+        if (id >= 0 && isPermissionSet(bits, id)) {
+            return getPermissionValue(bits, id);
         }
         return perm.getDefault().getValue(isOp());
     }
 
+    private static boolean isPermissionSet(long[] bits, int id) {
+        int bit = id << 1;
+        return (bit >>> 6) < bits.length && (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    private static boolean getPermissionValue(long[] bits, int id) {
+        int bit = (id << 1) + 1;
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
     public PermissionAttachment addAttachment(Plugin plugin, String name, boolean value) {
         if (name == null) {
             throw new IllegalArgumentException("Permission name cannot be null");
@@ -154,12 +177,29 @@ public class PermissibleBase implements Permissible {
             String name = perm.getName().toLowerCase();
             permissions.put(name, new PermissionAttachmentInfo(parent, name, null, true));
             Bukkit.getServer().getPluginManager().subscribeToPermission(name, parent);
-            calculateChildPermissions(perm.getChildren(), false, null);
+            addExpansion(PermissionGraph.expand(perm, true), null);
         }
 
         for (PermissionAttachment attachment : attachments) {
-            calculateChildPermissions(attachment.getPermissions(), false, attachment);
+            calculateChildPermissions(attachment.getPermissions(), attachment);
+        }
+
+        updatePermissionBits();
+    }
+
+    private void updatePermissionBits() {
+        long[] bits = new long[0];
+        for (PermissionAttachmentInfo info : permissions.values()) {
+            int bit = PermissionIndex.getId(info.getPermission()) << 1;
+            if ((bit >>> 6) >= bits.length) {
+                bits = Arrays.copyOf(bits, (bit >>> 6) + 1);
+            }
+            bits[bit >>> 6] |= 1L << bit;
+            if (info.getValue()) {
+                bits[bit >>> 6] |= 1L << (bit + 1);
+            }
         }
+        permissionBits = bits;
     }
 
     public synchronized void clearPermissions() {
@@ -173,25 +213,33 @@ public class PermissibleBase implements Permissible {
         Bukkit.getServer().getPluginManager().unsubscribeFromDefaultPerms(true, parent);
 
         permissions.clear();
+        permissionBits = new long[0];
     }
 
-    private void calculateChildPermissions(Map<String, Boolean> children, boolean invert, PermissionAttachment attachment) {
-        Set<String> keys = children.keySet();
-
-        for (String name : keys) {
+    private void calculateChildPermissions(Map<String, Boolean> children, PermissionAttachment attachment) {
+        for (Map.Entry<String, Boolean> child : children.entrySet()) {
+            String name = child.getKey();
             Permission perm = Bukkit.getServer().getPluginManager().getPermission(name);
-            boolean value = children.get(name) ^ invert;
+            boolean value = child.getValue();
             String lname = name.toLowerCase();
 
             permissions.put(lname, new PermissionAttachmentInfo(parent, lname, attachment, value));
             Bukkit.getServer().getPluginManager().subscribeToPermission(name, parent);
 
             if (perm != null) {
-                calculateChildPermissions(perm.getChildren(), !value, attachment);
+                addExpansion(PermissionGraph.expand(perm, value), attachment);
             }
         }
     }
 
+    private void addExpansion(PermissionGraph.Expansion expansion, PermissionAttachment attachment) {
+        for (int i = 0; i < expansion.names.length; i++) {
+            String name = expansion.names[i];
+            permissions.put(name, new PermissionAttachmentInfo(parent, name, attachment, expansion.values[i]));
+            Bukkit.getServer().getPluginManager().subscribeToPermission(name, parent);
+        }
+    }
+
     public PermissionAttachment addAttachment(Plugin plugin, String name, boolean value, int ticks) {
         if (name == null) {
             throw new IllegalArgumentException("Permission name cannot be null");
@@ -0,0 +1,236 @@
+package org.bukkit.permissions;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+
+/**
+ * Memoizes the flattened children of registered permissions, so
+ * recalculating a {@link Permissible} merges precomputed expansions instead
+ * of walking the permission tree again.
+ * <p>
+ * An expansion is dropped when any permission it was computed from is
+ * registered, removed or changes, see {@link PermissionIndex#invalidate(String)}.
+ * Children edited in place through {@link Permission#getChildren()} are
+ * caught by comparing each expansion against the children it was built from.
+ * Nothing is cached unless {@link PermissionIndex#isCacheable} holds.
+ */
+final class PermissionGraph {
+    private static final Object lock = new Object();
+    private static final Map<String, Expansion[]> expansions = new ConcurrentHashMap<String, Expansion[]>();
+    private static final Map<String, Set<String>> dependents = new ConcurrentHashMap<String, Set<String>>();
+
+    private PermissionGraph() {}
+
+    /**
+     * Gets every permission set by giving a registered permission a value,
+     * in the order a recursive walk of its children would set them
+     *
+     * @param perm the registered permission
+     * @param value the value the permission is set to
+     * @return the expansion of the permission's children
+     */
+    static Expansion expand(Permission perm, boolean value) {
+        String name = perm.getName().toLowerCase();
+        if (!PermissionIndex.isCacheable(Bukkit.getServer().getPluginManager())) {
+            synchronized (lock) {
+                return expand(name, perm, value, new HashSet<String>(), false);
+            }
+        }
+
+        Expansion expansion = getCached(name, perm, value, true);
+        if (expansion != null) {
+            return expansion;
+        }
+
+        synchronized (lock) {
+            return expand(name, perm, value, new HashSet<String>(), true);
+        }
+    }
+
+    private static Expansion getCached(String name, Permission perm, boolean value, boolean root) {
+        Expansion[] cached = expansions.get(name);
+        if (cached == null) {
+            return null;
+        }
+        Expansion expansion = cached[value ? 1 : 0];
+        // Unregistered permissions may share the name of a registered one
+        if (expansion == null || expansion.permission != perm || !expansion.isCurrent()) {
+            return null;
+        }
+        return root || expansion.complete ? expansion : null;
+    }
+
+    private static Expansion expand(String name, Permission perm, boolean value, Set<String> visiting, boolean cache) {
+        boolean root = visiting.isEmpty();
+        Expansion expansion = cache ? getCached(name, perm, value, root) : null;
+        if (expansion != null) {
+            return expansion;
+        }
+
+        Map<String, Boolean> result = new LinkedHashMap<String, Boolean>();
+        Set<String> dependencies = new HashSet<String>();
+        Map<Permission, Children> sources = new IdentityHashMap<Permission, Children>();
+        Children children = new Children(perm);
+        boolean complete = true;
+        dependencies.add(name);
+        sources.put(perm, children);
+        visiting.add(name);
+
+        for (int c = 0; c < children.names.length; c++) {
+            String childName = children.names[c].toLowerCase();
+            boolean childValue = children.values[c] ^ !value;
+            result.put(childName, childValue);
+            dependencies.add(childName);
+
+            Permission childPerm = Bukkit.getServer().getPluginManager().getPermission(childName);
+            if (childPerm == null) {
+                continue;
+            }
+            if (visiting.contains(childName)) {
+                Bukkit.getServer().getLogger().log(Level.WARNING, "Permission " + name + " is its own descendant through " + childName + ", ignoring the cycle");
+                complete = false;
+                continue;
+            }
+
+            Expansion childExpansion = expand(childName, childPerm, childValue, visiting, cache);
+            for (int i = 0; i < childExpansion.names.length; i++) {
+                result.put(childExpansion.names[i], childExpansion.values[i]);
+            }
+            dependencies.addAll(childExpansion.dependencies);
+            for (Children source : childExpansion.sources) {
+                sources.put(source.permission, source);
+            }
+            complete &= childExpansion.complete;
+        }
+
+        visiting.remove(name);
+        expansion = new Expansion(perm, result, dependencies, sources.values(), complete);
+
+        // Expansions cut short by a cycle depend on where the walk started,
+        // so they are only reused by walks starting at the same permission
+        if (cache && (complete || root)) {
+            Expansion[] cached = expansions.get(name);
+            if (cached == null || cached[0] != null && cached[0].permission != perm || cached[1] != null && cached[1].permission != perm) {
+                cached = new Expansion[2];
+            } else {
+                cached = cached.clone();
+            }
+            cached[value ? 1 : 0] = expansion;
+            expansions.put(name, cached);
+
+            for (String dependency : dependencies) {
+                Set<String> set = dependents.get(dependency);
+                if (set == null) {
+                    set = new HashSet<String>();
+                    dependents.put(dependency, set);
+                }
+                set.add(name);
+            }
+        }
+        return expansion;
+    }
+
+    /**
+     * Drops every expansion computed from the given permission
+     *
+     * @param name lowercase name of the permission
+     */
+    static void invalidate(String name) {
+        synchronized (lock) {
+            Set<String> affected = dependents.remove(name);
+            expansions.remove(name);
+            if (affected != null) {
+                for (String dependent : affected) {
+                    expansions.remove(dependent);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every expansion
+     */
+    static void invalidateAll() {
+        synchronized (lock) {
+            expansions.clear();
+            dependents.clear();
+        }
+    }
+
+    static final class Expansion {
+        final Permission permission;
+        final String[] names;
+        final boolean[] values;
+        final Set<String> dependencies;
+        final Children[] sources;
+        final boolean complete;
+
+        Expansion(Permission permission, Map<String, Boolean> result, Set<String> dependencies, Collection<Children> sources, boolean complete) {
+            this.permission = permission;
+            this.names = new String[result.size()];
+            this.values = new boolean[result.size()];
+            this.dependencies = dependencies;
+            this.sources = sources.toArray(new Children[sources.size()]);
+            this.complete = complete;
+
+            int i = 0;
+            for (Map.Entry<String, Boolean> entry : result.entrySet()) {
+                names[i] = entry.getKey();
+                values[i] = entry.getValue();
+                i++;
+            }
+        }
+
+        /**
+         * Checks that no permission walked for this expansion has had its
+         * children changed since
+         */
+        boolean isCurrent() {
+            for (Children source : sources) {
+                if (!source.isCurrent()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The children of a permission as they were when it was walked
+     */
+    static final class Children {
+        final Permission permission;
+        final String[] names;
+        final Boolean[] values;
+
+        Children(Permission permission) {
+            this.permission = permission;
+            Map<String, Boolean> children = permission.getChildren();
+            this.names = children.keySet().toArray(new String[children.size()]);
+            this.values = children.values().toArray(new Boolean[children.size()]);
+        }
+
+        boolean isCurrent() {
+            Map<String, Boolean> children = permission.getChildren();
+            if (children.size() != names.length) {
+                return false;
+            }
+            int i = 0;
+            for (Map.Entry<String, Boolean> child : children.entrySet()) {
+                if (!names[i].equals(child.getKey()) || !values[i].equals(child.getValue())) {
+                    return false;
+                }
+                i++;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.bukkit.permissions;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.SimplePluginManager;
+
+/**
+ * Assigns stable integer ids to permission names, so permission checks can
+ * be answered from bitsets instead of string keyed maps.
+ * <p>
+ * Names are never forgotten for the lifetime of the server, so names which
+ * are merely checked only get ids up to a limit.
+ */
+public final class PermissionIndex {
+    private static final int MAX_ALIASES = 1 << 16;
+    private static final int MAX_LOOKUP_IDS = 1 << 16;
+    private static final Object UNREGISTERED = new Object();
+
+    private static final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+    private static final AtomicInteger aliases = new AtomicInteger();
+    private static volatile String[] names = new String[64];
+    private static volatile int size = 0;
+
+    private static final AtomicInteger version = new AtomicInteger();
+    private static volatile RegistryCache registry = new RegistryCache(null, -1, 0);
+
+    private PermissionIndex() {}
+
+    /**
+     * Gets the id of a permission, assigning one if the permission has none
+     * yet
+     *
+     * @param name name of the permission, in any case
+     * @return the id of the permission
+     */
+    public static int getId(String name) {
+        int id = findId(name);
+        if (id >= 0) {
+            return id;
+        }
+
+        String lname = name.toLowerCase();
+        synchronized (ids) {
+            Integer existing = ids.get(lname);
+            if (existing != null) {
+                return existing;
+            }
+
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+            }
+            names[size] = lname;
+            ids.put(lname, size);
+            return size++;
+        }
+    }
+
+    /**
+     * Gets the id of a permission without assigning one
+     *
+     * @param name name of the permission, in any case
+     * @return the id of the permission, or -1 if it has none
+     */
+    public static int findId(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        id = ids.get(name.toLowerCase());
+        if (id == null) {
+            return -1;
+        }
+        // Remember differently cased spellings, as checks are usually made with constants
+        if (aliases.get() < MAX_ALIASES && ids.putIfAbsent(name, id) == null) {
+            aliases.incrementAndGet();
+        }
+        return id;
+    }
+
+    /**
+     * Gets the id of a permission which is being checked, assigning one as
+     * long as not too many permissions have ids
+     *
+     * @param name name of the permission, in any case
+     * @return the id of the permission, or -1 if it has none
+     */
+    static int lookupId(String name) {
+        int id = findId(name);
+        if (id < 0 && size < MAX_LOOKUP_IDS) {
+            id = getId(name);
+        }
+        return id;
+    }
+
+    /**
+     * Gets the lowercase name of a permission id
+     *
+     * @param id the id of the permission
+     * @return the name of the permission
+     */
+    public static String getName(int id) {
+        String[] names = PermissionIndex.names;
+        if (id < 0 || id >= names.length || names[id] == null) {
+            throw new IllegalArgumentException("Unknown permission id " + id);
+        }
+        return names[id];
+    }
+
+    /**
+     * Gets the current version of the permission registry, which changes
+     * whenever permissions are registered, removed or get new defaults
+     *
+     * @return the version
+     */
+    public static int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Signals that the permission registry changed. This is called by
+     * {@link SimplePluginManager} whenever permissions are registered,
+     * removed or get new defaults, unless {@link #invalidate(String)} is
+     * called for each affected permission. Permissions of other {@link
+     * PluginManager} implementations are never cached.
+     */
+    public static void invalidate() {
+        version.incrementAndGet();
+        PermissionGraph.invalidateAll();
+    }
+
+    /**
+     * Signals that a single permission was registered, removed, or changed
+     * its children or default. This is preferred over {@link #invalidate()}
+     * as cached expansions of unrelated permissions are kept.
+     *
+     * @param name name of the permission, in any case
+     */
+    public static void invalidate(String name) {
+        version.incrementAndGet();
+        PermissionGraph.invalidate(name.toLowerCase());
+    }
+
+    /**
+     * Gets whether permissions of the current plugin manager may be cached,
+     * which is only the case if it signals every change through {@link
+     * #invalidate()}
+     *
+     * @param manager the current plugin manager
+     * @return true if permissions may be cached
+     */
+    static boolean isCacheable(PluginManager manager) {
+        return manager instanceof SimplePluginManager;
+    }
+
+    /**
+     * Gets the registered permission of an id, cached until the next {@link
+     * #invalidate()}
+     *
+     * @param id the id of the permission
+     * @return the permission, or null if it is not registered
+     */
+    static Permission getPermission(int id) {
+        PluginManager manager = Bukkit.getServer().getPluginManager();
+        if (!isCacheable(manager)) {
+            return manager.getPermission(getName(id));
+        }
+
+        int current = version.get();
+        RegistryCache cache = registry;
+        if (cache.manager != manager || cache.version != current || id >= cache.permissions.length) {
+            cache = new RegistryCache(manager, current, names.length);
+            registry = cache;
+        }
+
+        Object permission = cache.permissions[id];
+        if (permission == null) {
+            permission = manager.getPermission(getName(id));
+            if (permission == null) {
+                permission = UNREGISTERED;
+            }
+            cache.permissions[id] = permission;
+        }
+        return permission == UNREGISTERED ? null : (Permission) permission;
+    }
+
+    private static final class RegistryCache {
+        final PluginManager manager;
+        final int version;
+        final Object[] permissions;
+
+        RegistryCache(PluginManager manager, int version, int size) {
+            this.manager = manager;
+            this.version = version;
+            this.permissions = new Object[size];
+        }
+    }
+}
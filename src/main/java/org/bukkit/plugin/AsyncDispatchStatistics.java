@@ -0,0 +1,93 @@
+package org.bukkit.plugin;
+
+/**
+ * A snapshot of the thread pool used to call a plugin's concurrent listeners
+ * of asynchronous events.
+ *
+ * @see SimplePluginManager#useParallelAsyncDispatch(boolean)
+ */
+public final class AsyncDispatchStatistics {
+    private final Plugin plugin;
+    private final int poolSize;
+    private final long submitted;
+    private final long callerRuns;
+    private final int active;
+    private final int peakActive;
+    private final long totalTime;
+
+    AsyncDispatchStatistics(Plugin plugin, int poolSize, long submitted, long callerRuns, int active, int peakActive, long totalTime) {
+        this.plugin = plugin;
+        this.poolSize = poolSize;
+        this.submitted = submitted;
+        this.callerRuns = callerRuns;
+        this.active = active;
+        this.peakActive = peakActive;
+        this.totalTime = totalTime;
+    }
+
+    /**
+     * Gets the plugin owning the pool
+     *
+     * @return the plugin
+     */
+    public Plugin getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Gets the number of threads in the pool
+     *
+     * @return the pool size
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Gets the number of listener calls handed to the pool
+     *
+     * @return the number of submitted calls
+     */
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    /**
+     * Gets the number of submitted listener calls the dispatching thread had
+     * to run itself because the pool was saturated
+     *
+     * @return the number of calls run by the caller
+     */
+    public long getCallerRuns() {
+        return callerRuns;
+    }
+
+    /**
+     * Gets the number of listener calls in progress
+     *
+     * @return the number of running calls
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * Gets the highest number of listener calls that were in progress at the
+     * same time
+     *
+     * @return the peak number of running calls
+     */
+    public int getPeakActive() {
+        return peakActive;
+    }
+
+    /**
+     * Gets the total time submitted listener calls have taken, in
+     * nanoseconds
+     *
+     * @return the total time
+     */
+    public long getTotalTime() {
+        return totalTime;
+    }
+}
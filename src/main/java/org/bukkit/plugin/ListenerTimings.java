@@ -0,0 +1,157 @@
+package org.bukkit.plugin;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency statistics of a single {@link RegisteredListener}.
+ * <p>
+ * Calls are counted into a fixed set of power-of-two histogram buckets.
+ * Counters are striped by thread so listeners of asynchronous events do not
+ * contend with the primary thread. The counters are only allocated by the
+ * first recorded call, after which recording never allocates.
+ */
+public final class ListenerTimings {
+    /**
+     * Number of histogram buckets. Bucket <code>i</code> counts calls which
+     * took from <code>2^(i-1)</code> up to <code>2^i - 1</code> nanoseconds,
+     * the last bucket counts everything longer.
+     */
+    public static final int BUCKETS = 40;
+
+    private static final int STRIPES = 4;
+    private static final int COUNT = 0;
+    private static final int TOTAL = 1;
+    private static final int MAX = 2;
+    private static final int WINDOW_MAX = 3;
+    private static final int FIRST_BUCKET = 4;
+    private static final int STRIDE = 48; // Keeps stripes on separate cache lines
+
+    private static volatile boolean enabled = true;
+
+    private volatile AtomicLongArray cells; // Created by the first recorded call
+    private volatile TimingsSnapshot windowStart = TimingsSnapshot.EMPTY;
+    private volatile TimingsSnapshot window = TimingsSnapshot.EMPTY;
+
+    /**
+     * Gets whether every registered listener records its timings
+     *
+     * @return true if timings are recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether every registered listener records its timings. Timings
+     * are recorded by default. {@link TimedRegisteredListener}s always
+     * record them.
+     *
+     * @param enabled true if timings should be recorded
+     */
+    public static void setEnabled(boolean enabled) {
+        ListenerTimings.enabled = enabled;
+    }
+
+    /**
+     * Records a single call
+     *
+     * @param nanos time the call took in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        AtomicLongArray cells = this.cells;
+        if (cells == null) {
+            cells = createCells();
+        }
+        int base = ((int) Thread.currentThread().getId() & (STRIPES - 1)) * STRIDE;
+        cells.incrementAndGet(base + COUNT);
+        cells.addAndGet(base + TOTAL, nanos);
+        raise(cells, base + MAX, nanos);
+        raise(cells, base + WINDOW_MAX, nanos);
+        cells.incrementAndGet(base + FIRST_BUCKET + bucket(nanos));
+    }
+
+    private synchronized AtomicLongArray createCells() {
+        if (cells == null) {
+            cells = new AtomicLongArray(STRIPES * STRIDE);
+        }
+        return cells;
+    }
+
+    private static void raise(AtomicLongArray cells, int index, long value) {
+        long current;
+        while (value > (current = cells.get(index)) && !cells.compareAndSet(index, current, value));
+    }
+
+    static int bucket(long nanos) {
+        int bucket = 64 - Long.numberOfLeadingZeros(nanos);
+        return bucket < BUCKETS ? bucket : BUCKETS - 1;
+    }
+
+    static long bucketUpperBound(int bucket) {
+        return bucket < BUCKETS - 1 ? (1L << bucket) - 1 : Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets the statistics of all calls recorded since creation or the last
+     * reset
+     *
+     * @return the cumulative statistics
+     */
+    public TimingsSnapshot getSnapshot() {
+        AtomicLongArray cells = this.cells;
+        if (cells == null) {
+            return TimingsSnapshot.EMPTY;
+        }
+
+        long count = 0;
+        long total = 0;
+        long max = 0;
+        long[] buckets = new long[BUCKETS];
+        for (int base = 0; base < STRIPES * STRIDE; base += STRIDE) {
+            count += cells.get(base + COUNT);
+            total += cells.get(base + TOTAL);
+            max = Math.max(max, cells.get(base + MAX));
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] += cells.get(base + FIRST_BUCKET + i);
+            }
+        }
+        return new TimingsSnapshot(count, total, max, buckets, 0);
+    }
+
+    /**
+     * Gets the statistics of the last completed window of ticks
+     *
+     * @return the statistics of the last window, empty if no window has
+     *     completed yet
+     * @see SimplePluginManager#tickTimings()
+     */
+    public TimingsSnapshot getWindow() {
+        return window;
+    }
+
+    void endWindow(int ticks) {
+        AtomicLongArray cells = this.cells;
+        long windowMax = 0;
+        for (int base = 0; cells != null && base < STRIPES * STRIDE; base += STRIDE) {
+            windowMax = Math.max(windowMax, cells.getAndSet(base + WINDOW_MAX, 0));
+        }
+        TimingsSnapshot current = getSnapshot();
+        window = current.since(windowStart, windowMax, ticks);
+        windowStart = current;
+    }
+
+    /**
+     * Resets all recorded statistics
+     */
+    public void reset() {
+        AtomicLongArray cells = this.cells;
+        for (int i = 0; cells != null && i < cells.length(); i++) {
+            cells.set(i, 0);
+        }
+        windowStart = TimingsSnapshot.EMPTY;
+        window = TimingsSnapshot.EMPTY;
+    }
+}
@@ -0,0 +1,212 @@
+package org.bukkit.plugin;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.Validate;
+import org.bukkit.event.Event;
+
+/**
+ * Dispatches asynchronous events, running runs of {@link
+ * RegisteredListener#isConcurrent() concurrent} listeners of the same
+ * priority at the same time on thread pools owned by their plugins.
+ */
+final class ParallelEventDispatcher {
+    private final SimplePluginManager manager;
+    private final Map<Plugin, PluginPool> pools = new ConcurrentHashMap<Plugin, PluginPool>();
+    private final Map<Plugin, Integer> poolSizes = new ConcurrentHashMap<Plugin, Integer>();
+    private volatile int defaultPoolSize;
+
+    ParallelEventDispatcher(SimplePluginManager manager, int defaultPoolSize) {
+        this.manager = manager;
+        this.defaultPoolSize = defaultPoolSize;
+    }
+
+    void fireEvent(Event event) {
+        RegisteredListener[] listeners = event.getHandlers().getRegisteredListeners();
+        // Nested events fired from a pool thread run inline, so pools never wait on themselves
+        boolean inline = Thread.currentThread() instanceof DispatchThread;
+
+        int start = 0;
+        while (start < listeners.length) {
+            RegisteredListener first = listeners[start];
+            int end = start + 1;
+            if (first.isConcurrent() && !inline) {
+                while (end < listeners.length && listeners[end].isConcurrent() && listeners[end].getPriority() == first.getPriority()) {
+                    end++;
+                }
+            }
+
+            if (end - start == 1) {
+                manager.callListener(event, first);
+            } else {
+                fireConcurrently(event, listeners, start, end);
+            }
+            start = end;
+        }
+    }
+
+    private void fireConcurrently(Event event, RegisteredListener[] listeners, int start, int end) {
+        CountDownLatch remaining = new CountDownLatch(end - start - 1);
+        for (int i = start + 1; i < end; i++) {
+            PluginPool pool = getPool(listeners[i].getPlugin());
+            if (pool != null) {
+                pool.submit(event, listeners[i], remaining);
+            } else {
+                manager.callListener(event, listeners[i]);
+                remaining.countDown();
+            }
+        }
+
+        // The calling thread takes a share of the work instead of idling
+        manager.callListener(event, listeners[start]);
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                remaining.await();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private PluginPool getPool(Plugin plugin) {
+        PluginPool pool = pools.get(plugin);
+        if (pool == null) {
+            synchronized (pools) {
+                pool = pools.get(plugin);
+                // Disabled plugins do not get their pool back; their listeners run on the dispatching thread
+                if (pool == null && plugin.isEnabled()) {
+                    pool = new PluginPool(plugin, getPoolSize(plugin));
+                    pools.put(plugin, pool);
+                }
+            }
+        }
+        return pool;
+    }
+
+    int getPoolSize(Plugin plugin) {
+        Integer size = poolSizes.get(plugin);
+        return size == null ? defaultPoolSize : size;
+    }
+
+    void setDefaultPoolSize(int size) {
+        Validate.isTrue(size > 0, "Pool size must be positive");
+        defaultPoolSize = size;
+    }
+
+    void setPoolSize(Plugin plugin, int size) {
+        Validate.isTrue(size > 0, "Pool size must be positive");
+        poolSizes.put(plugin, size);
+        shutdownPool(plugin); // Recreated with the new size on demand
+    }
+
+    AsyncDispatchStatistics getStatistics(Plugin plugin) {
+        PluginPool pool = pools.get(plugin);
+        if (pool == null) {
+            return new AsyncDispatchStatistics(plugin, getPoolSize(plugin), 0, 0, 0, 0, 0);
+        }
+        return pool.getStatistics();
+    }
+
+    void shutdown(Plugin plugin) {
+        poolSizes.remove(plugin);
+        shutdownPool(plugin);
+    }
+
+    private void shutdownPool(Plugin plugin) {
+        PluginPool pool;
+        synchronized (pools) {
+            pool = pools.remove(plugin);
+        }
+        if (pool != null) {
+            pool.executor.shutdown();
+        }
+    }
+
+    void shutdown() {
+        synchronized (pools) {
+            for (PluginPool pool : pools.values()) {
+                pool.executor.shutdown();
+            }
+            pools.clear();
+        }
+        poolSizes.clear();
+    }
+
+    private static final class DispatchThread extends Thread {
+        DispatchThread(Runnable runnable, String name) {
+            super(runnable, name);
+        }
+    }
+
+    private final class PluginPool implements RejectedExecutionHandler {
+        private final Plugin plugin;
+        private final int size;
+        private final ThreadPoolExecutor executor;
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong callerRuns = new AtomicLong();
+        private final AtomicLong totalTime = new AtomicLong();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger peakActive = new AtomicInteger();
+
+        PluginPool(final Plugin plugin, int size) {
+            this.plugin = plugin;
+            this.size = size;
+            ThreadFactory factory = new ThreadFactory() {
+                private final AtomicInteger threadNumber = new AtomicInteger();
+
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new DispatchThread(runnable, plugin.getName() + " Async Event Thread - " + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            };
+            executor = new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(size * 4), factory, this);
+            executor.allowCoreThreadTimeOut(true);
+        }
+
+        void submit(final Event event, final RegisteredListener registration, final CountDownLatch remaining) {
+            submitted.incrementAndGet();
+            executor.execute(new Runnable() {
+                public void run() {
+                    int running = active.incrementAndGet();
+                    int peak;
+                    while (running > (peak = peakActive.get()) && !peakActive.compareAndSet(peak, running));
+
+                    long start = System.nanoTime();
+                    try {
+                        manager.callListener(event, registration);
+                    } finally {
+                        totalTime.addAndGet(System.nanoTime() - start);
+                        active.decrementAndGet();
+                        remaining.countDown();
+                    }
+                }
+            });
+        }
+
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            // Saturated or shut down: the dispatching thread runs the listener itself
+            callerRuns.incrementAndGet();
+            runnable.run();
+        }
+
+        AsyncDispatchStatistics getStatistics() {
+            return new AsyncDispatchStatistics(plugin, size, submitted.get(), callerRuns.get(), active.get(), peakActive.get(), totalTime.get());
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.bukkit.plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Orders plugins so that each one is loaded after its dependencies and soft
+ * dependencies.
+ * <p>
+ * Plugins are handed out by {@link #next()}, and the result of loading each
+ * must be reported back through {@link #loaded(String)} or {@link
+ * #failed(String)}. Plugins which are ready at the same time are handed out
+ * in alphabetical order. When only soft dependency cycles remain, their soft
+ * dependencies are ignored one plugin at a time; plugins caught in hard
+ * dependency cycles are never handed out.
+ */
+final class PluginDependencyGraph {
+    private final Map<String, Set<String>> dependencies = new HashMap<String, Set<String>>();
+    private final Map<String, Set<String>> softDependencies = new HashMap<String, Set<String>>();
+    private final Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
+    private final TreeSet<String> pending = new TreeSet<String>();
+    private final TreeSet<String> ready = new TreeSet<String>();
+    private final Map<String, String> missing = new LinkedHashMap<String, String>();
+    private final List<String> circular = new ArrayList<String>();
+
+    /**
+     * @param plugins names of all plugins to order
+     * @param dependencies hard dependencies by plugin name
+     * @param softDependencies soft dependencies by plugin name, which may
+     *     name plugins that are not present
+     */
+    PluginDependencyGraph(Set<String> plugins, Map<String, ? extends Collection<String>> dependencies, Map<String, ? extends Collection<String>> softDependencies) {
+        pending.addAll(plugins);
+
+        for (String plugin : pending) {
+            Set<String> hard = new HashSet<String>();
+            Collection<String> depend = dependencies.get(plugin);
+            if (depend != null) {
+                hard.addAll(depend);
+            }
+
+            Set<String> soft = new HashSet<String>();
+            Collection<String> softDepend = softDependencies.get(plugin);
+            if (softDepend != null) {
+                for (String softDependency : softDepend) {
+                    // Soft dependencies which are not around are simply dropped
+                    if (pending.contains(softDependency) && !softDependency.equals(plugin)) {
+                        soft.add(softDependency);
+                    }
+                }
+            }
+
+            this.dependencies.put(plugin, hard);
+            this.softDependencies.put(plugin, soft);
+            for (String dependency : hard) {
+                addDependent(dependency, plugin);
+            }
+            for (String dependency : soft) {
+                addDependent(dependency, plugin);
+            }
+        }
+
+        for (String plugin : new ArrayList<String>(pending)) {
+            if (!pending.contains(plugin)) continue; // Already failed through a cascade
+
+            for (String dependency : this.dependencies.get(plugin)) {
+                if (!plugins.contains(dependency)) {
+                    fail(plugin, dependency);
+                    break;
+                }
+            }
+        }
+
+        for (String plugin : pending) {
+            if (isClear(plugin)) {
+                ready.add(plugin);
+            }
+        }
+    }
+
+    private void addDependent(String dependency, String plugin) {
+        Set<String> set = dependents.get(dependency);
+        if (set == null) {
+            set = new HashSet<String>();
+            dependents.put(dependency, set);
+        }
+        set.add(plugin);
+    }
+
+    private boolean isClear(String plugin) {
+        return dependencies.get(plugin).isEmpty() && softDependencies.get(plugin).isEmpty();
+    }
+
+    /**
+     * Gets the next plugin to load
+     *
+     * @return the name of the plugin, or null if no more plugins can be
+     *     loaded
+     */
+    String next() {
+        String plugin = ready.pollFirst();
+        if (plugin == null) {
+            // Only cycles are left; break one by ignoring soft dependencies
+            for (String candidate : pending) {
+                if (dependencies.get(candidate).isEmpty()) {
+                    softDependencies.get(candidate).clear();
+                    plugin = candidate;
+                    break;
+                }
+            }
+        }
+
+        if (plugin == null) {
+            circular.addAll(pending);
+            pending.clear();
+            return null;
+        }
+        pending.remove(plugin);
+        return plugin;
+    }
+
+    /**
+     * Reports that a plugin has been loaded
+     *
+     * @param plugin name of the plugin
+     */
+    void loaded(String plugin) {
+        Set<String> waiting = dependents.remove(plugin);
+        if (waiting == null) return;
+
+        for (String dependent : waiting) {
+            if (!pending.contains(dependent)) continue;
+
+            dependencies.get(dependent).remove(plugin);
+            softDependencies.get(dependent).remove(plugin);
+            if (isClear(dependent)) {
+                ready.add(dependent);
+            }
+        }
+    }
+
+    /**
+     * Reports that a plugin could not be loaded. Plugins depending on it will
+     * not be handed out.
+     *
+     * @param plugin name of the plugin
+     */
+    void failed(String plugin) {
+        Set<String> waiting = dependents.remove(plugin);
+        if (waiting == null) return;
+
+        for (String dependent : new TreeSet<String>(waiting)) {
+            if (!pending.contains(dependent)) continue;
+
+            if (dependencies.get(dependent).contains(plugin)) {
+                fail(dependent, plugin);
+            } else {
+                softDependencies.get(dependent).remove(plugin);
+                if (isClear(dependent)) {
+                    ready.add(dependent);
+                }
+            }
+        }
+    }
+
+    private void fail(String plugin, String dependency) {
+        pending.remove(plugin);
+        ready.remove(plugin);
+        missing.put(plugin, dependency);
+        failed(plugin);
+    }
+
+    /**
+     * Gets the plugins which were not handed out because a hard dependency is
+     * missing or failed to load
+     *
+     * @return the name of the unavailable dependency by plugin name
+     */
+    Map<String, String> getMissingDependencies() {
+        return Collections.unmodifiableMap(missing);
+    }
+
+    /**
+     * Gets the plugins which were not handed out because of a circular hard
+     * dependency. This is only complete once {@link #next()} returned null.
+     *
+     * @return the names of the plugins
+     */
+    List<String> getCircular() {
+        return Collections.unmodifiableList(circular);
+    }
+}
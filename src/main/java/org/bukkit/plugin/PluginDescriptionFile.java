@@ -243,6 +243,31 @@ public final class PluginDescriptionFile {
         loadMap(asMap(YAML.get().load(reader)));
     }
 
+    /**
+     * Loads a PluginDescriptionFile from the contents of a plugin.yml, as
+     * returned by {@link #loadRaw(InputStream)}
+     *
+     * @param map The parsed contents
+     * @throws InvalidDescriptionException If the PluginDescriptionFile is
+     *     invalid
+     */
+    public PluginDescriptionFile(final Map<?, ?> map) throws InvalidDescriptionException {
+        loadMap(asMap(map));
+    }
+
+    /**
+     * Parses a plugin.yml without interpreting its contents. The result may
+     * be kept to create the PluginDescriptionFile again without parsing.
+     *
+     * @param stream The stream to read the plugin.yml from
+     * @return The parsed contents
+     * @throws InvalidDescriptionException If the stream does not contain a
+     *     properly structured plugin.yml
+     */
+    public static Map<?, ?> loadRaw(final InputStream stream) throws InvalidDescriptionException {
+        return asMap(YAML.get().load(stream));
+    }
+
     /**
      * Creates a new PluginDescriptionFile with the given detailed
      *
@@ -1093,7 +1118,7 @@ public final class PluginDescriptionFile {
         return map;
     }
 
-    private Map<?,?> asMap(Object object) throws InvalidDescriptionException {
+    private static Map<?,?> asMap(Object object) throws InvalidDescriptionException {
         if (object instanceof Map) {
             return (Map<?,?>) object;
         }
@@ -104,6 +104,17 @@ public interface PluginManager {
      */
     public void callEvent(Event event) throws IllegalStateException;
 
+    /**
+     * Checks if any enabled plugin listens to the given event.
+     * <p>
+     * Callers firing an event very often may use this to skip creating the
+     * event when nobody would receive it.
+     *
+     * @param event Event class to check
+     * @return true if calling the event would reach at least one listener
+     */
+    public boolean isListenedTo(Class<? extends Event> event);
+
     /**
      * Registers all the events in the given listener class
      *
@@ -218,6 +229,24 @@ public interface PluginManager {
      */
     public void recalculatePermissionDefaults(Permission perm);
 
+    /**
+     * Starts deferring the recalculation of {@link Permissible}s caused by
+     * changes to default permissions.
+     * <p>
+     * Until the matching {@link #endPermissionBatch()}, each affected
+     * Permissible is recalculated only once, when the outermost batch ends.
+     * Batches may be nested. Plugins are enabled inside a batch.
+     */
+    public void beginPermissionBatch();
+
+    /**
+     * Ends a batch started by {@link #beginPermissionBatch()}, recalculating
+     * every Permissible affected during it if this was the outermost batch.
+     *
+     * @throws IllegalStateException if no batch was started
+     */
+    public void endPermissionBatch();
+
     /**
      * Subscribes the given Permissible for information about the requested
      * Permission, by name.
@@ -286,7 +315,11 @@ public interface PluginManager {
     public Set<Permission> getPermissions();
 
     /**
-     * Returns whether or not timing code should be used for event calls
+     * Returns whether or not timing code should be used for event calls.
+     * <p>
+     * Windows of {@link ListenerTimings#getWindow() listener timings} only
+     * advance while the server calls {@link SimplePluginManager#tickTimings()}
+     * once every tick.
      *
      * @return True if event timings are to be used
      */
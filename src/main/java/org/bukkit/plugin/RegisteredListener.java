@@ -11,13 +11,22 @@ public class RegisteredListener {
     private final Plugin plugin;
     private final EventExecutor executor;
     private final boolean ignoreCancelled;
+    private final boolean concurrent;
+    private final ListenerTimings timings = new ListenerTimings();
+    private volatile Class<? extends Event> eventClass;
+    private volatile boolean multiple = false;
 
     public RegisteredListener(final Listener listener, final EventExecutor executor, final EventPriority priority, final Plugin plugin, final boolean ignoreCancelled) {
+        this(listener, executor, priority, plugin, ignoreCancelled, false);
+    }
+
+    public RegisteredListener(final Listener listener, final EventExecutor executor, final EventPriority priority, final Plugin plugin, final boolean ignoreCancelled, final boolean concurrent) {
         this.listener = listener;
         this.priority = priority;
         this.plugin = plugin;
         this.executor = executor;
         this.ignoreCancelled = ignoreCancelled;
+        this.concurrent = concurrent;
     }
 
     /**
@@ -54,6 +63,45 @@ public class RegisteredListener {
      * @throws EventException If an event handler throws an exception.
      */
     public void callEvent(final Event event) throws EventException {
+        if (ListenerTimings.isEnabled()) {
+            callTimed(event);
+        } else {
+            call(event);
+        }
+    }
+
+    final void callTimed(final Event event) throws EventException {
+        Class<? extends Event> newEventClass = event.getClass();
+        Class<? extends Event> current = this.eventClass;
+        if (current != newEventClass && !(multiple && current.isAssignableFrom(newEventClass))) {
+            updateEventClass(newEventClass);
+        }
+
+        long start = System.nanoTime();
+        try {
+            call(event);
+        } finally {
+            timings.record(System.nanoTime() - start);
+        }
+    }
+
+    private synchronized void updateEventClass(Class<? extends Event> newEventClass) {
+        if (this.eventClass == null) {
+            this.eventClass = newEventClass;
+        } else if (!this.eventClass.equals(newEventClass)) {
+            multiple = true;
+            this.eventClass = getCommonSuperclass(newEventClass, this.eventClass).asSubclass(Event.class);
+        }
+    }
+
+    private static Class<?> getCommonSuperclass(Class<?> class1, Class<?> class2) {
+        while (!class1.isAssignableFrom(class2)) {
+            class1 = class1.getSuperclass();
+        }
+        return class1;
+    }
+
+    private void call(final Event event) throws EventException {
         if (event instanceof Cancellable){
             if (((Cancellable) event).isCancelled() && isIgnoringCancelled()){
                 return;
@@ -62,6 +110,45 @@ public class RegisteredListener {
         executor.execute(listener, event);
     }
 
+    /**
+     * Gets the timings of this listener. They are only recorded while
+     * {@link ListenerTimings#isEnabled() enabled}, or always for a {@link
+     * TimedRegisteredListener}.
+     *
+     * @return the timings of this listener
+     */
+    public ListenerTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * Gets the class of the events this listener handled while recording
+     * timings. If it handled multiple classes of event, the closest shared
+     * superclass will be returned, such that for any event this listener has
+     * handled,
+     * <code>this.getEventClass().isAssignableFrom(event.getClass())</code>
+     * and no class <code>this.getEventClass().isAssignableFrom(clazz)
+     * && this.getEventClass() != clazz &&
+     * event.getClass().isAssignableFrom(clazz)</code> for all handled events.
+     *
+     * @return the event class handled by this RegisteredListener, or null
+     *     if no timed call was made yet
+     */
+    public Class<? extends Event> getEventClass() {
+        return eventClass;
+    }
+
+    /**
+     * Gets whether this listener has handled multiple events while recording
+     * timings, such that for some two events,
+     * <code>eventA.getClass() != eventB.getClass()</code>.
+     *
+     * @return true if this listener has handled multiple events
+     */
+    public boolean hasMultiple() {
+        return multiple;
+    }
+
      /**
      * Whether this listener accepts cancelled events
      *
@@ -70,4 +157,15 @@ public class RegisteredListener {
     public boolean isIgnoringCancelled() {
         return ignoreCancelled;
     }
+
+    /**
+     * Whether this listener may be called concurrently with other concurrent
+     * listeners of the same priority for asynchronous events
+     *
+     * @return True when independent of listeners of the same priority
+     * @see org.bukkit.event.EventHandler#concurrent()
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
 }
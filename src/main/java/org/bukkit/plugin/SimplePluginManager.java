@@ -7,13 +7,28 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -30,6 +45,7 @@ import org.bukkit.event.Listener;
 import org.bukkit.permissions.Permissible;
 import org.bukkit.permissions.Permission;
 import org.bukkit.permissions.PermissionDefault;
+import org.bukkit.permissions.PermissionIndex;
 import org.bukkit.util.FileUtil;
 
 import com.google.common.collect.ImmutableSet;
@@ -40,15 +56,23 @@ import com.google.common.collect.ImmutableSet;
 public final class SimplePluginManager implements PluginManager {
     private final Server server;
     private final Map<Pattern, PluginLoader> fileAssociations = new HashMap<Pattern, PluginLoader>();
-    private final List<Plugin> plugins = new ArrayList<Plugin>();
-    private final Map<String, Plugin> lookupNames = new HashMap<String, Plugin>();
+    private final List<Plugin> plugins = new CopyOnWriteArrayList<Plugin>();
+    private final Map<String, Plugin> lookupNames = new ConcurrentHashMap<String, Plugin>();
     private static File updateDirectory = null;
     private final SimpleCommandMap commandMap;
     private final Map<String, Permission> permissions = new HashMap<String, Permission>();
     private final Map<Boolean, Set<Permission>> defaultPerms = new LinkedHashMap<Boolean, Set<Permission>>();
     private final Map<String, Map<Permissible, Boolean>> permSubs = new HashMap<String, Map<Permissible, Boolean>>();
     private final Map<Boolean, Map<Permissible, Boolean>> defSubs = new HashMap<Boolean, Map<Permissible, Boolean>>();
-    private boolean useTimings = false;
+    private final Set<Permissible> dirtyPermissibles = new LinkedHashSet<Permissible>();
+    private int permissionBatchDepth = 0;
+    private volatile boolean parallelPermissionRecalculation = false;
+    private ExecutorService recalculationPool = null;
+    private final Map<Class<? extends Event>, HandlerList> handlerLists = new ConcurrentHashMap<Class<? extends Event>, HandlerList>();
+    private volatile boolean lockFreeDispatch = false;
+    private volatile ParallelEventDispatcher parallelDispatcher = null;
+    private int timingsWindow = 20;
+    private int timingsTicks = 0;
 
     public SimplePluginManager(Server instance, SimpleCommandMap commandMap) {
         server = instance;
@@ -96,6 +120,10 @@ public final class SimplePluginManager implements PluginManager {
 
     /**
      * Loads the plugins contained within the specified directory
+     * <p>
+     * Plugin descriptions are read in parallel. Plugins are then loaded in
+     * dependency order; plugins which are otherwise unordered are loaded in
+     * alphabetical order.
      *
      * @param directory Directory to check for plugins
      * @return A list of all plugins loaded
@@ -111,10 +139,8 @@ public final class SimplePluginManager implements PluginManager {
             updateDirectory = new File(directory, server.getUpdateFolder());
         }
 
-        Map<String, File> plugins = new HashMap<String, File>();
-        Set<String> loadedPlugins = new HashSet<String>();
-        Map<String, Collection<String>> dependencies = new HashMap<String, Collection<String>>();
-        Map<String, Collection<String>> softDependencies = new HashMap<String, Collection<String>>();
+        long start = System.nanoTime();
+        List<PluginCandidate> candidates = new ArrayList<PluginCandidate>();
 
         // This is where it figures out all possible plugins
         for (File file : directory.listFiles()) {
@@ -128,23 +154,35 @@ public final class SimplePluginManager implements PluginManager {
 
             if (loader == null) continue;
 
-            PluginDescriptionFile description = null;
-            try {
-                description = loader.getPluginDescription(file);
-                String name = description.getName();
-                if (name.equalsIgnoreCase("bukkit") || name.equalsIgnoreCase("minecraft") || name.equalsIgnoreCase("mojang")) {
-                    server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "' in folder '" + directory.getPath() + "': Restricted Name");
-                    continue;
-                } else if (description.rawName.indexOf(' ') != -1) {
-                    server.getLogger().warning(String.format(
-                        "Plugin `%s' uses the space-character (0x20) in its name `%s' - this is discouraged",
-                        description.getFullName(),
-                        description.rawName
-                        ));
-                }
-            } catch (InvalidDescriptionException ex) {
-                server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "' in folder '" + directory.getPath() + "'", ex);
+            candidates.add(new PluginCandidate(file, loader));
+        }
+
+        describeAll(candidates);
+        long described = System.nanoTime();
+
+        Map<String, File> plugins = new HashMap<String, File>();
+        Map<String, Collection<String>> dependencies = new HashMap<String, Collection<String>>();
+        Map<String, Collection<String>> softDependencies = new HashMap<String, Collection<String>>();
+
+        for (PluginCandidate candidate : candidates) {
+            File file = candidate.file;
+            PluginDescriptionFile description = candidate.description;
+
+            if (candidate.error != null) {
+                server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "' in folder '" + directory.getPath() + "'", candidate.error);
+                continue;
+            }
+
+            String name = description.getName();
+            if (name.equalsIgnoreCase("bukkit") || name.equalsIgnoreCase("minecraft") || name.equalsIgnoreCase("mojang")) {
+                server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "' in folder '" + directory.getPath() + "': Restricted Name");
                 continue;
+            } else if (description.rawName.indexOf(' ') != -1) {
+                server.getLogger().warning(String.format(
+                    "Plugin `%s' uses the space-character (0x20) in its name `%s' - this is discouraged",
+                    description.getFullName(),
+                    description.rawName
+                    ));
             }
 
             File replacedFile = plugins.put(description.getName(), file);
@@ -188,114 +226,122 @@ public final class SimplePluginManager implements PluginManager {
             }
         }
 
-        while (!plugins.isEmpty()) {
-            boolean missingDependency = true;
-            Iterator<String> pluginIterator = plugins.keySet().iterator();
-
-            while (pluginIterator.hasNext()) {
-                String plugin = pluginIterator.next();
-
-                if (dependencies.containsKey(plugin)) {
-                    Iterator<String> dependencyIterator = dependencies.get(plugin).iterator();
-
-                    while (dependencyIterator.hasNext()) {
-                        String dependency = dependencyIterator.next();
-
-                        // Dependency loaded
-                        if (loadedPlugins.contains(dependency)) {
-                            dependencyIterator.remove();
+        PluginDependencyGraph order = new PluginDependencyGraph(plugins.keySet(), dependencies, softDependencies);
+        long loadTime = 0;
+        String next;
+        while ((next = order.next()) != null) {
+            File file = plugins.get(next);
+            long loadStart = System.nanoTime();
+            try {
+                result.add(loadPlugin(file));
+                order.loaded(next);
+            } catch (InvalidPluginException ex) {
+                server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "' in folder '" + directory.getPath() + "'", ex);
+                order.failed(next);
+            }
+            loadTime += System.nanoTime() - loadStart;
+        }
 
-                        // We have a dependency not found
-                        } else if (!plugins.containsKey(dependency)) {
-                            missingDependency = false;
-                            File file = plugins.get(plugin);
-                            pluginIterator.remove();
-                            softDependencies.remove(plugin);
-                            dependencies.remove(plugin);
+        for (Map.Entry<String, String> missing : order.getMissingDependencies().entrySet()) {
+            File file = plugins.get(missing.getKey());
+            server.getLogger().log(
+                Level.SEVERE,
+                "Could not load '" + file.getPath() + "' in folder '" + directory.getPath() + "'",
+                new UnknownDependencyException(missing.getValue()));
+        }
+        for (String circular : order.getCircular()) {
+            File file = plugins.get(circular);
+            server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "' in folder '" + directory.getPath() + "': circular dependency detected");
+        }
 
-                            server.getLogger().log(
-                                Level.SEVERE,
-                                "Could not load '" + file.getPath() + "' in folder '" + directory.getPath() + "'",
-                                new UnknownDependencyException(dependency));
-                            break;
-                        }
-                    }
+        long end = System.nanoTime();
+        server.getLogger().info(String.format(
+            "Loaded %d of %d plugins in %d ms (descriptions: %d ms, dependency resolution: %d ms, class loading: %d ms)",
+            result.size(),
+            candidates.size(),
+            TimeUnit.NANOSECONDS.toMillis(end - start),
+            TimeUnit.NANOSECONDS.toMillis(described - start),
+            TimeUnit.NANOSECONDS.toMillis(end - described - loadTime),
+            TimeUnit.NANOSECONDS.toMillis(loadTime)
+            ));
 
-                    if (dependencies.containsKey(plugin) && dependencies.get(plugin).isEmpty()) {
-                        dependencies.remove(plugin);
-                    }
-                }
-                if (softDependencies.containsKey(plugin)) {
-                    Iterator<String> softDependencyIterator = softDependencies.get(plugin).iterator();
+        return result.toArray(new Plugin[result.size()]);
+    }
 
-                    while (softDependencyIterator.hasNext()) {
-                        String softDependency = softDependencyIterator.next();
+    /**
+     * Reads the descriptions of the given candidates, in parallel if there
+     * is more than one
+     */
+    private void describeAll(List<PluginCandidate> candidates) {
+        int threads = Math.min(candidates.size(), Runtime.getRuntime().availableProcessors());
+        if (threads <= 1) {
+            for (PluginCandidate candidate : candidates) {
+                candidate.call();
+            }
+            return;
+        }
 
-                        // Soft depend is no longer around
-                        if (!plugins.containsKey(softDependency)) {
-                            softDependencyIterator.remove();
-                        }
-                    }
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger();
 
-                    if (softDependencies.get(plugin).isEmpty()) {
-                        softDependencies.remove(plugin);
-                    }
-                }
-                if (!(dependencies.containsKey(plugin) || softDependencies.containsKey(plugin)) && plugins.containsKey(plugin)) {
-                    // We're clear to load, no more soft or hard dependencies left
-                    File file = plugins.get(plugin);
-                    pluginIterator.remove();
-                    missingDependency = false;
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Plugin Description Reader - " + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<PluginCandidate>> futures = new ArrayList<Future<PluginCandidate>>(candidates.size());
+            for (PluginCandidate candidate : candidates) {
+                futures.add(executor.submit(candidate));
+            }
 
+            boolean interrupted = false;
+            for (Future<PluginCandidate> future : futures) {
+                while (true) {
                     try {
-                        result.add(loadPlugin(file));
-                        loadedPlugins.add(plugin);
-                        continue;
-                    } catch (InvalidPluginException ex) {
-                        server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "' in folder '" + directory.getPath() + "'", ex);
+                        future.get();
+                        break;
+                    } catch (InterruptedException ex) {
+                        interrupted = true;
+                    } catch (ExecutionException ex) {
+                        Throwable cause = ex.getCause();
+                        if (cause instanceof RuntimeException) {
+                            throw (RuntimeException) cause;
+                        } else if (cause instanceof Error) {
+                            throw (Error) cause;
+                        }
+                        throw new IllegalStateException(cause);
                     }
                 }
             }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 
-            if (missingDependency) {
-                // We now iterate over plugins until something loads
-                // This loop will ignore soft dependencies
-                pluginIterator = plugins.keySet().iterator();
-
-                while (pluginIterator.hasNext()) {
-                    String plugin = pluginIterator.next();
+    private static final class PluginCandidate implements Callable<PluginCandidate> {
+        final File file;
+        final PluginLoader loader;
+        PluginDescriptionFile description;
+        InvalidDescriptionException error;
 
-                    if (!dependencies.containsKey(plugin)) {
-                        softDependencies.remove(plugin);
-                        missingDependency = false;
-                        File file = plugins.get(plugin);
-                        pluginIterator.remove();
+        PluginCandidate(File file, PluginLoader loader) {
+            this.file = file;
+            this.loader = loader;
+        }
 
-                        try {
-                            result.add(loadPlugin(file));
-                            loadedPlugins.add(plugin);
-                            break;
-                        } catch (InvalidPluginException ex) {
-                            server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "' in folder '" + directory.getPath() + "'", ex);
-                        }
-                    }
-                }
-                // We have no plugins left without a depend
-                if (missingDependency) {
-                    softDependencies.clear();
-                    dependencies.clear();
-                    Iterator<File> failedPluginIterator = plugins.values().iterator();
-
-                    while (failedPluginIterator.hasNext()) {
-                        File file = failedPluginIterator.next();
-                        failedPluginIterator.remove();
-                        server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "' in folder '" + directory.getPath() + "': circular dependency detected");
-                    }
-                }
+        public PluginCandidate call() {
+            try {
+                description = loader.getPluginDescription(file);
+            } catch (InvalidDescriptionException ex) {
+                error = ex;
             }
+            return this;
         }
-
-        return result.toArray(new Plugin[result.size()]);
     }
 
     /**
@@ -356,11 +402,11 @@ public final class SimplePluginManager implements PluginManager {
      * @param name Name of the plugin to check
      * @return Plugin if it exists, otherwise null
      */
-    public synchronized Plugin getPlugin(String name) {
+    public Plugin getPlugin(String name) {
         return lookupNames.get(name.replace(' ', '_'));
     }
 
-    public synchronized Plugin[] getPlugins() {
+    public Plugin[] getPlugins() {
         return plugins.toArray(new Plugin[0]);
     }
 
@@ -400,12 +446,17 @@ public final class SimplePluginManager implements PluginManager {
                 commandMap.registerAll(plugin.getDescription().getName(), pluginCommands);
             }
 
+            beginPermissionBatch();
             try {
                 plugin.getPluginLoader().enablePlugin(plugin);
             } catch (Throwable ex) {
                 server.getLogger().log(Level.SEVERE, "Error occurred (in the plugin loader) while enabling " + plugin.getDescription().getFullName() + " (Is it up to date?)", ex);
+            } finally {
+                endPermissionBatch();
             }
 
+            // Whatever the plugin type, its listeners only get baked once the lists are told
+            HandlerList.invalidateAll(plugin);
             HandlerList.bakeAll();
         }
     }
@@ -438,7 +489,14 @@ public final class SimplePluginManager implements PluginManager {
             }
 
             try {
+                HandlerList.invalidateAll(plugin);
                 HandlerList.unregisterAll(plugin);
+                forgetEventClasses(plugin);
+
+                ParallelEventDispatcher dispatcher = parallelDispatcher;
+                if (dispatcher != null) {
+                    dispatcher.shutdown(plugin);
+                }
             } catch (Throwable ex) {
                 server.getLogger().log(Level.SEVERE, "Error occurred (in the plugin loader) while unregistering events for " + plugin.getDescription().getFullName() + " (Is it up to date?)", ex);
             }
@@ -458,8 +516,14 @@ public final class SimplePluginManager implements PluginManager {
             plugins.clear();
             lookupNames.clear();
             HandlerList.unregisterAll();
+            handlerLists.clear();
+            ParallelEventDispatcher dispatcher = parallelDispatcher;
+            if (dispatcher != null) {
+                dispatcher.shutdown(); // Pools are created again on demand
+            }
             fileAssociations.clear();
             permissions.clear();
+            PermissionIndex.invalidate();
             defaultPerms.get(true).clear();
             defaultPerms.get(false).clear();
         }
@@ -468,7 +532,9 @@ public final class SimplePluginManager implements PluginManager {
     /**
      * Calls an event with the given details.
      * <p>
-     * This method only synchronizes when the event is not asynchronous.
+     * This method only synchronizes when the event is not asynchronous, and
+     * not at all when {@link #useLockFreeDispatch(boolean) lock-free
+     * dispatch} is enabled.
      *
      * @param event Event details
      */
@@ -480,6 +546,13 @@ public final class SimplePluginManager implements PluginManager {
             if (server.isPrimaryThread()) {
                 throw new IllegalStateException(event.getEventName() + " cannot be triggered asynchronously from primary server thread.");
             }
+            ParallelEventDispatcher dispatcher = parallelDispatcher;
+            if (dispatcher != null) {
+                dispatcher.fireEvent(event);
+            } else {
+                fireEvent(event);
+            }
+        } else if (lockFreeDispatch) {
             fireEvent(event);
         } else {
             synchronized (this) {
@@ -493,31 +566,56 @@ public final class SimplePluginManager implements PluginManager {
         RegisteredListener[] listeners = handlers.getRegisteredListeners();
 
         for (RegisteredListener registration : listeners) {
+            // Baked arrays leave out disabled plugins, unless one was disabled without the handler lists knowing
             if (!registration.getPlugin().isEnabled()) {
                 continue;
             }
 
             try {
                 registration.callEvent(event);
-            } catch (AuthorNagException ex) {
-                Plugin plugin = registration.getPlugin();
-
-                if (plugin.isNaggable()) {
-                    plugin.setNaggable(false);
-
-                    server.getLogger().log(Level.SEVERE, String.format(
-                            "Nag author(s): '%s' of '%s' about the following: %s",
-                            plugin.getDescription().getAuthors(),
-                            plugin.getDescription().getFullName(),
-                            ex.getMessage()
-                            ));
-                }
             } catch (Throwable ex) {
-                server.getLogger().log(Level.SEVERE, "Could not pass event " + event.getEventName() + " to " + registration.getPlugin().getDescription().getFullName(), ex);
+                handleEventException(event, registration, ex);
             }
         }
     }
 
+    void callListener(Event event, RegisteredListener registration) {
+        if (!registration.getPlugin().isEnabled()) {
+            return;
+        }
+
+        try {
+            registration.callEvent(event);
+        } catch (Throwable ex) {
+            handleEventException(event, registration, ex);
+        }
+    }
+
+    private void handleEventException(Event event, RegisteredListener registration, Throwable ex) {
+        Plugin plugin = registration.getPlugin();
+
+        if (ex instanceof AuthorNagException) {
+            if (plugin.isNaggable()) {
+                plugin.setNaggable(false);
+
+                server.getLogger().log(Level.SEVERE, String.format(
+                        "Nag author(s): '%s' of '%s' about the following: %s",
+                        plugin.getDescription().getAuthors(),
+                        plugin.getDescription().getFullName(),
+                        ex.getMessage()
+                        ));
+            }
+        } else {
+            server.getLogger().log(Level.SEVERE, "Could not pass event " + event.getEventName() + " to " + plugin.getDescription().getFullName(), ex);
+        }
+    }
+
+    public boolean isListenedTo(Class<? extends Event> event) {
+        Validate.notNull(event, "Event cannot be null");
+
+        return getEventListeners(event).hasListeners();
+    }
+
     public void registerEvents(Listener listener, Plugin plugin) {
         if (!plugin.isEnabled()) {
             throw new IllegalPluginAccessException("Plugin attempted to register " + listener + " while not enabled");
@@ -555,21 +653,34 @@ public final class SimplePluginManager implements PluginManager {
             throw new IllegalPluginAccessException("Plugin attempted to register " + event + " while not enabled");
         }
 
-        if (useTimings) {
-            getEventListeners(event).register(new TimedRegisteredListener(listener, executor, priority, plugin, ignoreCancelled));
-        } else {
-            getEventListeners(event).register(new RegisteredListener(listener, executor, priority, plugin, ignoreCancelled));
-        }
+        getEventListeners(event).register(new RegisteredListener(listener, executor, priority, plugin, ignoreCancelled));
     }
 
     private HandlerList getEventListeners(Class<? extends Event> type) {
+        HandlerList handlerList = handlerLists.get(type);
+        if (handlerList != null) {
+            return handlerList;
+        }
+
         try {
             Method method = getRegistrationClass(type).getDeclaredMethod("getHandlerList");
             method.setAccessible(true);
-            return (HandlerList) method.invoke(null);
+            handlerList = (HandlerList) method.invoke(null);
         } catch (Exception e) {
             throw new IllegalPluginAccessException(e.toString());
         }
+        handlerLists.put(type, handlerList);
+        return handlerList;
+    }
+
+    private void forgetEventClasses(Plugin plugin) {
+        // Don't keep the classes of a disabled plugin's events reachable
+        ClassLoader loader = plugin.getClass().getClassLoader();
+        for (Iterator<Class<? extends Event>> i = handlerLists.keySet().iterator(); i.hasNext();) {
+            if (i.next().getClassLoader() == loader) {
+                i.remove();
+            }
+        }
     }
 
     private Class<? extends Event> getRegistrationClass(Class<? extends Event> clazz) {
@@ -599,6 +710,7 @@ public final class SimplePluginManager implements PluginManager {
         }
 
         permissions.put(name, perm);
+        PermissionIndex.invalidate(name);
         calculatePermissionDefault(perm);
     }
 
@@ -612,12 +724,14 @@ public final class SimplePluginManager implements PluginManager {
 
     public void removePermission(String name) {
         permissions.remove(name.toLowerCase());
+        PermissionIndex.invalidate(name);
     }
 
     public void recalculatePermissionDefaults(Permission perm) {
         if (permissions.containsValue(perm)) {
             defaultPerms.get(true).remove(perm);
             defaultPerms.get(false).remove(perm);
+            PermissionIndex.invalidate(perm.getName());
 
             calculatePermissionDefault(perm);
         }
@@ -637,77 +751,220 @@ public final class SimplePluginManager implements PluginManager {
     private void dirtyPermissibles(boolean op) {
         Set<Permissible> permissibles = getDefaultPermSubscriptions(op);
 
+        synchronized (dirtyPermissibles) {
+            if (permissionBatchDepth > 0) {
+                dirtyPermissibles.addAll(permissibles);
+                return;
+            }
+        }
+
         for (Permissible p : permissibles) {
             p.recalculatePermissions();
         }
     }
 
+    public void beginPermissionBatch() {
+        synchronized (dirtyPermissibles) {
+            permissionBatchDepth++;
+        }
+    }
+
+    public void endPermissionBatch() {
+        List<Permissible> permissibles;
+        synchronized (dirtyPermissibles) {
+            if (permissionBatchDepth == 0) {
+                throw new IllegalStateException("No permission batch was started");
+            }
+            if (--permissionBatchDepth > 0 || dirtyPermissibles.isEmpty()) {
+                return;
+            }
+            permissibles = new ArrayList<Permissible>(dirtyPermissibles);
+            dirtyPermissibles.clear();
+        }
+
+        if (parallelPermissionRecalculation && permissibles.size() > 1) {
+            recalculateInParallel(permissibles);
+        } else {
+            for (Permissible p : permissibles) {
+                recalculate(p);
+            }
+        }
+    }
+
+    private void recalculate(Permissible permissible) {
+        try {
+            permissible.recalculatePermissions();
+        } catch (Throwable ex) {
+            server.getLogger().log(Level.SEVERE, "Could not recalculate permissions of " + permissible, ex);
+        }
+    }
+
+    private void recalculateInParallel(List<Permissible> permissibles) {
+        ExecutorService executor = getRecalculationPool();
+        if (executor == null) {
+            for (Permissible p : permissibles) {
+                recalculate(p);
+            }
+            return;
+        }
+
+        final CountDownLatch remaining = new CountDownLatch(permissibles.size());
+        for (final Permissible permissible : permissibles) {
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        recalculate(permissible);
+                    } finally {
+                        remaining.countDown();
+                    }
+                }
+            });
+        }
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                remaining.await();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the pool shared by all permission batches, creating it on first
+     * use. Its threads exit after a minute without work.
+     *
+     * @return the pool, or null if there is only one processor to run on
+     */
+    private ExecutorService getRecalculationPool() {
+        synchronized (dirtyPermissibles) {
+            if (recalculationPool == null) {
+                int threads = Runtime.getRuntime().availableProcessors();
+                if (threads <= 1) {
+                    return null;
+                }
+                ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger threadNumber = new AtomicInteger();
+
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "Permission Recalculation Thread - " + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+                executor.allowCoreThreadTimeOut(true);
+                recalculationPool = executor;
+            }
+            return recalculationPool;
+        }
+    }
+
+    /**
+     * Sets whether the Permissibles affected during a {@link
+     * #beginPermissionBatch() permission batch} are recalculated in parallel
+     * when it ends.
+     * <p>
+     * This is only safe if every Permissible's recalculation only touches
+     * its own state and this plugin manager.
+     *
+     * @param use True if Permissibles should be recalculated in parallel
+     */
+    public void useParallelPermissionRecalculation(boolean use) {
+        parallelPermissionRecalculation = use;
+    }
+
+    /**
+     * Gets whether permission batches recalculate Permissibles in parallel
+     *
+     * @return True if Permissibles are recalculated in parallel
+     */
+    public boolean useParallelPermissionRecalculation() {
+        return parallelPermissionRecalculation;
+    }
+
     public void subscribeToPermission(String permission, Permissible permissible) {
         String name = permission.toLowerCase();
-        Map<Permissible, Boolean> map = permSubs.get(name);
+        synchronized (permSubs) {
+            Map<Permissible, Boolean> map = permSubs.get(name);
 
-        if (map == null) {
-            map = new WeakHashMap<Permissible, Boolean>();
-            permSubs.put(name, map);
-        }
+            if (map == null) {
+                map = new WeakHashMap<Permissible, Boolean>();
+                permSubs.put(name, map);
+            }
 
-        map.put(permissible, true);
+            map.put(permissible, true);
+        }
     }
 
     public void unsubscribeFromPermission(String permission, Permissible permissible) {
         String name = permission.toLowerCase();
-        Map<Permissible, Boolean> map = permSubs.get(name);
+        synchronized (permSubs) {
+            Map<Permissible, Boolean> map = permSubs.get(name);
 
-        if (map != null) {
-            map.remove(permissible);
+            if (map != null) {
+                map.remove(permissible);
 
-            if (map.isEmpty()) {
-                permSubs.remove(name);
+                if (map.isEmpty()) {
+                    permSubs.remove(name);
+                }
             }
         }
     }
 
     public Set<Permissible> getPermissionSubscriptions(String permission) {
         String name = permission.toLowerCase();
-        Map<Permissible, Boolean> map = permSubs.get(name);
+        synchronized (permSubs) {
+            Map<Permissible, Boolean> map = permSubs.get(name);
 
-        if (map == null) {
-            return ImmutableSet.of();
-        } else {
-            return ImmutableSet.copyOf(map.keySet());
+            if (map == null) {
+                return ImmutableSet.of();
+            } else {
+                return ImmutableSet.copyOf(map.keySet());
+            }
         }
     }
 
     public void subscribeToDefaultPerms(boolean op, Permissible permissible) {
-        Map<Permissible, Boolean> map = defSubs.get(op);
+        synchronized (defSubs) {
+            Map<Permissible, Boolean> map = defSubs.get(op);
 
-        if (map == null) {
-            map = new WeakHashMap<Permissible, Boolean>();
-            defSubs.put(op, map);
-        }
+            if (map == null) {
+                map = new WeakHashMap<Permissible, Boolean>();
+                defSubs.put(op, map);
+            }
 
-        map.put(permissible, true);
+            map.put(permissible, true);
+        }
     }
 
     public void unsubscribeFromDefaultPerms(boolean op, Permissible permissible) {
-        Map<Permissible, Boolean> map = defSubs.get(op);
+        synchronized (defSubs) {
+            Map<Permissible, Boolean> map = defSubs.get(op);
 
-        if (map != null) {
-            map.remove(permissible);
+            if (map != null) {
+                map.remove(permissible);
 
-            if (map.isEmpty()) {
-                defSubs.remove(op);
+                if (map.isEmpty()) {
+                    defSubs.remove(op);
+                }
             }
         }
     }
 
     public Set<Permissible> getDefaultPermSubscriptions(boolean op) {
-        Map<Permissible, Boolean> map = defSubs.get(op);
+        synchronized (defSubs) {
+            Map<Permissible, Boolean> map = defSubs.get(op);
 
-        if (map == null) {
-            return ImmutableSet.of();
-        } else {
-            return ImmutableSet.copyOf(map.keySet());
+            if (map == null) {
+                return ImmutableSet.of();
+            } else {
+                return ImmutableSet.copyOf(map.keySet());
+            }
         }
     }
 
@@ -716,15 +973,191 @@ public final class SimplePluginManager implements PluginManager {
     }
 
     public boolean useTimings() {
-        return useTimings;
+        return ListenerTimings.isEnabled();
     }
 
     /**
-     * Sets whether or not per event timing code should be used
+     * Sets whether or not per event timing code should be used. Timings are
+     * recorded by default, so this only turns them back on; use {@link
+     * ListenerTimings#setEnabled(boolean)} to turn them off.
      *
      * @param use True if per event timing code should be used
      */
     public void useTimings(boolean use) {
-        useTimings = use;
+        if (use) {
+            ListenerTimings.setEnabled(true);
+        }
+    }
+
+    /**
+     * Advances the window of {@link ListenerTimings#getWindow() listener
+     * timings} by one tick. The server must call this once every tick,
+     * otherwise no window is ever completed.
+     */
+    public void tickTimings() {
+        if (++timingsTicks < timingsWindow) {
+            return;
+        }
+        for (HandlerList handlerList : HandlerList.getHandlerLists()) {
+            for (RegisteredListener listener : handlerList.getRegisteredListeners()) {
+                listener.getTimings().endWindow(timingsTicks);
+            }
+        }
+        timingsTicks = 0;
+    }
+
+    /**
+     * Gets the number of ticks covered by a window of listener timings
+     *
+     * @return the window length in ticks
+     */
+    public int getTimingsWindow() {
+        return timingsWindow;
+    }
+
+    /**
+     * Sets the number of ticks covered by a window of listener timings
+     *
+     * @param ticks the window length in ticks
+     */
+    public void setTimingsWindow(int ticks) {
+        Validate.isTrue(ticks > 0, "Window must be at least one tick");
+        timingsWindow = ticks;
+    }
+
+    /**
+     * Exports the timings of every listener of every registered event.
+     * <p>
+     * Each entry holds the <code>plugin</code>, <code>event</code>,
+     * <code>listener</code> and <code>priority</code> of a listener along
+     * with its {@link TimingsSnapshot#serialize() statistics}. Listeners
+     * which were never called are left out.
+     *
+     * @param window true to export the last completed window, false to
+     *     export the cumulative timings
+     * @return a list of maps, suitable for saving as YAML or JSON
+     */
+    public List<Map<String, Object>> exportTimings(boolean window) {
+        Map<HandlerList, Class<? extends Event>> events = new IdentityHashMap<HandlerList, Class<? extends Event>>();
+        for (Map.Entry<Class<? extends Event>, HandlerList> entry : handlerLists.entrySet()) {
+            events.put(entry.getValue(), getRegistrationClass(entry.getKey()));
+        }
+
+        List<Map<String, Object>> result = new ArrayList<Map<String, Object>>();
+        for (Map.Entry<HandlerList, Class<? extends Event>> entry : events.entrySet()) {
+            for (RegisteredListener listener : entry.getKey().getRegisteredListeners()) {
+                ListenerTimings timings = listener.getTimings();
+                TimingsSnapshot snapshot = window ? timings.getWindow() : timings.getSnapshot();
+                if (snapshot.getCount() == 0) {
+                    continue;
+                }
+
+                Map<String, Object> values = new LinkedHashMap<String, Object>();
+                values.put("plugin", listener.getPlugin().getDescription().getFullName());
+                values.put("event", entry.getValue().getName());
+                values.put("listener", listener.getListener().getClass().getName());
+                values.put("priority", listener.getPriority().name());
+                values.putAll(snapshot.serialize());
+                result.add(values);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets whether synchronous events are dispatched without holding this
+     * plugin manager's monitor
+     *
+     * @return True if synchronous events are dispatched lock-free
+     */
+    public boolean useLockFreeDispatch() {
+        return lockFreeDispatch;
+    }
+
+    /**
+     * Sets whether synchronous events should be dispatched without holding
+     * this plugin manager's monitor.
+     * <p>
+     * Dispatch only reads the baked listener array of each {@link
+     * HandlerList}, so the monitor is not needed for consistency. Without
+     * it, synchronous events fired from different threads are no longer
+     * serialized against each other, and asynchronous events fired from
+     * within a synchronous event are only detected on the primary thread.
+     *
+     * @param use True if synchronous events should be dispatched lock-free
+     */
+    public void useLockFreeDispatch(boolean use) {
+        lockFreeDispatch = use;
+    }
+
+    /**
+     * Sets whether asynchronous events should call {@link
+     * RegisteredListener#isConcurrent() concurrent} listeners of the same
+     * priority in parallel.
+     * <p>
+     * Each plugin gets its own bounded thread pool for its concurrent
+     * listeners. Listeners of different priorities never overlap.
+     *
+     * @param use True if concurrent listeners should be called in parallel
+     */
+    public synchronized void useParallelAsyncDispatch(boolean use) {
+        if (use && parallelDispatcher == null) {
+            parallelDispatcher = new ParallelEventDispatcher(this, Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+        } else if (!use && parallelDispatcher != null) {
+            parallelDispatcher.shutdown();
+            parallelDispatcher = null;
+        }
+    }
+
+    /**
+     * Gets whether asynchronous events call concurrent listeners in parallel
+     *
+     * @return True if concurrent listeners are called in parallel
+     */
+    public boolean useParallelAsyncDispatch() {
+        return parallelDispatcher != null;
+    }
+
+    /**
+     * Sets the number of threads each plugin's pool for concurrent
+     * listeners uses, unless set for the plugin specifically
+     *
+     * @param threads Number of threads per plugin
+     */
+    public void setAsyncPoolSize(int threads) {
+        ParallelEventDispatcher dispatcher = parallelDispatcher;
+        if (dispatcher == null) {
+            throw new IllegalStateException("Parallel async dispatch is not enabled");
+        }
+        dispatcher.setDefaultPoolSize(threads);
+    }
+
+    /**
+     * Sets the number of threads used to call a specific plugin's
+     * concurrent listeners, until the plugin is disabled
+     *
+     * @param plugin Plugin to size the pool of
+     * @param threads Number of threads
+     */
+    public void setAsyncPoolSize(Plugin plugin, int threads) {
+        Validate.notNull(plugin, "Plugin cannot be null");
+        ParallelEventDispatcher dispatcher = parallelDispatcher;
+        if (dispatcher == null) {
+            throw new IllegalStateException("Parallel async dispatch is not enabled");
+        }
+        dispatcher.setPoolSize(plugin, threads);
+    }
+
+    /**
+     * Gets statistics about the pool calling a plugin's concurrent listeners
+     *
+     * @param plugin Plugin to get the statistics of
+     * @return A snapshot of the plugin's pool, or null if parallel async
+     *     dispatch is not enabled
+     */
+    public AsyncDispatchStatistics getAsyncDispatchStatistics(Plugin plugin) {
+        Validate.notNull(plugin, "Plugin cannot be null");
+        ParallelEventDispatcher dispatcher = parallelDispatcher;
+        return dispatcher == null ? null : dispatcher.getStatistics(plugin);
     }
 }
@@ -6,50 +6,28 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 
 /**
- * Extends RegisteredListener to include timing information
+ * Extends RegisteredListener to always record timing information, even
+ * while {@link ListenerTimings#isEnabled()} is false
  */
 public class TimedRegisteredListener extends RegisteredListener {
-    private int count;
-    private long totalTime;
-    private Class<? extends Event> eventClass;
-    private boolean multiple = false;
-
     public TimedRegisteredListener(final Listener pluginListener, final EventExecutor eventExecutor, final EventPriority eventPriority, final Plugin registeredPlugin, final boolean listenCancelled) {
         super(pluginListener, eventExecutor, eventPriority, registeredPlugin, listenCancelled);
     }
 
-    @Override
-    public void callEvent(Event event) throws EventException {
-        if (event.isAsynchronous()) {
-            super.callEvent(event);
-            return;
-        }
-        count++;
-        Class<? extends Event> newEventClass = event.getClass();
-        if (this.eventClass == null) {
-            this.eventClass = newEventClass;
-        } else if (!this.eventClass.equals(newEventClass)) {
-            multiple = true;
-            this.eventClass = getCommonSuperclass(newEventClass, this.eventClass).asSubclass(Event.class);
-        }
-        long start = System.nanoTime();
-        super.callEvent(event);
-        totalTime += System.nanoTime() - start;
+    public TimedRegisteredListener(final Listener pluginListener, final EventExecutor eventExecutor, final EventPriority eventPriority, final Plugin registeredPlugin, final boolean listenCancelled, final boolean concurrent) {
+        super(pluginListener, eventExecutor, eventPriority, registeredPlugin, listenCancelled, concurrent);
     }
 
-    private static Class<?> getCommonSuperclass(Class<?> class1, Class<?> class2) {
-        while (!class1.isAssignableFrom(class2)) {
-            class1 = class1.getSuperclass();
-        }
-        return class1;
+    @Override
+    public void callEvent(Event event) throws EventException {
+        callTimed(event);
     }
 
     /**
      * Resets the call count and total time for this listener
      */
     public void reset() {
-        count = 0;
-        totalTime = 0;
+        getTimings().reset();
     }
 
     /**
@@ -58,7 +36,7 @@ public class TimedRegisteredListener extends RegisteredListener {
      * @return Times this listener has been called
      */
     public int getCount() {
-        return count;
+        return (int) getTimings().getSnapshot().getCount();
     }
 
     /**
@@ -67,31 +45,6 @@ public class TimedRegisteredListener extends RegisteredListener {
      * @return Total time for all calls of this listener
      */
     public long getTotalTime() {
-        return totalTime;
-    }
-
-    /**
-     * Gets the class of the events this listener handled. If it handled
-     * multiple classes of event, the closest shared superclass will be
-     * returned, such that for any event this listener has handled,
-     * <code>this.getEventClass().isAssignableFrom(event.getClass())</code>
-     * and no class <code>this.getEventClass().isAssignableFrom(clazz)
-     * && this.getEventClass() != clazz &&
-     * event.getClass().isAssignableFrom(clazz)</code> for all handled events.
-     *
-     * @return the event class handled by this RegisteredListener
-     */
-    public Class<? extends Event> getEventClass() {
-        return eventClass;
-    }
-
-    /**
-     * Gets whether this listener has handled multiple events, such that for
-     * some two events, <code>eventA.getClass() != eventB.getClass()</code>.
-     *
-     * @return true if this listener has handled multiple events
-     */
-    public boolean hasMultiple() {
-        return multiple;
+        return getTimings().getSnapshot().getTotalTime();
     }
 }
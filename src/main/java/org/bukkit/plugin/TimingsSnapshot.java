@@ -0,0 +1,143 @@
+package org.bukkit.plugin;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable view of the {@link ListenerTimings} of a listener, either
+ * cumulative or over a window of ticks.
+ */
+public final class TimingsSnapshot {
+    static final TimingsSnapshot EMPTY = new TimingsSnapshot(0, 0, 0, new long[ListenerTimings.BUCKETS], 0);
+
+    private final long count;
+    private final long totalTime;
+    private final long maxTime;
+    private final long[] buckets;
+    private final int ticks;
+
+    TimingsSnapshot(long count, long totalTime, long maxTime, long[] buckets, int ticks) {
+        this.count = count;
+        this.totalTime = totalTime;
+        this.maxTime = maxTime;
+        this.buckets = buckets;
+        this.ticks = ticks;
+    }
+
+    TimingsSnapshot since(TimingsSnapshot start, long windowMax, int ticks) {
+        long[] delta = new long[buckets.length];
+        for (int i = 0; i < delta.length; i++) {
+            delta[i] = buckets[i] - start.buckets[i];
+        }
+        return new TimingsSnapshot(count - start.count, totalTime - start.totalTime, windowMax, delta, ticks);
+    }
+
+    /**
+     * Gets the number of calls
+     *
+     * @return the number of calls
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the total time of all calls in nanoseconds
+     *
+     * @return the total time
+     */
+    public long getTotalTime() {
+        return totalTime;
+    }
+
+    /**
+     * Gets the time of the longest call in nanoseconds
+     *
+     * @return the longest time
+     */
+    public long getMaxTime() {
+        return maxTime;
+    }
+
+    /**
+     * Gets the average time of a call in nanoseconds
+     *
+     * @return the average time, or 0 if there were no calls
+     */
+    public long getAverageTime() {
+        return count == 0 ? 0 : totalTime / count;
+    }
+
+    /**
+     * Gets the number of ticks this snapshot covers
+     *
+     * @return the number of ticks, or 0 for cumulative snapshots
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the average time spent per tick in nanoseconds
+     *
+     * @return the time per tick, or 0 for cumulative snapshots
+     */
+    public long getTimePerTick() {
+        return ticks == 0 ? 0 : totalTime / ticks;
+    }
+
+    /**
+     * Gets an upper bound of the given percentile of call times in
+     * nanoseconds. The result is accurate to a factor of two.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the time at or below which the given percentage of calls
+     *     completed, or 0 if there were no calls
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= target) {
+                return Math.min(ListenerTimings.bucketUpperBound(i), maxTime);
+            }
+        }
+        return maxTime;
+    }
+
+    /**
+     * Gets the number of calls that fell into each histogram bucket
+     *
+     * @return a copy of the bucket counts
+     * @see ListenerTimings#BUCKETS
+     */
+    public long[] getBuckets() {
+        return buckets.clone();
+    }
+
+    /**
+     * Gets the statistics as a map, suitable for saving as YAML or JSON
+     *
+     * @return the statistics by name
+     */
+    public Map<String, Object> serialize() {
+        Map<String, Object> result = new LinkedHashMap<String, Object>();
+        result.put("count", count);
+        result.put("total", totalTime);
+        result.put("max", maxTime);
+        result.put("p50", getPercentile(50));
+        result.put("p99", getPercentile(99));
+        if (ticks != 0) {
+            result.put("ticks", ticks);
+            result.put("per-tick", getTimePerTick());
+        }
+        return result;
+    }
+}
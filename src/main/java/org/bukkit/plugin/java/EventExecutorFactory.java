@@ -0,0 +1,399 @@
+package org.bukkit.plugin.java;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+
+/**
+ * Creates {@link EventExecutor}s for {@link org.bukkit.event.EventHandler}
+ * methods.
+ * <p>
+ * Where the handler method, its declaring class and its event class are all
+ * public and visible from the plugin's class loader, a small executor class
+ * is generated and defined in that class loader which invokes the handler
+ * directly. Anything else falls back to reflection.
+ */
+final class EventExecutorFactory {
+    private static final String GENERATED_PREFIX = "org.bukkit.plugin.java.generated.GeneratedEventExecutor";
+    private static final AtomicInteger nextId = new AtomicInteger();
+    private static final Set<Class<?>> fallbackWarned = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<Class<?>, Boolean>()));
+
+    // Class file constants
+    private static final int CLASS_VERSION = 49; // Java 5, so no stack map frames are required
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int ALOAD_3 = 0x2d;
+    private static final int ASTORE_3 = 0x4e;
+    private static final int POP = 0x57;
+    private static final int POP2 = 0x58;
+    private static final int DUP = 0x59;
+    private static final int IFNE = 0x9a;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int NEW = 0xbb;
+    private static final int ATHROW = 0xbf;
+    private static final int CHECKCAST = 0xc0;
+    private static final int INSTANCEOF = 0xc1;
+
+    private EventExecutorFactory() {}
+
+    /**
+     * Creates an executor for the given handler method, generating one in the
+     * plugin's class loader where possible.
+     *
+     * @param loader the class loader of the plugin that owns the listener
+     * @param method the handler method
+     * @param eventClass the event class the handler accepts
+     * @return an executor calling the method
+     */
+    static EventExecutor create(PluginClassLoader loader, Method method, Class<? extends Event> eventClass) {
+        EventExecutor executor = null;
+        if (loader != null && canGenerate(loader, method, eventClass)) {
+            executor = createGenerated(loader, method, eventClass);
+        }
+        if (executor == null) {
+            executor = createReflective(method, eventClass);
+        }
+        return executor;
+    }
+
+    /**
+     * Creates an executor which calls the handler through reflection.
+     *
+     * @param method the handler method
+     * @param eventClass the event class the handler accepts
+     * @return an executor calling the method
+     */
+    static EventExecutor createReflective(final Method method, final Class<? extends Event> eventClass) {
+        return new EventExecutor() {
+            public void execute(Listener listener, Event event) throws EventException {
+                try {
+                    if (!eventClass.isAssignableFrom(event.getClass())) {
+                        return;
+                    }
+                    method.invoke(listener, event);
+                } catch (InvocationTargetException ex) {
+                    throw new EventException(ex.getCause());
+                } catch (Throwable t) {
+                    throw new EventException(t);
+                }
+            }
+        };
+    }
+
+    private static EventExecutor createGenerated(PluginClassLoader loader, Method method, Class<? extends Event> eventClass) {
+        String name = GENERATED_PREFIX + nextId.incrementAndGet();
+        try {
+            byte[] bytes = generateClass(name, method, eventClass);
+            return newInstance(loader.defineGeneratedClass(name, bytes));
+        } catch (LinkageError ex) {
+            // Verification or linkage failed - reflection still works
+            warnFallback(method, ex);
+            return null;
+        } catch (Exception ex) {
+            warnFallback(method, ex);
+            return null;
+        }
+    }
+
+    private static void warnFallback(Method method, Throwable cause) {
+        Class<?> listenerClass = method.getDeclaringClass();
+        if (fallbackWarned.add(listenerClass)) {
+            Bukkit.getLogger().log(Level.WARNING, "Could not generate event executors for " + listenerClass.getName() + ", its handlers are called through reflection", cause);
+        }
+    }
+
+    /**
+     * Instantiates a class produced by {@link #generateClass(String, Method,
+     * Class)}.
+     *
+     * @param clazz the generated class
+     * @return the executor
+     * @throws Exception if the class could not be instantiated
+     */
+    static EventExecutor newInstance(Class<?> clazz) throws Exception {
+        return clazz.asSubclass(EventExecutor.class).newInstance();
+    }
+
+    /**
+     * Checks whether a direct call to the handler can be compiled into a
+     * class defined by the given loader.
+     *
+     * @param loader the loader the executor would be defined in
+     * @param method the handler method
+     * @param eventClass the event class the handler accepts
+     * @return true if an executor can be generated
+     */
+    static boolean canGenerate(ClassLoader loader, Method method, Class<?> eventClass) {
+        Class<?> owner = method.getDeclaringClass();
+        if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(owner.getModifiers()) || !Modifier.isPublic(eventClass.getModifiers())) {
+            return false;
+        }
+        if (owner.isInterface() || method.getParameterTypes().length != 1 || method.getParameterTypes()[0] != eventClass) {
+            return false;
+        }
+        return isVisible(loader, owner) && isVisible(loader, eventClass);
+    }
+
+    private static boolean isVisible(ClassLoader loader, Class<?> clazz) {
+        try {
+            return Class.forName(clazz.getName(), false, loader) == clazz;
+        } catch (ClassNotFoundException ex) {
+            return false;
+        } catch (LinkageError ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Generates the bytes of an executor class which is equivalent to the
+     * reflective executor, but calls the handler directly:
+     * <pre>
+     * public void execute(Listener listener, Event event) throws EventException {
+     *     if (!(event instanceof EventClass)) {
+     *         return;
+     *     }
+     *     try {
+     *         ((Owner) listener).method((EventClass) event);
+     *     } catch (Throwable t) {
+     *         throw new EventException(t);
+     *     }
+     * }
+     * </pre>
+     *
+     * @param className binary name of the class to generate
+     * @param method the handler method
+     * @param eventClass the event class the handler accepts
+     * @return the class file
+     */
+    static byte[] generateClass(String className, Method method, Class<?> eventClass) {
+        ConstantPool pool = new ConstantPool();
+        Class<?> owner = method.getDeclaringClass();
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+
+        int thisClass = pool.classRef(internalName(className));
+        int superClass = pool.classRef("java/lang/Object");
+        int executorInterface = pool.classRef(internalName(EventExecutor.class.getName()));
+        int throwableClass = pool.classRef("java/lang/Throwable");
+        int ownerClass = pool.classRef(internalName(owner.getName()));
+        int eventRef = pool.classRef(internalName(eventClass.getName()));
+        int eventExceptionClass = pool.classRef(internalName(EventException.class.getName()));
+        int objectInit = pool.methodRef(superClass, "<init>", "()V");
+        int eventExceptionInit = pool.methodRef(eventExceptionClass, "<init>", "(Ljava/lang/Throwable;)V");
+        int handler = pool.methodRef(ownerClass, method.getName(), "(" + descriptor(eventClass) + ")" + descriptor(method.getReturnType()));
+        int initName = pool.utf8("<init>");
+        int initDesc = pool.utf8("()V");
+        int executeName = pool.utf8("execute");
+        int executeDesc = pool.utf8("(" + descriptor(Listener.class) + descriptor(Event.class) + ")V");
+        int codeName = pool.utf8("Code");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_VERSION);
+            pool.write(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1); // interfaces
+            out.writeShort(executorInterface);
+            out.writeShort(0); // fields
+            out.writeShort(2); // methods
+
+            // public <init>() { super(); }
+            CodeBuilder init = new CodeBuilder();
+            init.op(ALOAD_0);
+            init.op(INVOKESPECIAL, objectInit);
+            init.op(RETURN);
+            writeMethod(out, initName, initDesc, codeName, init, 1, 1, null);
+
+            // public void execute(Listener, Event)
+            CodeBuilder execute = new CodeBuilder();
+            execute.op(ALOAD_2);
+            execute.op(INSTANCEOF, eventRef);
+            execute.op(IFNE, 4); // skip the following return
+            execute.op(RETURN);
+            int tryStart = execute.position();
+            if (!isStatic) {
+                execute.op(ALOAD_1);
+                execute.op(CHECKCAST, ownerClass);
+            }
+            execute.op(ALOAD_2);
+            execute.op(CHECKCAST, eventRef);
+            execute.op(isStatic ? INVOKESTATIC : INVOKEVIRTUAL, handler);
+            int tryEnd = execute.position();
+            Class<?> returnType = method.getReturnType();
+            if (returnType == long.class || returnType == double.class) {
+                execute.op(POP2);
+            } else if (returnType != void.class) {
+                execute.op(POP);
+            }
+            execute.op(RETURN);
+            int catchStart = execute.position();
+            execute.op(ASTORE_3);
+            execute.op(NEW, eventExceptionClass);
+            execute.op(DUP);
+            execute.op(ALOAD_3);
+            execute.op(INVOKESPECIAL, eventExceptionInit);
+            execute.op(ATHROW);
+            writeMethod(out, executeName, executeDesc, codeName, execute, 3, 4, new int[] { tryStart, tryEnd, catchStart, throwableClass });
+
+            out.writeShort(0); // attributes
+        } catch (IOException ex) {
+            // ByteArrayOutputStream does not throw
+            throw new AssertionError(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeName, CodeBuilder code, int maxStack, int maxLocals, int[] exceptionEntry) throws IOException {
+        byte[] instructions = code.toByteArray();
+        int exceptionTableLength = exceptionEntry == null ? 0 : 1;
+
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1); // attributes
+        out.writeShort(codeName);
+        out.writeInt(2 + 2 + 4 + instructions.length + 2 + exceptionTableLength * 8 + 2);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(instructions.length);
+        out.write(instructions);
+        out.writeShort(exceptionTableLength);
+        if (exceptionEntry != null) {
+            for (int value : exceptionEntry) {
+                out.writeShort(value);
+            }
+        }
+        out.writeShort(0); // code attributes
+    }
+
+    private static String internalName(String binaryName) {
+        return binaryName.replace('.', '/');
+    }
+
+    private static String descriptor(Class<?> clazz) {
+        if (clazz.isArray()) {
+            return internalName(clazz.getName());
+        } else if (!clazz.isPrimitive()) {
+            return "L" + internalName(clazz.getName()) + ";";
+        } else if (clazz == void.class) {
+            return "V";
+        } else if (clazz == boolean.class) {
+            return "Z";
+        } else if (clazz == byte.class) {
+            return "B";
+        } else if (clazz == char.class) {
+            return "C";
+        } else if (clazz == short.class) {
+            return "S";
+        } else if (clazz == int.class) {
+            return "I";
+        } else if (clazz == long.class) {
+            return "J";
+        } else if (clazz == float.class) {
+            return "F";
+        } else {
+            return "D";
+        }
+    }
+
+    private static final class CodeBuilder {
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+        void op(int opcode) {
+            code.write(opcode);
+        }
+
+        void op(int opcode, int operand) {
+            code.write(opcode);
+            code.write(operand >> 8);
+            code.write(operand);
+        }
+
+        int position() {
+            return code.size();
+        }
+
+        byte[] toByteArray() {
+            return code.toByteArray();
+        }
+    }
+
+    private static final class ConstantPool {
+        private final List<Object[]> entries = new ArrayList<Object[]>();
+        private final Map<String, Integer> lookup = new HashMap<String, Integer>();
+
+        int utf8(String value) {
+            return add("U" + value, CONSTANT_UTF8, value);
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            return add("C" + internalName, CONSTANT_CLASS, name);
+        }
+
+        int methodRef(int owner, String name, String descriptor) {
+            int nameAndType = add("N" + name + descriptor, CONSTANT_NAME_AND_TYPE, utf8(name), utf8(descriptor));
+            return add("M" + owner + "." + name + descriptor, CONSTANT_METHODREF, owner, nameAndType);
+        }
+
+        private int add(String key, Object... entry) {
+            Integer index = lookup.get(key);
+            if (index == null) {
+                entries.add(entry);
+                index = entries.size();
+                lookup.put(key, index);
+            }
+            return index;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeShort(entries.size() + 1);
+            for (Object[] entry : entries) {
+                int tag = (Integer) entry[0];
+                out.writeByte(tag);
+                if (tag == CONSTANT_UTF8) {
+                    out.writeUTF((String) entry[1]);
+                } else {
+                    for (int i = 1; i < entry.length; i++) {
+                        out.writeShort((Integer) entry[i]);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.bukkit.command.PluginCommand;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.HandlerList;
 import org.bukkit.generator.ChunkGenerator;
 import org.bukkit.plugin.AuthorNagException;
 import org.bukkit.plugin.PluginAwareness;
@@ -311,6 +312,7 @@ public abstract class JavaPlugin extends PluginBase {
     protected final void setEnabled(final boolean enabled) {
         if (isEnabled != enabled) {
             isEnabled = enabled;
+            HandlerList.invalidateAll(this);
 
             if (isEnabled) {
                 onEnable();
@@ -4,16 +4,22 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 import java.util.logging.Level;
 import java.util.regex.Pattern;
 
@@ -21,10 +27,10 @@ import org.apache.commons.lang.Validate;
 import org.bukkit.Server;
 import org.bukkit.Warning;
 import org.bukkit.Warning.WarningState;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.bukkit.configuration.serialization.ConfigurationSerialization;
 import org.bukkit.event.Event;
-import org.bukkit.event.EventException;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.server.PluginDisableEvent;
@@ -37,7 +43,6 @@ import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.PluginLoader;
 import org.bukkit.plugin.RegisteredListener;
-import org.bukkit.plugin.TimedRegisteredListener;
 import org.bukkit.plugin.UnknownDependencyException;
 import org.yaml.snakeyaml.error.YAMLException;
 
@@ -45,10 +50,23 @@ import org.yaml.snakeyaml.error.YAMLException;
  * Represents a Java plugin loader, allowing plugins in the form of .jar
  */
 public final class JavaPluginLoader implements PluginLoader {
+    private static final int MISSING_CLASS_CACHE_SIZE = 1024;
     final Server server;
     private final Pattern[] fileFilters = new Pattern[] { Pattern.compile("\\.jar$"), };
     private final Map<String, Class<?>> classes = new HashMap<String, Class<?>>();
     private final Map<String, PluginClassLoader> loaders = new LinkedHashMap<String, PluginClassLoader>();
+    private final Map<String, Set<String>> pluginPackages = new HashMap<String, Set<String>>();
+    // Read by plugins loading classes asynchronously
+    private final Map<String, List<String>> packageOwners = new ConcurrentHashMap<String, List<String>>();
+    private final Set<String> unindexedPlugins = new CopyOnWriteArraySet<String>();
+    private final Map<String, Boolean> missingClasses = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MISSING_CLASS_CACHE_SIZE;
+        }
+    };
+    private int missingClassesGeneration = 0;
+    private final Map<File, PluginIndex> indexes = new HashMap<File, PluginIndex>();
 
     /**
      * This class was not meant to be constructed explicitly
@@ -73,6 +91,13 @@ public final class JavaPluginLoader implements PluginLoader {
             throw new InvalidPluginException(ex);
         }
 
+        PluginIndex index = getIndex(file);
+        Set<String> providedClasses = index.getClasses(file);
+        index.saveIfDirty();
+        if (providedClasses == null) {
+            providedClasses = readClassNames(file);
+        }
+
         final File parentFile = file.getParentFile();
         final File dataFolder = new File(parentFile, description.getName());
         @SuppressWarnings("deprecation")
@@ -133,12 +158,28 @@ public final class JavaPluginLoader implements PluginLoader {
 
         loaders.put(description.getName(), loader);
 
+        Set<String> packages = null;
+        if (providedClasses != null) {
+            packages = new HashSet<String>();
+            for (String name : providedClasses) {
+                packages.add(getPackageName(name));
+            }
+        }
+        pluginPackages.put(description.getName(), packages);
+        indexPackages(description.getName());
+
         return loader.plugin;
     }
 
     public PluginDescriptionFile getPluginDescription(File file) throws InvalidDescriptionException {
         Validate.notNull(file, "File cannot be null");
 
+        PluginIndex index = getIndex(file);
+        Map<?, ?> cached = index.getDescription(file);
+        if (cached != null) {
+            return new PluginDescriptionFile(cached);
+        }
+
         JarFile jar = null;
         InputStream stream = null;
 
@@ -152,7 +193,10 @@ public final class JavaPluginLoader implements PluginLoader {
 
             stream = jar.getInputStream(entry);
 
-            return new PluginDescriptionFile(stream);
+            Map<?, ?> raw = PluginDescriptionFile.loadRaw(stream);
+            PluginDescriptionFile description = new PluginDescriptionFile(raw);
+            index.put(file, raw, getClassNames(jar));
+            return description;
 
         } catch (IOException ex) {
             throw new InvalidDescriptionException(ex);
@@ -174,6 +218,55 @@ public final class JavaPluginLoader implements PluginLoader {
         }
     }
 
+    private PluginIndex getIndex(File file) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        synchronized (indexes) {
+            PluginIndex index = indexes.get(directory);
+            if (index == null) {
+                index = new PluginIndex(directory, server.getLogger());
+                indexes.put(directory, index);
+            }
+            return index;
+        }
+    }
+
+    private static Set<String> readClassNames(File file) {
+        JarFile jar = null;
+        try {
+            jar = new JarFile(file);
+            return getClassNames(jar);
+        } catch (IOException ex) {
+            return null;
+        } finally {
+            if (jar != null) {
+                try {
+                    jar.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the names of all classes in a jar, or null if the jar's class
+     * loader may also load classes from elsewhere
+     */
+    private static Set<String> getClassNames(JarFile jar) throws IOException {
+        Manifest manifest = jar.getManifest();
+        if (manifest != null && manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH) != null) {
+            return null;
+        }
+
+        Set<String> names = new HashSet<String>();
+        for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+            String name = entries.nextElement().getName();
+            if (name.endsWith(".class")) {
+                names.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+            }
+        }
+        return names;
+    }
+
     public Pattern[] getPluginFileFilters() {
         return fileFilters.clone();
     }
@@ -183,21 +276,101 @@ public final class JavaPluginLoader implements PluginLoader {
 
         if (cachedClass != null) {
             return cachedClass;
-        } else {
-            for (String current : loaders.keySet()) {
-                PluginClassLoader loader = loaders.get(current);
+        }
 
-                try {
-                    cachedClass = loader.findClass(name, false);
-                } catch (ClassNotFoundException cnfe) {}
+        int generation;
+        synchronized (missingClasses) {
+            if (missingClasses.containsKey(name)) {
+                return null;
+            }
+            generation = missingClassesGeneration;
+        }
+
+        // Only loaders whose jar has the class's package, or whose contents are unknown, can have it
+        List<String> owners = packageOwners.get(getPackageName(name));
+        if (owners != null) {
+            for (String current : owners) {
+                cachedClass = findClass(current, name);
                 if (cachedClass != null) {
                     return cachedClass;
                 }
             }
         }
+        for (String current : unindexedPlugins) {
+            cachedClass = findClass(current, name);
+            if (cachedClass != null) {
+                return cachedClass;
+            }
+        }
+
+        synchronized (missingClasses) {
+            // A loader added while searching may have the class
+            if (generation == missingClassesGeneration) {
+                missingClasses.put(name, Boolean.TRUE);
+            }
+        }
+        return null;
+    }
+
+    private Class<?> findClass(String plugin, String name) {
+        PluginClassLoader loader = loaders.get(plugin);
+        if (loader != null) {
+            try {
+                return loader.findClass(name, false);
+            } catch (ClassNotFoundException cnfe) {}
+        }
         return null;
     }
 
+    private static String getPackageName(String className) {
+        int index = className.lastIndexOf('.');
+        return index == -1 ? "" : className.substring(0, index);
+    }
+
+    /**
+     * Makes the classes of a plugin's loader available to other plugins,
+     * using the packages of its jar when they are known
+     */
+    private void indexPackages(String plugin) {
+        Set<String> packages = pluginPackages.get(plugin);
+        if (packages == null) {
+            unindexedPlugins.add(plugin);
+        } else {
+            for (String pkg : packages) {
+                List<String> owners = packageOwners.get(pkg);
+                if (owners == null) {
+                    owners = new CopyOnWriteArrayList<String>();
+                    packageOwners.put(pkg, owners);
+                }
+                if (!owners.contains(plugin)) {
+                    owners.add(plugin);
+                }
+            }
+        }
+        clearMissingClasses();
+    }
+
+    private void unindexPackages(String plugin) {
+        unindexedPlugins.remove(plugin);
+        Set<String> packages = pluginPackages.get(plugin);
+        if (packages != null) {
+            for (String pkg : packages) {
+                List<String> owners = packageOwners.get(pkg);
+                if (owners != null && owners.remove(plugin) && owners.isEmpty()) {
+                    packageOwners.remove(pkg);
+                }
+            }
+        }
+        clearMissingClasses();
+    }
+
+    private void clearMissingClasses() {
+        synchronized (missingClasses) {
+            missingClasses.clear();
+            missingClassesGeneration++;
+        }
+    }
+
     void setClass(final String name, final Class<?> clazz) {
         if (!classes.containsKey(name)) {
             classes.put(name, clazz);
@@ -227,7 +400,8 @@ public final class JavaPluginLoader implements PluginLoader {
         Validate.notNull(plugin, "Plugin can not be null");
         Validate.notNull(listener, "Listener can not be null");
 
-        boolean useTimings = server.getPluginManager().useTimings();
+        ClassLoader classLoader = plugin.getClass().getClassLoader();
+        PluginClassLoader pluginLoader = classLoader instanceof PluginClassLoader ? (PluginClassLoader) classLoader : null;
         Map<Class<? extends Event>, Set<RegisteredListener>> ret = new HashMap<Class<? extends Event>, Set<RegisteredListener>>();
         Set<Method> methods;
         try {
@@ -283,25 +457,8 @@ public final class JavaPluginLoader implements PluginLoader {
                 }
             }
 
-            EventExecutor executor = new EventExecutor() {
-                public void execute(Listener listener, Event event) throws EventException {
-                    try {
-                        if (!eventClass.isAssignableFrom(event.getClass())) {
-                            return;
-                        }
-                        method.invoke(listener, event);
-                    } catch (InvocationTargetException ex) {
-                        throw new EventException(ex.getCause());
-                    } catch (Throwable t) {
-                        throw new EventException(t);
-                    }
-                }
-            };
-            if (useTimings) {
-                eventSet.add(new TimedRegisteredListener(listener, executor, eh.priority(), plugin, eh.ignoreCancelled()));
-            } else {
-                eventSet.add(new RegisteredListener(listener, executor, eh.priority(), plugin, eh.ignoreCancelled()));
-            }
+            EventExecutor executor = EventExecutorFactory.create(pluginLoader, method, eventClass);
+            eventSet.add(new RegisteredListener(listener, executor, eh.priority(), plugin, eh.ignoreCancelled(), eh.concurrent()));
         }
         return ret;
     }
@@ -318,6 +475,7 @@ public final class JavaPluginLoader implements PluginLoader {
 
             if (!loaders.containsKey(pluginName)) {
                 loaders.put(pluginName, (PluginClassLoader) jPlugin.getClassLoader());
+                indexPackages(pluginName);
             }
 
             try {
@@ -350,7 +508,11 @@ public final class JavaPluginLoader implements PluginLoader {
                 server.getLogger().log(Level.SEVERE, "Error occurred while disabling " + plugin.getDescription().getFullName() + " (Is it up to date?)", ex);
             }
 
+            // Configurations saved in the background while disabling are written before the server may exit
+            FileConfiguration.flushPendingSaves();
+
             loaders.remove(jPlugin.getDescription().getName());
+            unindexPackages(jPlugin.getDescription().getName());
 
             if (cloader instanceof PluginClassLoader) {
                 PluginClassLoader loader = (PluginClassLoader) cloader;
@@ -91,6 +91,10 @@ final class PluginClassLoader extends URLClassLoader {
         return classes.keySet();
     }
 
+    Class<?> defineGeneratedClass(String name, byte[] bytes) {
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+
     synchronized void initialize(JavaPlugin javaPlugin) {
         Validate.notNull(javaPlugin, "Initializing plugin cannot be null");
         Validate.isTrue(javaPlugin.getClass().getClassLoader() == this, "Cannot initialize plugin outside of this class loader");
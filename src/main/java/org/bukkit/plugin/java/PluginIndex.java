@@ -0,0 +1,430 @@
+package org.bukkit.plugin.java;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * An on-disk index of the plugin jars in a directory, holding the plugin.yml
+ * and the names of the classes of each jar.
+ * <p>
+ * An entry stays valid while its jar keeps the same size and modification
+ * time. If only the modification time changed, the jar is hashed and the
+ * entry is kept when the contents turn out to be unchanged.
+ * <p>
+ * The parsed plugin.yml is kept in a small format of its own, which only
+ * holds strings, numbers, booleans, lists and maps. Reading it back needs
+ * no YAML parsing and cannot create objects of any other class.
+ */
+final class PluginIndex {
+    static final String FILE_NAME = ".plugin-index";
+    private static final int VERSION = 3;
+
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int BOOLEAN = 2;
+    private static final int INTEGER = 3;
+    private static final int LONG = 4;
+    private static final int DOUBLE = 5;
+    private static final int BIG_INTEGER = 6;
+    private static final int LIST = 7;
+    private static final int MAP = 8;
+    private static final int MAX_DEPTH = 64;
+
+    private final File file;
+    private final Logger logger;
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    private boolean dirty = false;
+
+    PluginIndex(File directory, Logger logger) {
+        this.file = new File(directory, FILE_NAME);
+        this.logger = logger;
+        load();
+    }
+
+    /**
+     * Gets the cached plugin.yml contents of a jar
+     *
+     * @param jar the plugin jar
+     * @return a fresh copy of the contents, or null if the jar is not indexed,
+     *     changed since or its contents could not be stored
+     */
+    Map<?, ?> getDescription(File jar) {
+        Entry entry = getValid(jar);
+        if (entry == null || entry.description == null) {
+            return null;
+        }
+        try {
+            return (Map<?, ?>) readValue(new DataInputStream(new ByteArrayInputStream(entry.description)));
+        } catch (IOException ex) {
+        } catch (ClassCastException ex) {
+        }
+        remove(jar, entry);
+        return null;
+    }
+
+    /**
+     * Gets the names of the classes a jar provides
+     *
+     * @param jar the plugin jar
+     * @return the class names, or null if the jar is not indexed, changed
+     *     since or its classes are not known
+     */
+    Set<String> getClasses(File jar) {
+        Entry entry = getValid(jar);
+        return entry == null ? null : entry.classes;
+    }
+
+    /**
+     * Adds or replaces the entry of a jar
+     *
+     * @param jar the plugin jar
+     * @param description the plugin.yml contents as returned by {@link
+     *     org.bukkit.plugin.PluginDescriptionFile#loadRaw(InputStream)}
+     * @param classes the names of the classes in the jar, or null if they
+     *     are not known
+     */
+    void put(File jar, Map<?, ?> description, Set<String> classes) {
+        long length = jar.length();
+        long modified = jar.lastModified();
+        long hash;
+        try {
+            hash = hash(jar);
+        } catch (IOException ex) {
+            synchronized (this) {
+                if (entries.remove(jar.getName()) != null) {
+                    dirty = true;
+                }
+            }
+            return;
+        }
+
+        byte[] encoded;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeValue(out, description, 0);
+            out.close();
+            encoded = bytes.toByteArray();
+        } catch (IOException ex) {
+            // Timestamps, sets and the like are parsed from the jar each time
+            encoded = null;
+        }
+
+        Set<String> classNames = classes == null ? null : Collections.unmodifiableSet(new HashSet<String>(classes));
+        Entry entry = new Entry(length, modified, hash, encoded, classNames);
+        synchronized (this) {
+            entries.put(jar.getName(), entry);
+            dirty = true;
+        }
+    }
+
+    private Entry getValid(File jar) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(jar.getName());
+        }
+        if (entry == null) {
+            return null;
+        }
+
+        long length = jar.length();
+        long modified = jar.lastModified();
+        if (entry.length == length && entry.modified == modified) {
+            return entry;
+        }
+
+        if (entry.length == length) {
+            // Hash without holding the lock, other jars are looked up meanwhile
+            boolean unchanged;
+            try {
+                unchanged = hash(jar) == entry.hash;
+            } catch (IOException ex) {
+                unchanged = false;
+            }
+            if (unchanged) {
+                Entry touched = new Entry(length, modified, entry.hash, entry.description, entry.classes);
+                synchronized (this) {
+                    if (entries.get(jar.getName()) == entry) {
+                        entries.put(jar.getName(), touched);
+                        dirty = true;
+                    }
+                }
+                return touched;
+            }
+        }
+        remove(jar, entry);
+        return null;
+    }
+
+    private synchronized void remove(File jar, Entry entry) {
+        if (entries.get(jar.getName()) == entry) {
+            entries.remove(jar.getName());
+            dirty = true;
+        }
+    }
+
+    private static void writeValue(DataOutput out, Object value, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            // Anchors can make a plugin.yml refer to itself
+            throw new IOException("Too deeply nested");
+        } else if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BIG_INTEGER);
+            writeString(out, value.toString());
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writeValue(out, element, depth + 1);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey(), depth + 1);
+                writeValue(out, entry.getValue(), depth + 1);
+            }
+        } else {
+            throw new IOException("Cannot store " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInput in) throws IOException {
+        int type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case BOOLEAN:
+                return in.readBoolean();
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case BIG_INTEGER:
+                try {
+                    return new BigInteger(readString(in));
+                } catch (NumberFormatException ex) {
+                    throw new IOException("Invalid number");
+                }
+            case LIST: {
+                int size = readSize(in);
+                List<Object> list = new ArrayList<Object>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case MAP: {
+                int size = readSize(in);
+                Map<Object, Object> map = new LinkedHashMap<Object, Object>(size * 2);
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue(in);
+                    map.put(key, readValue(in));
+                }
+                return map;
+            }
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+
+    private static int readSize(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0 || size > 1 << 20) {
+            throw new IOException("Invalid size " + size);
+        }
+        return size;
+    }
+
+    // writeUTF is limited to 64KiB, which long descriptions may exceed
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes("UTF-8");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[readSize(in)];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    private static long hash(File jar) throws IOException {
+        CRC32 crc = new CRC32();
+        InputStream in = new FileInputStream(jar);
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+        return crc.getValue();
+    }
+
+    private void load() {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != VERSION) {
+                return;
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                long length = in.readLong();
+                long modified = in.readLong();
+                long hash = in.readLong();
+                byte[] description = null;
+                int descriptionLength = in.readInt();
+                if (descriptionLength >= 0) {
+                    description = new byte[descriptionLength];
+                    in.readFully(description);
+                }
+                Set<String> classes = null;
+                int classCount = in.readInt();
+                if (classCount >= 0) {
+                    classes = new HashSet<String>();
+                    for (int j = 0; j < classCount; j++) {
+                        classes.add(in.readUTF());
+                    }
+                    classes = Collections.unmodifiableSet(classes);
+                }
+                entries.put(name, new Entry(length, modified, hash, description, classes));
+            }
+        } catch (FileNotFoundException ex) {
+        } catch (IOException ex) {
+            entries.clear();
+            logger.log(Level.WARNING, "Could not read plugin index " + file + ", rebuilding it", ex);
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ex) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the index to disk if it changed, dropping entries of jars which
+     * no longer exist
+     */
+    synchronized void saveIfDirty() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+
+        for (Iterator<String> i = entries.keySet().iterator(); i.hasNext();) {
+            if (!new File(file.getParentFile(), i.next()).isFile()) {
+                i.remove();
+            }
+        }
+
+        File temp = new File(file.getParentFile(), FILE_NAME + ".tmp");
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            try {
+                out.writeInt(VERSION);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+                    Entry entry = mapEntry.getValue();
+                    out.writeUTF(mapEntry.getKey());
+                    out.writeLong(entry.length);
+                    out.writeLong(entry.modified);
+                    out.writeLong(entry.hash);
+                    if (entry.description == null) {
+                        out.writeInt(-1);
+                    } else {
+                        out.writeInt(entry.description.length);
+                        out.write(entry.description);
+                    }
+                    if (entry.classes == null) {
+                        out.writeInt(-1);
+                    } else {
+                        out.writeInt(entry.classes.size());
+                        for (String name : entry.classes) {
+                            out.writeUTF(name);
+                        }
+                    }
+                }
+            } finally {
+                out.close();
+            }
+
+            if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+                throw new IOException("Unable to rename " + temp + " to " + file);
+            }
+        } catch (IOException ex) {
+            temp.delete();
+            logger.log(Level.WARNING, "Could not save plugin index " + file, ex);
+        }
+    }
+
+    private static final class Entry {
+        final long length;
+        final long modified;
+        final long hash;
+        final byte[] description;
+        final Set<String> classes;
+
+        Entry(long length, long modified, long hash, byte[] description, Set<String> classes) {
+            this.length = length;
+            this.modified = modified;
+            this.hash = hash;
+            this.description = description;
+            this.classes = classes;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package org.bukkit.util.noise;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * A region of octave noise, sampled on a coarse lattice and interpolated
+ * between the lattice points.
+ * <p>
+ * Terrain rarely needs noise at full resolution, so this samples a lattice
+ * with one point every few blocks, such as every 4x8x4 blocks of a chunk,
+ * and trilinearly interpolates the values in between. This takes a fraction
+ * of the noise samples of filling every block.
+ * <pre>
+ * NoiseField density = new NoiseField(octaves, 16, 128, 16, 4, 8, 4);
+ * ...
+ * density.sample(chunkX * 16, 0, chunkZ * 16, 2, 0.5, true);
+ * density.fill(values);
+ * </pre>
+ * Values are indexed like {@link NoiseGenerator#fill(double[], double,
+ * double, double, int, int, int, double, double, double) NoiseGenerator
+ * fills}, by <code>(x * sizeY + y) * sizeZ + z</code>. A field holds the
+ * samples of the last region, so it must not be used by several threads at
+ * once; create one per thread instead.
+ */
+public class NoiseField {
+    private final OctaveGenerator generator;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final int cellX;
+    private final int cellY;
+    private final int cellZ;
+    private final int samplesY;
+    private final int samplesZ;
+    private final double[] samples;
+
+    /**
+     * Creates a noise field of the given size
+     *
+     * @param generator Generator to sample the noise from
+     * @param sizeX Number of blocks along the X axis
+     * @param sizeY Number of blocks along the Y axis
+     * @param sizeZ Number of blocks along the Z axis
+     * @param cellX Number of blocks between samples along the X axis, which
+     *     sizeX must be a multiple of
+     * @param cellY Number of blocks between samples along the Y axis, which
+     *     sizeY must be a multiple of
+     * @param cellZ Number of blocks between samples along the Z axis, which
+     *     sizeZ must be a multiple of
+     * @throws IllegalArgumentException Thrown when the generator is null, or
+     *     a size is not a positive multiple of its cell size
+     */
+    public NoiseField(OctaveGenerator generator, int sizeX, int sizeY, int sizeZ, int cellX, int cellY, int cellZ) {
+        Validate.notNull(generator, "Generator cannot be null");
+        Validate.isTrue(cellX > 0 && cellY > 0 && cellZ > 0, "Cell sizes must be positive");
+        Validate.isTrue(sizeX > 0 && sizeX % cellX == 0, "X size must be a positive multiple of " + cellX);
+        Validate.isTrue(sizeY > 0 && sizeY % cellY == 0, "Y size must be a positive multiple of " + cellY);
+        Validate.isTrue(sizeZ > 0 && sizeZ % cellZ == 0, "Z size must be a positive multiple of " + cellZ);
+
+        this.generator = generator;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.cellX = cellX;
+        this.cellY = cellY;
+        this.cellZ = cellZ;
+        this.samplesY = sizeY / cellY + 1;
+        this.samplesZ = sizeZ / cellZ + 1;
+        this.samples = new double[(sizeX / cellX + 1) * samplesY * samplesZ];
+    }
+
+    /**
+     * Samples the lattice of the region starting at the given coordinates,
+     * replacing the previous samples
+     *
+     * @param x X-coordinate of the first block of the region
+     * @param y Y-coordinate of the first block of the region
+     * @param z Z-coordinate of the first block of the region
+     * @param frequency How much to alter the frequency by each octave
+     * @param amplitude How much to alter the amplitude by each octave
+     * @param normalized If true, normalize the values to [-1, 1]
+     */
+    public void sample(double x, double y, double z, double frequency, double amplitude, boolean normalized) {
+        generator.fill(samples, x, y, z, sizeX / cellX + 1, samplesY, samplesZ, cellX, cellY, cellZ, frequency, amplitude, normalized);
+    }
+
+    /**
+     * Gets the interpolated noise of a block in the region
+     *
+     * @param x X-coordinate of the block, relative to the region
+     * @param y Y-coordinate of the block, relative to the region
+     * @param z Z-coordinate of the block, relative to the region
+     * @return Interpolated noise of the block
+     * @throws IndexOutOfBoundsException Thrown when the block is outside the
+     *     region
+     */
+    public double get(int x, int y, int z) {
+        if (x < 0 || x >= sizeX || y < 0 || y >= sizeY || z < 0 || z >= sizeZ) {
+            throw new IndexOutOfBoundsException("Block " + x + "," + y + "," + z + " is outside of the " + sizeX + "x" + sizeY + "x" + sizeZ + " region");
+        }
+
+        int cx = x / cellX;
+        int cy = y / cellY;
+        int cz = z / cellZ;
+        double tx = (double) (x - cx * cellX) / cellX;
+        double ty = (double) (y - cy * cellY) / cellY;
+        double tz = (double) (z - cz * cellZ) / cellZ;
+
+        int i000 = (cx * samplesY + cy) * samplesZ + cz;
+        int i100 = i000 + samplesY * samplesZ;
+        double c00 = NoiseGenerator.lerp(tx, samples[i000], samples[i100]);
+        double c01 = NoiseGenerator.lerp(tx, samples[i000 + 1], samples[i100 + 1]);
+        double c10 = NoiseGenerator.lerp(tx, samples[i000 + samplesZ], samples[i100 + samplesZ]);
+        double c11 = NoiseGenerator.lerp(tx, samples[i000 + samplesZ + 1], samples[i100 + samplesZ + 1]);
+        return NoiseGenerator.lerp(tz, NoiseGenerator.lerp(ty, c00, c10), NoiseGenerator.lerp(ty, c01, c11));
+    }
+
+    /**
+     * Fills the given array with the interpolated noise of every block in the
+     * region
+     * <p>
+     * This gives the same values as {@link #get(int, int, int)}.
+     *
+     * @param out Array to store the noise in, indexed by <code>(x * sizeY +
+     *     y) * sizeZ + z</code>
+     * @throws IllegalArgumentException Thrown when out is null or too small
+     */
+    public void fill(double[] out) {
+        NoiseGenerator.checkSize(out, sizeX, sizeY, sizeZ);
+
+        int plane = samplesY * samplesZ;
+        for (int cx = 0; cx < sizeX / cellX; cx++) {
+            for (int cy = 0; cy < sizeY / cellY; cy++) {
+                for (int cz = 0; cz < sizeZ / cellZ; cz++) {
+                    int i000 = (cx * samplesY + cy) * samplesZ + cz;
+                    int i100 = i000 + plane;
+                    double s000 = samples[i000];
+                    double s001 = samples[i000 + 1];
+                    double s010 = samples[i000 + samplesZ];
+                    double s011 = samples[i000 + samplesZ + 1];
+                    double s100 = samples[i100];
+                    double s101 = samples[i100 + 1];
+                    double s110 = samples[i100 + samplesZ];
+                    double s111 = samples[i100 + samplesZ + 1];
+
+                    for (int lx = 0; lx < cellX; lx++) {
+                        double tx = (double) lx / cellX;
+                        double c00 = NoiseGenerator.lerp(tx, s000, s100);
+                        double c01 = NoiseGenerator.lerp(tx, s001, s101);
+                        double c10 = NoiseGenerator.lerp(tx, s010, s110);
+                        double c11 = NoiseGenerator.lerp(tx, s011, s111);
+
+                        for (int ly = 0; ly < cellY; ly++) {
+                            double ty = (double) ly / cellY;
+                            double c0 = NoiseGenerator.lerp(ty, c00, c10);
+                            double c1 = NoiseGenerator.lerp(ty, c01, c11);
+
+                            int index = ((cx * cellX + lx) * sizeY + cy * cellY + ly) * sizeZ + cz * cellZ;
+                            for (int lz = 0; lz < cellZ; lz++) {
+                                out[index + lz] = NoiseGenerator.lerp((double) lz / cellZ, c0, c1);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of blocks along the X axis
+     *
+     * @return Size of the region
+     */
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    /**
+     * Gets the number of blocks along the Y axis
+     *
+     * @return Size of the region
+     */
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    /**
+     * Gets the number of blocks along the Z axis
+     *
+     * @return Size of the region
+     */
+    public int getSizeZ() {
+        return sizeZ;
+    }
+}
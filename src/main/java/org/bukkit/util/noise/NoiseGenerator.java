@@ -1,7 +1,23 @@
 package org.bukkit.util.noise;
 
+import java.util.Arrays;
+
+import org.apache.commons.lang.Validate;
+
 /**
  * Base class for all noise generators
+ * <p>
+ * Besides sampling single points, generators can {@link #fill(double[],
+ * double, double, double, int, int, int, double, double, double) fill} whole
+ * grids of samples at once, which lets them reuse the lattice cell of
+ * neighbouring samples. Grids are stored with the last axis varying fastest,
+ * so the sample at <code>(ix, iy, iz)</code> is at index <code>(ix * ny + iy)
+ * * nz + iz</code>.
+ * <p>
+ * The permutation table and offsets of a generator are only written by its
+ * constructor, so once it has been safely published a generator can be
+ * sampled from several threads at once, for example to generate chunks in
+ * parallel. Subclasses must not keep any other state between samples.
  */
 public abstract class NoiseGenerator {
     protected final int perm[] = new int[512];
@@ -27,6 +43,14 @@ public abstract class NoiseGenerator {
         return y + x * (z - y);
     }
 
+    protected static float fade(float x) {
+        return x * x * x * (x * (x * 6 - 15) + 10);
+    }
+
+    protected static float lerp(float x, float y, float z) {
+        return y + x * (z - y);
+    }
+
     protected static double grad(int hash, double x, double y, double z) {
         hash &= 15;
         double u = hash < 8 ? x : y;
@@ -173,4 +197,177 @@ public abstract class NoiseGenerator {
 
         return result;
     }
+
+    /**
+     * Computes the 2D noise for a grid of coordinates in 2D space
+     *
+     * @param out Array to store the noise in, indexed by <code>ix * ny +
+     *     iy</code>
+     * @param x0 X coordinate of the first sample
+     * @param y0 Y coordinate of the first sample
+     * @param nx Number of samples along the X axis
+     * @param ny Number of samples along the Y axis
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @throws IllegalArgumentException Thrown when out is null or too small
+     */
+    public void fill(double[] out, double x0, double y0, int nx, int ny, double stepX, double stepY) {
+        Arrays.fill(out, 0, checkSize(out, nx, ny, 1), 0);
+        addNoise(out, x0, y0, nx, ny, stepX, stepY, 1);
+    }
+
+    /**
+     * Computes the 3D noise for a grid of coordinates in 3D space
+     *
+     * @param out Array to store the noise in, indexed by <code>(ix * ny + iy)
+     *     * nz + iz</code>
+     * @param x0 X coordinate of the first sample
+     * @param y0 Y coordinate of the first sample
+     * @param z0 Z coordinate of the first sample
+     * @param nx Number of samples along the X axis
+     * @param ny Number of samples along the Y axis
+     * @param nz Number of samples along the Z axis
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @param stepZ Distance between samples along the Z axis
+     * @throws IllegalArgumentException Thrown when out is null or too small
+     */
+    public void fill(double[] out, double x0, double y0, double z0, int nx, int ny, int nz, double stepX, double stepY, double stepZ) {
+        Arrays.fill(out, 0, checkSize(out, nx, ny, nz), 0);
+        addNoise(out, x0, y0, z0, nx, ny, nz, stepX, stepY, stepZ, 1);
+    }
+
+    /**
+     * Computes the 3D noise for a grid of coordinates in 3D space, in float
+     * precision
+     * <p>
+     * The lattice cell of each sample is still found in double precision, so
+     * this only differs from the double precision fill by about
+     * <code>1e-5</code>, but takes half the memory and less time.
+     *
+     * @param out Array to store the noise in, indexed by <code>(ix * ny + iy)
+     *     * nz + iz</code>
+     * @param x0 X coordinate of the first sample
+     * @param y0 Y coordinate of the first sample
+     * @param z0 Z coordinate of the first sample
+     * @param nx Number of samples along the X axis
+     * @param ny Number of samples along the Y axis
+     * @param nz Number of samples along the Z axis
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @param stepZ Distance between samples along the Z axis
+     * @throws IllegalArgumentException Thrown when out is null or too small
+     */
+    public void fill(float[] out, double x0, double y0, double z0, int nx, int ny, int nz, double stepX, double stepY, double stepZ) {
+        Arrays.fill(out, 0, checkSize(out, nx, ny, nz), 0);
+        addNoise(out, x0, y0, z0, nx, ny, nz, stepX, stepY, stepZ, 1);
+    }
+
+    /**
+     * Adds the 2D noise for a grid of coordinates, multiplied by the given
+     * amplitude, to the values in the array
+     * <p>
+     * The default implementation samples every point on its own; subclasses
+     * should override it when they can share work between samples.
+     *
+     * @param out Array to add the noise to, which is large enough
+     * @param x0 X coordinate of the first sample
+     * @param y0 Y coordinate of the first sample
+     * @param nx Number of samples along the X axis
+     * @param ny Number of samples along the Y axis
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @param amplitude Value to multiply the noise by
+     */
+    protected void addNoise(double[] out, double x0, double y0, int nx, int ny, double stepX, double stepY, double amplitude) {
+        int index = 0;
+        for (int ix = 0; ix < nx; ix++) {
+            double x = x0 + ix * stepX;
+            for (int iy = 0; iy < ny; iy++) {
+                out[index++] += noise(x, y0 + iy * stepY) * amplitude;
+            }
+        }
+    }
+
+    /**
+     * Adds the 3D noise for a grid of coordinates, multiplied by the given
+     * amplitude, to the values in the array
+     * <p>
+     * The default implementation samples every point on its own; subclasses
+     * should override it when they can share work between samples.
+     *
+     * @param out Array to add the noise to, which is large enough
+     * @param x0 X coordinate of the first sample
+     * @param y0 Y coordinate of the first sample
+     * @param z0 Z coordinate of the first sample
+     * @param nx Number of samples along the X axis
+     * @param ny Number of samples along the Y axis
+     * @param nz Number of samples along the Z axis
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @param stepZ Distance between samples along the Z axis
+     * @param amplitude Value to multiply the noise by
+     */
+    protected void addNoise(double[] out, double x0, double y0, double z0, int nx, int ny, int nz, double stepX, double stepY, double stepZ, double amplitude) {
+        int index = 0;
+        for (int ix = 0; ix < nx; ix++) {
+            double x = x0 + ix * stepX;
+            for (int iy = 0; iy < ny; iy++) {
+                double y = y0 + iy * stepY;
+                for (int iz = 0; iz < nz; iz++) {
+                    out[index++] += noise(x, y, z0 + iz * stepZ) * amplitude;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the 3D noise for a grid of coordinates, multiplied by the given
+     * amplitude, to the values in the array, in float precision
+     * <p>
+     * The default implementation samples every point on its own in double
+     * precision; subclasses should override it when they can share work
+     * between samples.
+     *
+     * @param out Array to add the noise to, which is large enough
+     * @param x0 X coordinate of the first sample
+     * @param y0 Y coordinate of the first sample
+     * @param z0 Z coordinate of the first sample
+     * @param nx Number of samples along the X axis
+     * @param ny Number of samples along the Y axis
+     * @param nz Number of samples along the Z axis
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @param stepZ Distance between samples along the Z axis
+     * @param amplitude Value to multiply the noise by
+     */
+    protected void addNoise(float[] out, double x0, double y0, double z0, int nx, int ny, int nz, double stepX, double stepY, double stepZ, float amplitude) {
+        int index = 0;
+        for (int ix = 0; ix < nx; ix++) {
+            double x = x0 + ix * stepX;
+            for (int iy = 0; iy < ny; iy++) {
+                double y = y0 + iy * stepY;
+                for (int iz = 0; iz < nz; iz++) {
+                    out[index++] += (float) noise(x, y, z0 + iz * stepZ) * amplitude;
+                }
+            }
+        }
+    }
+
+    static int checkSize(double[] out, int nx, int ny, int nz) {
+        Validate.notNull(out, "Output array cannot be null");
+        return checkSize(out.length, nx, ny, nz);
+    }
+
+    static int checkSize(float[] out, int nx, int ny, int nz) {
+        Validate.notNull(out, "Output array cannot be null");
+        return checkSize(out.length, nx, ny, nz);
+    }
+
+    private static int checkSize(int length, int nx, int ny, int nz) {
+        Validate.isTrue(nx >= 0 && ny >= 0 && nz >= 0, "Sample counts cannot be negative");
+        long size = (long) nx * ny * nz;
+        Validate.isTrue(length >= size, "Output array is too small for " + nx + "x" + ny + "x" + nz + " samples");
+        return (int) size;
+    }
 }
@@ -1,7 +1,12 @@
 package org.bukkit.util.noise;
 
+import java.util.Arrays;
+
 /**
  * Creates noise using unbiased octaves
+ * <p>
+ * Like its octaves, a generator can be sampled from several threads at once,
+ * provided that its scales are set before it is shared.
  */
 public abstract class OctaveGenerator {
     protected final NoiseGenerator[] octaves;
@@ -196,4 +201,134 @@ public abstract class OctaveGenerator {
 
         return result;
     }
+
+    /**
+     * Generates noise for a grid of 2D coordinates using the specified number
+     * of octaves and parameters
+     * <p>
+     * This gives the same results as calling {@link #noise(double, double,
+     * double, double, boolean)} for every sample, but lets each octave share
+     * work between neighbouring samples.
+     *
+     * @param out Array to store the noise in, indexed by <code>ix * ny +
+     *     iy</code>
+     * @param x0 X-coordinate of the first sample
+     * @param y0 Y-coordinate of the first sample
+     * @param nx Number of samples along the X axis
+     * @param ny Number of samples along the Y axis
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @param frequency How much to alter the frequency by each octave
+     * @param amplitude How much to alter the amplitude by each octave
+     * @param normalized If true, normalize the values to [-1, 1]
+     * @throws IllegalArgumentException Thrown when out is null or too small
+     */
+    public void fill(double[] out, double x0, double y0, int nx, int ny, double stepX, double stepY, double frequency, double amplitude, boolean normalized) {
+        fill(out, x0, y0, 0, nx, ny, 1, stepX, stepY, 0, frequency, amplitude, normalized);
+    }
+
+    /**
+     * Generates noise for a grid of 3D coordinates using the specified number
+     * of octaves and parameters
+     * <p>
+     * This gives the same results as calling {@link #noise(double, double,
+     * double, double, double, boolean)} for every sample, but lets each octave
+     * share work between neighbouring samples.
+     *
+     * @param out Array to store the noise in, indexed by <code>(ix * ny + iy)
+     *     * nz + iz</code>
+     * @param x0 X-coordinate of the first sample
+     * @param y0 Y-coordinate of the first sample
+     * @param z0 Z-coordinate of the first sample
+     * @param nx Number of samples along the X axis
+     * @param ny Number of samples along the Y axis
+     * @param nz Number of samples along the Z axis
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @param stepZ Distance between samples along the Z axis
+     * @param frequency How much to alter the frequency by each octave
+     * @param amplitude How much to alter the amplitude by each octave
+     * @param normalized If true, normalize the values to [-1, 1]
+     * @throws IllegalArgumentException Thrown when out is null or too small
+     */
+    public void fill(double[] out, double x0, double y0, double z0, int nx, int ny, int nz, double stepX, double stepY, double stepZ, double frequency, double amplitude, boolean normalized) {
+        int size = NoiseGenerator.checkSize(out, nx, ny, nz);
+        Arrays.fill(out, 0, size, 0);
+
+        double amp = 1;
+        double freq = 1;
+        double max = 0;
+
+        x0 *= xScale;
+        y0 *= yScale;
+        z0 *= zScale;
+        stepX *= xScale;
+        stepY *= yScale;
+        stepZ *= zScale;
+
+        for (NoiseGenerator octave : octaves) {
+            octave.addNoise(out, x0 * freq, y0 * freq, z0 * freq, nx, ny, nz, stepX * freq, stepY * freq, stepZ * freq, amp);
+            max += amp;
+            freq *= frequency;
+            amp *= amplitude;
+        }
+
+        if (normalized) {
+            for (int i = 0; i < size; i++) {
+                out[i] /= max;
+            }
+        }
+    }
+
+    /**
+     * Generates noise for a grid of 3D coordinates using the specified number
+     * of octaves and parameters, in float precision
+     *
+     * @param out Array to store the noise in, indexed by <code>(ix * ny + iy)
+     *     * nz + iz</code>
+     * @param x0 X-coordinate of the first sample
+     * @param y0 Y-coordinate of the first sample
+     * @param z0 Z-coordinate of the first sample
+     * @param nx Number of samples along the X axis
+     * @param ny Number of samples along the Y axis
+     * @param nz Number of samples along the Z axis
+     * @param stepX Distance between samples along the X axis
+     * @param stepY Distance between samples along the Y axis
+     * @param stepZ Distance between samples along the Z axis
+     * @param frequency How much to alter the frequency by each octave
+     * @param amplitude How much to alter the amplitude by each octave
+     * @param normalized If true, normalize the values to [-1, 1]
+     * @throws IllegalArgumentException Thrown when out is null or too small
+     * @see NoiseGenerator#fill(float[], double, double, double, int, int,
+     *     int, double, double, double)
+     */
+    public void fill(float[] out, double x0, double y0, double z0, int nx, int ny, int nz, double stepX, double stepY, double stepZ, double frequency, double amplitude, boolean normalized) {
+        int size = NoiseGenerator.checkSize(out, nx, ny, nz);
+        Arrays.fill(out, 0, size, 0);
+
+        double amp = 1;
+        double freq = 1;
+        double max = 0;
+
+        x0 *= xScale;
+        y0 *= yScale;
+        z0 *= zScale;
+        stepX *= xScale;
+        stepY *= yScale;
+        stepZ *= zScale;
+
+        for (NoiseGenerator octave : octaves) {
+            octave.addNoise(out, x0 * freq, y0 * freq, z0 * freq, nx, ny, nz, stepX * freq, stepY * freq, stepZ * freq, (float) amp);
+            max += amp;
+            freq *= frequency;
+            amp *= amplitude;
+        }
+
+        if (normalized) {
+            float scale = (float) (1 / max);
+            for (int i = 0; i < size; i++) {
+                out[i] *= scale;
+            }
+        }
+    }
 }
@@ -13,8 +13,22 @@ public class PerlinNoiseGenerator extends NoiseGenerator {
     protected static final int grad3[][] = {{1, 1, 0}, {-1, 1, 0}, {1, -1, 0}, {-1, -1, 0},
         {1, 0, 1}, {-1, 0, 1}, {1, 0, -1}, {-1, 0, -1},
         {0, 1, 1}, {0, -1, 1}, {0, 1, -1}, {0, -1, -1}};
+    // The gradients picked by grad, as a flat table of (x, y, z, unused) for the bulk fills
+    private static final double[] gradients = new double[16 * 4];
+    private static final float[] floatGradients = new float[16 * 4];
     private static final PerlinNoiseGenerator instance = new PerlinNoiseGenerator();
 
+    static {
+        for (int hash = 0; hash < 16; hash++) {
+            gradients[hash * 4] = grad(hash, 1, 0, 0);
+            gradients[hash * 4 + 1] = grad(hash, 0, 1, 0);
+            gradients[hash * 4 + 2] = grad(hash, 0, 0, 1);
+            floatGradients[hash * 4] = (float) gradients[hash * 4];
+            floatGradients[hash * 4 + 1] = (float) gradients[hash * 4 + 1];
+            floatGradients[hash * 4 + 2] = (float) gradients[hash * 4 + 2];
+        }
+    }
+
     protected PerlinNoiseGenerator() {
         int p[] = {151, 160, 137, 91, 90, 15, 131, 13, 201,
             95, 96, 53, 194, 233, 7, 225, 140, 36, 103, 30, 69, 142, 8, 99, 37,
@@ -120,6 +134,9 @@ public class PerlinNoiseGenerator extends NoiseGenerator {
 
     /**
      * Gets the singleton unseeded instance of this generator
+     * <p>
+     * The instance is shared, but cannot be changed, so it can be used from
+     * any thread.
      *
      * @return Singleton
      */
@@ -170,6 +187,138 @@ public class PerlinNoiseGenerator extends NoiseGenerator {
                         grad(perm[BB + 1], x - 1, y - 1, z - 1))));
     }
 
+    @Override
+    protected void addNoise(double[] out, double x0, double y0, int nx, int ny, double stepX, double stepY, double amplitude) {
+        addNoise(out, x0, y0, 0, nx, ny, 1, stepX, stepY, 0, amplitude);
+    }
+
+    @Override
+    protected void addNoise(double[] out, double x0, double y0, double z0, int nx, int ny, int nz, double stepX, double stepY, double stepZ, double amplitude) {
+        int index = 0;
+        for (int ix = 0; ix < nx; ix++) {
+            double x = x0 + ix * stepX + offsetX;
+            int floorX = floor(x);
+            int X = floorX & 255;
+            x -= floorX;
+            double fX = fade(x);
+            int pX0 = perm[X];
+            int pX1 = perm[X + 1];
+
+            for (int iy = 0; iy < ny; iy++) {
+                double y = y0 + iy * stepY + offsetY;
+                int floorY = floor(y);
+                int Y = floorY & 255;
+                y -= floorY;
+                double fY = fade(y);
+                int AA = perm[pX0 + Y];
+                int AB = perm[pX0 + Y + 1];
+                int BA = perm[pX1 + Y];
+                int BB = perm[pX1 + Y + 1];
+
+                // Corner gradients only change when the samples cross into the next cell
+                int lastZ = -1;
+                int gAA = 0, gBA = 0, gAB = 0, gBB = 0, gAA1 = 0, gBA1 = 0, gAB1 = 0, gBB1 = 0;
+                for (int iz = 0; iz < nz; iz++) {
+                    double z = z0 + iz * stepZ + offsetZ;
+                    int floorZ = floor(z);
+                    int Z = floorZ & 255;
+                    z -= floorZ;
+                    double fZ = fade(z);
+
+                    if (Z != lastZ) {
+                        lastZ = Z;
+                        gAA = gradientIndex(perm[AA + Z]);
+                        gBA = gradientIndex(perm[BA + Z]);
+                        gAB = gradientIndex(perm[AB + Z]);
+                        gBB = gradientIndex(perm[BB + Z]);
+                        gAA1 = gradientIndex(perm[AA + Z + 1]);
+                        gBA1 = gradientIndex(perm[BA + Z + 1]);
+                        gAB1 = gradientIndex(perm[AB + Z + 1]);
+                        gBB1 = gradientIndex(perm[BB + Z + 1]);
+                    }
+
+                    out[index++] += lerp(fZ, lerp(fY, lerp(fX, gradient(gAA, x, y, z),
+                                    gradient(gBA, x - 1, y, z)),
+                                lerp(fX, gradient(gAB, x, y - 1, z),
+                                    gradient(gBB, x - 1, y - 1, z))),
+                            lerp(fY, lerp(fX, gradient(gAA1, x, y, z - 1),
+                                    gradient(gBA1, x - 1, y, z - 1)),
+                                lerp(fX, gradient(gAB1, x, y - 1, z - 1),
+                                    gradient(gBB1, x - 1, y - 1, z - 1)))) * amplitude;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void addNoise(float[] out, double x0, double y0, double z0, int nx, int ny, int nz, double stepX, double stepY, double stepZ, float amplitude) {
+        int index = 0;
+        for (int ix = 0; ix < nx; ix++) {
+            double xd = x0 + ix * stepX + offsetX;
+            int floorX = floor(xd);
+            int X = floorX & 255;
+            float x = (float) (xd - floorX);
+            float fX = fade(x);
+            int pX0 = perm[X];
+            int pX1 = perm[X + 1];
+
+            for (int iy = 0; iy < ny; iy++) {
+                double yd = y0 + iy * stepY + offsetY;
+                int floorY = floor(yd);
+                int Y = floorY & 255;
+                float y = (float) (yd - floorY);
+                float fY = fade(y);
+                int AA = perm[pX0 + Y];
+                int AB = perm[pX0 + Y + 1];
+                int BA = perm[pX1 + Y];
+                int BB = perm[pX1 + Y + 1];
+
+                int lastZ = -1;
+                int gAA = 0, gBA = 0, gAB = 0, gBB = 0, gAA1 = 0, gBA1 = 0, gAB1 = 0, gBB1 = 0;
+                for (int iz = 0; iz < nz; iz++) {
+                    double zd = z0 + iz * stepZ + offsetZ;
+                    int floorZ = floor(zd);
+                    int Z = floorZ & 255;
+                    float z = (float) (zd - floorZ);
+                    float fZ = fade(z);
+
+                    if (Z != lastZ) {
+                        lastZ = Z;
+                        gAA = gradientIndex(perm[AA + Z]);
+                        gBA = gradientIndex(perm[BA + Z]);
+                        gAB = gradientIndex(perm[AB + Z]);
+                        gBB = gradientIndex(perm[BB + Z]);
+                        gAA1 = gradientIndex(perm[AA + Z + 1]);
+                        gBA1 = gradientIndex(perm[BA + Z + 1]);
+                        gAB1 = gradientIndex(perm[AB + Z + 1]);
+                        gBB1 = gradientIndex(perm[BB + Z + 1]);
+                    }
+
+                    out[index++] += lerp(fZ, lerp(fY, lerp(fX, gradient(gAA, x, y, z),
+                                    gradient(gBA, x - 1, y, z)),
+                                lerp(fX, gradient(gAB, x, y - 1, z),
+                                    gradient(gBB, x - 1, y - 1, z))),
+                            lerp(fY, lerp(fX, gradient(gAA1, x, y, z - 1),
+                                    gradient(gBA1, x - 1, y, z - 1)),
+                                lerp(fX, gradient(gAB1, x, y - 1, z - 1),
+                                    gradient(gBB1, x - 1, y - 1, z - 1)))) * amplitude;
+                }
+            }
+        }
+    }
+
+    private static int gradientIndex(int hash) {
+        return (hash & 15) << 2;
+    }
+
+    private static double gradient(int index, double x, double y, double z) {
+        return gradients[index] * x + gradients[index + 1] * y + gradients[index + 2] * z;
+    }
+
+    private static float gradient(int index, float x, float y, float z) {
+        return floatGradients[index] * x + floatGradients[index + 1] * y + floatGradients[index + 2] * z;
+    }
+
     /**
      * Generates noise for the 1D coordinates using the specified number of
      * octaves and parameters
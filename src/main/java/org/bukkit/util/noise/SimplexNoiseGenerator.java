@@ -41,9 +41,22 @@ public class SimplexNoiseGenerator extends PerlinNoiseGenerator {
         {0, 0, 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0},
         {2, 0, 1, 3}, {0, 0, 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0}, {3, 0, 1, 2}, {3, 0, 2, 1}, {0, 0, 0, 0}, {3, 1, 2, 0},
         {2, 1, 0, 3}, {0, 0, 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0}, {3, 1, 0, 2}, {0, 0, 0, 0}, {3, 2, 0, 1}, {3, 2, 1, 0}};
-    protected static double offsetW;
+    // grad3 as a flat table of (x, y, z, unused) for the bulk fills
+    private static final double[] gradients = new double[12 * 4];
+    private static final float[] floatGradients = new float[12 * 4];
+    private static final float FLOAT_G3 = (float) G3;
+    protected double offsetW;
     private static final SimplexNoiseGenerator instance = new SimplexNoiseGenerator();
 
+    static {
+        for (int i = 0; i < 12; i++) {
+            for (int j = 0; j < 3; j++) {
+                gradients[i * 4 + j] = grad3[i][j];
+                floatGradients[i * 4 + j] = grad3[i][j];
+            }
+        }
+    }
+
     protected SimplexNoiseGenerator() {
         super();
     }
@@ -353,6 +366,411 @@ public class SimplexNoiseGenerator extends PerlinNoiseGenerator {
         return 70.0 * (n0 + n1 + n2);
     }
 
+    @Override
+    protected void addNoise(double[] out, double x0, double y0, int nx, int ny, double stepX, double stepY, double amplitude) {
+        int index = 0;
+        for (int ix = 0; ix < nx; ix++) {
+            double xin = x0 + ix * stepX + offsetX;
+
+            // Gradient indices of the corners of the current cell, only hashed again once the samples leave it
+            int lastI = 0, lastJ = 0;
+            int g00 = -1, g10 = 0, g01 = 0, g11 = 0;
+            for (int iy = 0; iy < ny; iy++) {
+                double yin = y0 + iy * stepY + offsetY;
+
+                double s = (xin + yin) * F2;
+                int i = floor(xin + s);
+                int j = floor(yin + s);
+                double t = (i + j) * G2;
+                double X0 = i - t;
+                double Y0 = j - t;
+                double x0c = xin - X0;
+                double y0c = yin - Y0;
+
+                if (g00 < 0 || i != lastI || j != lastJ) {
+                    lastI = i;
+                    lastJ = j;
+                    int ii = i & 255;
+                    int jj = j & 255;
+                    g00 = gradientIndex(perm[ii + perm[jj]]);
+                    g10 = gradientIndex(perm[ii + 1 + perm[jj]]);
+                    g01 = gradientIndex(perm[ii + perm[jj + 1]]);
+                    g11 = gradientIndex(perm[ii + 1 + perm[jj + 1]]);
+                }
+
+                int i1, j1, gi1;
+                if (x0c > y0c) {
+                    i1 = 1;
+                    j1 = 0;
+                    gi1 = g10;
+                } else {
+                    i1 = 0;
+                    j1 = 1;
+                    gi1 = g01;
+                }
+
+                double x1 = x0c - i1 + G2;
+                double y1 = y0c - j1 + G2;
+                double x2 = x0c + G22;
+                double y2 = y0c + G22;
+
+                double n0, n1, n2;
+                double t0 = 0.5 - x0c * x0c - y0c * y0c;
+                if (t0 < 0) {
+                    n0 = 0.0;
+                } else {
+                    t0 *= t0;
+                    n0 = t0 * t0 * gradient(g00, x0c, y0c);
+                }
+
+                double t1 = 0.5 - x1 * x1 - y1 * y1;
+                if (t1 < 0) {
+                    n1 = 0.0;
+                } else {
+                    t1 *= t1;
+                    n1 = t1 * t1 * gradient(gi1, x1, y1);
+                }
+
+                double t2 = 0.5 - x2 * x2 - y2 * y2;
+                if (t2 < 0) {
+                    n2 = 0.0;
+                } else {
+                    t2 *= t2;
+                    n2 = t2 * t2 * gradient(g11, x2, y2);
+                }
+
+                out[index++] += 70.0 * (n0 + n1 + n2) * amplitude;
+            }
+        }
+    }
+
+    @Override
+    protected void addNoise(double[] out, double x0, double y0, double z0, int nx, int ny, int nz, double stepX, double stepY, double stepZ, double amplitude) {
+        int index = 0;
+        for (int ix = 0; ix < nx; ix++) {
+            double xin = x0 + ix * stepX + offsetX;
+
+            for (int iy = 0; iy < ny; iy++) {
+                double yin = y0 + iy * stepY + offsetY;
+                double xy = xin + yin;
+
+                // Gradient indices of the corners of the current cube, only hashed again once the samples leave it
+                int lastI = 0, lastJ = 0, lastK = 0;
+                int g000 = -1, g100 = 0, g010 = 0, g001 = 0, g110 = 0, g101 = 0, g011 = 0, g111 = 0;
+                for (int iz = 0; iz < nz; iz++) {
+                    double zin = z0 + iz * stepZ + offsetZ;
+
+                    double s = (xy + zin) * F3;
+                    int i = floor(xin + s);
+                    int j = floor(yin + s);
+                    int k = floor(zin + s);
+                    double t = (i + j + k) * G3;
+                    double X0 = i - t;
+                    double Y0 = j - t;
+                    double Z0 = k - t;
+                    double x0c = xin - X0;
+                    double y0c = yin - Y0;
+                    double z0c = zin - Z0;
+
+                    if (g000 < 0 || i != lastI || j != lastJ || k != lastK) {
+                        lastI = i;
+                        lastJ = j;
+                        lastK = k;
+                        int ii = i & 255;
+                        int jj = j & 255;
+                        int kk = k & 255;
+                        g000 = gradientIndex(perm[ii + perm[jj + perm[kk]]]);
+                        g100 = gradientIndex(perm[ii + 1 + perm[jj + perm[kk]]]);
+                        g010 = gradientIndex(perm[ii + perm[jj + 1 + perm[kk]]]);
+                        g001 = gradientIndex(perm[ii + perm[jj + perm[kk + 1]]]);
+                        g110 = gradientIndex(perm[ii + 1 + perm[jj + 1 + perm[kk]]]);
+                        g101 = gradientIndex(perm[ii + 1 + perm[jj + perm[kk + 1]]]);
+                        g011 = gradientIndex(perm[ii + perm[jj + 1 + perm[kk + 1]]]);
+                        g111 = gradientIndex(perm[ii + 1 + perm[jj + 1 + perm[kk + 1]]]);
+                    }
+
+                    int i1, j1, k1, gi1;
+                    int i2, j2, k2, gi2;
+                    if (x0c >= y0c) {
+                        if (y0c >= z0c) {
+                            i1 = 1;
+                            j1 = 0;
+                            k1 = 0;
+                            gi1 = g100;
+                            i2 = 1;
+                            j2 = 1;
+                            k2 = 0;
+                            gi2 = g110;
+                        } else if (x0c >= z0c) {
+                            i1 = 1;
+                            j1 = 0;
+                            k1 = 0;
+                            gi1 = g100;
+                            i2 = 1;
+                            j2 = 0;
+                            k2 = 1;
+                            gi2 = g101;
+                        } else {
+                            i1 = 0;
+                            j1 = 0;
+                            k1 = 1;
+                            gi1 = g001;
+                            i2 = 1;
+                            j2 = 0;
+                            k2 = 1;
+                            gi2 = g101;
+                        }
+                    } else {
+                        if (y0c < z0c) {
+                            i1 = 0;
+                            j1 = 0;
+                            k1 = 1;
+                            gi1 = g001;
+                            i2 = 0;
+                            j2 = 1;
+                            k2 = 1;
+                            gi2 = g011;
+                        } else if (x0c < z0c) {
+                            i1 = 0;
+                            j1 = 1;
+                            k1 = 0;
+                            gi1 = g010;
+                            i2 = 0;
+                            j2 = 1;
+                            k2 = 1;
+                            gi2 = g011;
+                        } else {
+                            i1 = 0;
+                            j1 = 1;
+                            k1 = 0;
+                            gi1 = g010;
+                            i2 = 1;
+                            j2 = 1;
+                            k2 = 0;
+                            gi2 = g110;
+                        }
+                    }
+
+                    double x1 = x0c - i1 + G3;
+                    double y1 = y0c - j1 + G3;
+                    double z1 = z0c - k1 + G3;
+                    double x2 = x0c - i2 + 2.0 * G3;
+                    double y2 = y0c - j2 + 2.0 * G3;
+                    double z2 = z0c - k2 + 2.0 * G3;
+                    double x3 = x0c - 1.0 + 3.0 * G3;
+                    double y3 = y0c - 1.0 + 3.0 * G3;
+                    double z3 = z0c - 1.0 + 3.0 * G3;
+
+                    double n0, n1, n2, n3;
+                    double t0 = 0.6 - x0c * x0c - y0c * y0c - z0c * z0c;
+                    if (t0 < 0) {
+                        n0 = 0.0;
+                    } else {
+                        t0 *= t0;
+                        n0 = t0 * t0 * gradient(g000, x0c, y0c, z0c);
+                    }
+
+                    double t1 = 0.6 - x1 * x1 - y1 * y1 - z1 * z1;
+                    if (t1 < 0) {
+                        n1 = 0.0;
+                    } else {
+                        t1 *= t1;
+                        n1 = t1 * t1 * gradient(gi1, x1, y1, z1);
+                    }
+
+                    double t2 = 0.6 - x2 * x2 - y2 * y2 - z2 * z2;
+                    if (t2 < 0) {
+                        n2 = 0.0;
+                    } else {
+                        t2 *= t2;
+                        n2 = t2 * t2 * gradient(gi2, x2, y2, z2);
+                    }
+
+                    double t3 = 0.6 - x3 * x3 - y3 * y3 - z3 * z3;
+                    if (t3 < 0) {
+                        n3 = 0.0;
+                    } else {
+                        t3 *= t3;
+                        n3 = t3 * t3 * gradient(g111, x3, y3, z3);
+                    }
+
+                    out[index++] += 32.0 * (n0 + n1 + n2 + n3) * amplitude;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void addNoise(float[] out, double x0, double y0, double z0, int nx, int ny, int nz, double stepX, double stepY, double stepZ, float amplitude) {
+        int index = 0;
+        for (int ix = 0; ix < nx; ix++) {
+            double xin = x0 + ix * stepX + offsetX;
+
+            for (int iy = 0; iy < ny; iy++) {
+                double yin = y0 + iy * stepY + offsetY;
+                double xy = xin + yin;
+
+                int lastI = 0, lastJ = 0, lastK = 0;
+                int g000 = -1, g100 = 0, g010 = 0, g001 = 0, g110 = 0, g101 = 0, g011 = 0, g111 = 0;
+                for (int iz = 0; iz < nz; iz++) {
+                    double zin = z0 + iz * stepZ + offsetZ;
+
+                    double s = (xy + zin) * F3;
+                    int i = floor(xin + s);
+                    int j = floor(yin + s);
+                    int k = floor(zin + s);
+                    double t = (i + j + k) * G3;
+                    double X0 = i - t;
+                    double Y0 = j - t;
+                    double Z0 = k - t;
+                    float x0c = (float) (xin - X0);
+                    float y0c = (float) (yin - Y0);
+                    float z0c = (float) (zin - Z0);
+
+                    if (g000 < 0 || i != lastI || j != lastJ || k != lastK) {
+                        lastI = i;
+                        lastJ = j;
+                        lastK = k;
+                        int ii = i & 255;
+                        int jj = j & 255;
+                        int kk = k & 255;
+                        g000 = gradientIndex(perm[ii + perm[jj + perm[kk]]]);
+                        g100 = gradientIndex(perm[ii + 1 + perm[jj + perm[kk]]]);
+                        g010 = gradientIndex(perm[ii + perm[jj + 1 + perm[kk]]]);
+                        g001 = gradientIndex(perm[ii + perm[jj + perm[kk + 1]]]);
+                        g110 = gradientIndex(perm[ii + 1 + perm[jj + 1 + perm[kk]]]);
+                        g101 = gradientIndex(perm[ii + 1 + perm[jj + perm[kk + 1]]]);
+                        g011 = gradientIndex(perm[ii + perm[jj + 1 + perm[kk + 1]]]);
+                        g111 = gradientIndex(perm[ii + 1 + perm[jj + 1 + perm[kk + 1]]]);
+                    }
+
+                    int i1, j1, k1, gi1;
+                    int i2, j2, k2, gi2;
+                    if (x0c >= y0c) {
+                        if (y0c >= z0c) {
+                            i1 = 1;
+                            j1 = 0;
+                            k1 = 0;
+                            gi1 = g100;
+                            i2 = 1;
+                            j2 = 1;
+                            k2 = 0;
+                            gi2 = g110;
+                        } else if (x0c >= z0c) {
+                            i1 = 1;
+                            j1 = 0;
+                            k1 = 0;
+                            gi1 = g100;
+                            i2 = 1;
+                            j2 = 0;
+                            k2 = 1;
+                            gi2 = g101;
+                        } else {
+                            i1 = 0;
+                            j1 = 0;
+                            k1 = 1;
+                            gi1 = g001;
+                            i2 = 1;
+                            j2 = 0;
+                            k2 = 1;
+                            gi2 = g101;
+                        }
+                    } else {
+                        if (y0c < z0c) {
+                            i1 = 0;
+                            j1 = 0;
+                            k1 = 1;
+                            gi1 = g001;
+                            i2 = 0;
+                            j2 = 1;
+                            k2 = 1;
+                            gi2 = g011;
+                        } else if (x0c < z0c) {
+                            i1 = 0;
+                            j1 = 1;
+                            k1 = 0;
+                            gi1 = g010;
+                            i2 = 0;
+                            j2 = 1;
+                            k2 = 1;
+                            gi2 = g011;
+                        } else {
+                            i1 = 0;
+                            j1 = 1;
+                            k1 = 0;
+                            gi1 = g010;
+                            i2 = 1;
+                            j2 = 1;
+                            k2 = 0;
+                            gi2 = g110;
+                        }
+                    }
+
+                    float x1 = x0c - i1 + FLOAT_G3;
+                    float y1 = y0c - j1 + FLOAT_G3;
+                    float z1 = z0c - k1 + FLOAT_G3;
+                    float x2 = x0c - i2 + FLOAT_G3 * 2;
+                    float y2 = y0c - j2 + FLOAT_G3 * 2;
+                    float z2 = z0c - k2 + FLOAT_G3 * 2;
+                    float x3 = x0c - 1 + FLOAT_G3 * 3;
+                    float y3 = y0c - 1 + FLOAT_G3 * 3;
+                    float z3 = z0c - 1 + FLOAT_G3 * 3;
+
+                    float n0, n1, n2, n3;
+                    float t0 = 0.6f - x0c * x0c - y0c * y0c - z0c * z0c;
+                    if (t0 < 0) {
+                        n0 = 0;
+                    } else {
+                        t0 *= t0;
+                        n0 = t0 * t0 * gradient(g000, x0c, y0c, z0c);
+                    }
+
+                    float t1 = 0.6f - x1 * x1 - y1 * y1 - z1 * z1;
+                    if (t1 < 0) {
+                        n1 = 0;
+                    } else {
+                        t1 *= t1;
+                        n1 = t1 * t1 * gradient(gi1, x1, y1, z1);
+                    }
+
+                    float t2 = 0.6f - x2 * x2 - y2 * y2 - z2 * z2;
+                    if (t2 < 0) {
+                        n2 = 0;
+                    } else {
+                        t2 *= t2;
+                        n2 = t2 * t2 * gradient(gi2, x2, y2, z2);
+                    }
+
+                    float t3 = 0.6f - x3 * x3 - y3 * y3 - z3 * z3;
+                    if (t3 < 0) {
+                        n3 = 0;
+                    } else {
+                        t3 *= t3;
+                        n3 = t3 * t3 * gradient(g111, x3, y3, z3);
+                    }
+
+                    out[index++] += 32 * (n0 + n1 + n2 + n3) * amplitude;
+                }
+            }
+        }
+    }
+
+    private static int gradientIndex(int hash) {
+        return (hash % 12) << 2;
+    }
+
+    private static double gradient(int index, double x, double y) {
+        return gradients[index] * x + gradients[index + 1] * y;
+    }
+
+    private static double gradient(int index, double x, double y, double z) {
+        return gradients[index] * x + gradients[index + 1] * y + gradients[index + 2] * z;
+    }
+
+    private static float gradient(int index, float x, float y, float z) {
+        return floatGradients[index] * x + floatGradients[index + 1] * y + floatGradients[index + 2] * z;
+    }
+
     /**
      * Computes and returns the 4D simplex noise for the given coordinates in
      * 4D space
@@ -511,6 +929,9 @@ public class SimplexNoiseGenerator extends PerlinNoiseGenerator {
 
     /**
      * Gets the singleton unseeded instance of this generator
+     * <p>
+     * The instance is shared, but cannot be changed, so it can be used from
+     * any thread.
      *
      * @return Singleton
      */
@@ -0,0 +1,40 @@
+package org.bukkit;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * An in-memory world which only knows its name, seed and height
+ */
+public class TestWorld implements InvocationHandler {
+    private final String name;
+    private final long seed;
+    private final int maxHeight;
+
+    private TestWorld(String name, long seed, int maxHeight) {
+        this.name = name;
+        this.seed = seed;
+        this.maxHeight = maxHeight;
+    }
+
+    public static World create(String name, long seed, int maxHeight) {
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[] {World.class}, new TestWorld(name, seed, maxHeight));
+    }
+
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String methodName = method.getName();
+        if (methodName.equals("getName") || methodName.equals("toString")) {
+            return name;
+        } else if (methodName.equals("getSeed")) {
+            return seed;
+        } else if (methodName.equals("getMaxHeight")) {
+            return maxHeight;
+        } else if (methodName.equals("hashCode")) {
+            return System.identityHashCode(proxy);
+        } else if (methodName.equals("equals")) {
+            return proxy == args[0];
+        }
+        throw new UnsupportedOperationException(String.valueOf(method));
+    }
+}
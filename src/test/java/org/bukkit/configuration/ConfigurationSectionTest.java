@@ -6,6 +6,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.util.Vector;
 import org.junit.Test;
@@ -46,6 +47,30 @@ public abstract class ConfigurationSectionTest {
         assertArrayEquals(new String[] { "subkey", "subkey2", "subsubsection", "subsubsection.key" }, section.getConfigurationSection("subsection").getKeys(true).toArray());
     }
 
+    @Test
+    public void testGetKeysWithDefaultsLookup() {
+        ConfigurationSection section = getConfigurationSection();
+        section.getRoot().options().copyDefaults(true);
+
+        section.set("key", true);
+        section.addDefault("subsection.subkey", true);
+
+        Set<String> deepKeys = section.getKeys(true);
+        assertTrue(deepKeys.contains("key"));
+        assertTrue(deepKeys.contains("subsection.subkey"));
+        assertFalse(deepKeys.contains("doesntExist"));
+        assertFalse(section.getKeys(false).contains("subsection.subkey"));
+
+        Map<String, Object> deepValues = section.getValues(true);
+        assertEquals(true, deepValues.get("subsection.subkey"));
+        assertTrue(deepValues.containsKey("key"));
+        assertNull(section.getValues(false).get("subsection.subkey"));
+
+        deepKeys.remove("key");
+        assertArrayEquals(new String[] { "subsection", "subsection.subkey" }, deepKeys.toArray());
+        assertTrue(section.contains("key"));
+    }
+
     @Test
     public void testGetValues() {
         ConfigurationSection section = getConfigurationSection();
@@ -175,6 +200,58 @@ public abstract class ConfigurationSectionTest {
         assertFalse(section.isSet("exists"));
     }
 
+    @Test
+    public void testGet_ConfigPath() {
+        ConfigurationSection section = getConfigurationSection();
+        ConfigPath path = ConfigPath.of("sub.exists");
+
+        assertNull(section.get(path));
+        assertEquals("Default Value", section.get(path, "Default Value"));
+
+        section.set("sub.exists", "hello world");
+        assertEquals("hello world", section.get(path));
+        assertEquals("hello world", section.getString(path));
+        assertTrue(section.contains(path));
+
+        section.getConfigurationSection("sub").set("exists", "changed");
+        assertEquals("changed", section.get(path));
+
+        section.set("sub", null);
+        assertFalse(section.contains(path));
+    }
+
+    @Test
+    public void testSet_ConfigPath() {
+        ConfigurationSection section = getConfigurationSection();
+
+        section.set(ConfigPath.of("sub.int"), 42);
+        assertEquals(42, section.getInt("sub.int"));
+        assertEquals(42, section.getInt(ConfigPath.of("sub.int")));
+        assertEquals(42L, section.getLong(ConfigPath.of("sub.int")));
+        assertEquals(42.0, section.getDouble(ConfigPath.of("sub.int")), 0);
+
+        section.set(ConfigPath.of("sub/bool", '/'), true);
+        assertTrue(section.getBoolean(ConfigPath.of("sub.bool")));
+
+        section.set(ConfigPath.of("sub.int"), null);
+        assertFalse(section.contains("sub.int"));
+    }
+
+    @Test
+    public void testGet_ConfigPathWithDefaults() {
+        ConfigurationSection section = getConfigurationSection();
+        ConfigPath path = ConfigPath.of("sub.default");
+
+        section.addDefault("sub.default", 5);
+        assertEquals(5, section.get(path));
+        assertEquals(5, section.getInt(path));
+        assertNull(section.get(path, null));
+
+        section.set("sub.default", "not an int");
+        assertEquals(5, section.getInt(path));
+        assertEquals("not an int", section.getString(path));
+    }
+
     @Test
     public void testCreateSection() {
         ConfigurationSection section = getConfigurationSection();
@@ -4,6 +4,11 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
 import org.bukkit.configuration.MemoryConfigurationTest;
 import org.junit.Rule;
 import org.junit.Test;
@@ -206,4 +211,52 @@ public abstract class FileConfigurationTest extends MemoryConfigurationTest {
 
         assertEquals("", config.saveToString());
     }
+
+    @Test
+    public void testSaveAsync() throws Exception {
+        FileConfiguration config = getConfig();
+        File file = new File(testFolder.getRoot(), "async/test.config");
+
+        for (Map.Entry<String, Object> entry : getTestValues().entrySet()) {
+            config.set(entry.getKey(), entry.getValue());
+        }
+
+        String expected = config.saveToString();
+        Future<Void> future = config.saveAsync(file, 0, TimeUnit.MILLISECONDS);
+        config.set("changed", true);
+        future.get();
+
+        assertEquals(expected, Files.toString(file, Charsets.UTF_8));
+        assertArrayEquals(new String[] { "test.config" }, file.getParentFile().list());
+    }
+
+    @Test
+    public void testSaveAsyncCoalesced() throws Exception {
+        FileConfiguration config = getConfig();
+        File file = testFolder.newFile("test.config");
+
+        config.set("value", 1);
+        Future<Void> first = config.saveAsync(file, 200, TimeUnit.MILLISECONDS);
+        config.set("value", 2);
+        Future<Void> second = config.saveAsync(file, 200, TimeUnit.MILLISECONDS);
+
+        assertSame(first, second);
+        second.get();
+        assertEquals(config.saveToString(), Files.toString(file, Charsets.UTF_8));
+    }
+
+    @Test
+    public void testFlushPendingSaves() throws Exception {
+        FileConfiguration config = getConfig();
+        File file = new File(testFolder.getRoot(), "c");
+
+        config.set("value", 1);
+        Future<Void> future = config.saveAsync(file, 1, TimeUnit.HOURS);
+        FileConfiguration.flushPendingSaves();
+
+        assertTrue(future.isDone());
+        future.get();
+        assertEquals(config.saveToString(), Files.toString(file, Charsets.UTF_8));
+        assertArrayEquals(new String[] { "c" }, file.getParentFile().list());
+    }
 }
@@ -0,0 +1,103 @@
+package org.bukkit.configuration.file;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Loads and saves large synthetic configurations, streamed and through a
+ * string of the whole file as before.
+ * <p>
+ * Run with <code>java -cp &lt;test classpath&gt; org.openjdk.jmh.Main
+ * YamlConfigurationBenchmark -prof gc</code> to also compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class YamlConfigurationBenchmark {
+    @Param({"1000", "20000"})
+    public int sections;
+
+    private YamlConfiguration config;
+    private File input;
+    private File output;
+
+    @Setup
+    public void setup() throws IOException {
+        config = new YamlConfiguration();
+        for (int i = 0; i < sections; i++) {
+            ConfigurationSection section = config.createSection("claims.claim" + i);
+            section.set("owner", "player" + (i % 500));
+            section.set("world", "world");
+            section.set("min", Arrays.asList(i * 16, 0, i * 16));
+            section.set("max", Arrays.asList(i * 16 + 15, 255, i * 16 + 15));
+            section.set("trusted", Arrays.asList("player" + ((i + 1) % 500), "player" + ((i + 2) % 500)));
+            section.set("flags.pvp", i % 2 == 0);
+            section.set("flags.explosions", false);
+        }
+
+        input = File.createTempFile("benchmark", ".yml");
+        output = File.createTempFile("benchmark", ".yml");
+        config.save(input);
+    }
+
+    @TearDown
+    public void tearDown() {
+        input.delete();
+        output.delete();
+    }
+
+    @Benchmark
+    public YamlConfiguration loadStreaming() throws IOException, InvalidConfigurationException {
+        YamlConfiguration loaded = new YamlConfiguration();
+        loaded.load(input);
+        return loaded;
+    }
+
+    @Benchmark
+    public YamlConfiguration loadFromString() throws IOException, InvalidConfigurationException {
+        YamlConfiguration loaded = new YamlConfiguration();
+        loaded.loadFromString(Files.toString(input, Charsets.UTF_8));
+        return loaded;
+    }
+
+    @Benchmark
+    public void saveStreaming() throws IOException {
+        config.save(output);
+    }
+
+    @Benchmark
+    public void saveToString() throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(output), Charsets.UTF_8);
+        try {
+            writer.write(config.saveToString());
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package org.bukkit.configuration.file;
 
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Collections;
+
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -53,4 +58,79 @@ public class YamlConfigurationTest extends FileConfigurationTest {
 
         assertEquals(expected, result);
     }
+
+    @Test
+    public void testLoadAnchorsAndMerges() throws Exception {
+        YamlConfiguration config = getConfig();
+        config.load(new StringReader("base: &base\n  x: 1\n  list: &list [1, 2]\nderived:\n  <<: *base\n  y: 2\n  other: *list\n"));
+
+        assertEquals(1, config.getInt("base.x"));
+        assertEquals(1, config.getInt("derived.x"));
+        assertEquals(2, config.getInt("derived.y"));
+        assertEquals(config.getList("base.list"), config.getList("derived.other"));
+        assertTrue(config.isConfigurationSection("derived"));
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void testLoadRecursive() throws Exception {
+        getConfig().load(new StringReader("a: &a\n  b: *a\n"));
+    }
+
+    @Test(expected = InvalidConfigurationException.class)
+    public void testLoadTopLevelNotMap() throws Exception {
+        getConfig().load(new StringReader("- 1\n- 2\n"));
+    }
+
+    @Test
+    public void testFailedLoadChangesNothing() throws Exception {
+        YamlConfiguration config = getConfig();
+        config.set("existing", "kept");
+
+        try {
+            config.load(new StringReader("# header\nfirst: 1\nsection:\n  inner: 2\nbad: !!java.io.File [x]\n"));
+            fail("Unknown tag was constructed");
+        } catch (InvalidConfigurationException ex) {
+        }
+
+        assertEquals(Collections.singleton("existing"), config.getKeys(true));
+        assertNull(config.options().header());
+    }
+
+    @Test
+    public void testFailedLoadLeavesEmptyConfiguration() throws Exception {
+        YamlConfiguration config = getConfig();
+
+        try {
+            config.load(new StringReader("first: 1\nsection:\n  inner: 2\nbad: !!java.io.File [x]\n"));
+            fail("Unknown tag was constructed");
+        } catch (InvalidConfigurationException ex) {
+        }
+
+        assertTrue(config.getKeys(true).isEmpty());
+    }
+
+    @Test
+    public void testLoadHeaderWithCarriageReturns() throws Exception {
+        YamlConfiguration config = getConfig();
+        config.load(new StringReader("# first\r\n# second\r\n\r\nkey: value\r\n"));
+
+        assertEquals("first\nsecond\n", config.options().header());
+        assertEquals("value", config.getString("key"));
+    }
+
+    @Test
+    public void testSave_Writer() throws Exception {
+        YamlConfiguration config = getConfig();
+        config.options().header(getTestHeaderInput());
+        config.loadFromString(getTestValuesString());
+
+        StringWriter writer = new StringWriter();
+        config.save(writer);
+
+        assertEquals(config.saveToString(), writer.toString());
+
+        writer = new StringWriter();
+        getConfig().save(writer);
+        assertEquals("", writer.toString());
+    }
 }
@@ -0,0 +1,80 @@
+package org.bukkit.configuration.serialization;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deserializes item stacks, once per object and as part of a configuration
+ * of 100k items. <code>deserializeUncached</code> looks up the
+ * deserialization methods for every object, as every deserialization did
+ * before they were cached.
+ * <p>
+ * Run with <code>java -cp &lt;test classpath&gt; org.openjdk.jmh.Main
+ * ConfigurationSerializationBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigurationSerializationBenchmark {
+    private static final int ITEMS = 100000;
+
+    private Map<String, Object> args;
+    private String items;
+
+    @Setup
+    public void setup() {
+        // Serializing item stacks needs an item factory, so the serialized form is written out here
+        String alias = ConfigurationSerialization.getAlias(ItemStack.class);
+        args = new HashMap<String, Object>();
+        args.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, alias);
+        args.put("type", Material.STONE.name());
+        args.put("damage", 2);
+        args.put("amount", 5);
+
+        StringBuilder builder = new StringBuilder("items:\n");
+        for (int i = 0; i < ITEMS; i++) {
+            builder.append("  item").append(i).append(":\n");
+            builder.append("    ==: ").append(alias).append('\n');
+            builder.append("    type: ").append(Material.STONE.name()).append('\n');
+            builder.append("    amount: ").append(i % 64 + 1).append('\n');
+        }
+        items = builder.toString();
+    }
+
+    @Benchmark
+    public ConfigurationSerializable deserializeCached() {
+        return ConfigurationSerialization.deserializeObject(args);
+    }
+
+    @Benchmark
+    public ConfigurationSerializable deserializeUncached() {
+        return new ConfigurationSerialization(ItemStack.class).deserialize(args);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public YamlConfiguration loadItems() throws InvalidConfigurationException {
+        YamlConfiguration config = new YamlConfiguration();
+        config.loadFromString(items);
+        return config;
+    }
+}
@@ -0,0 +1,88 @@
+package org.bukkit.configuration.serialization;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bukkit.util.Vector;
+import org.junit.After;
+import org.junit.Test;
+
+public class ConfigurationSerializationTest {
+    @After
+    public void tearDown() {
+        ConfigurationSerialization.unregisterClass(Named.class);
+    }
+
+    @Test
+    public void testDeserializeByAlias() {
+        Map<String, Object> args = new Vector(1, 2, 3).serialize();
+        args.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, "Vector");
+
+        assertEquals(new Vector(1, 2, 3), ConfigurationSerialization.deserializeObject(args));
+    }
+
+    @Test
+    public void testRegisterAndUnregister() {
+        Map<String, Object> args = new HashMap<String, Object>();
+        args.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, "Named");
+        args.put("name", "test");
+
+        ConfigurationSerialization.registerClass(Named.class);
+        assertSame(Named.class, ConfigurationSerialization.getClassByAlias("Named"));
+        assertSame(Named.class, ConfigurationSerialization.getClassByAlias(Named.class.getName()));
+        assertEquals("test", ((Named) ConfigurationSerialization.deserializeObject(args)).name);
+
+        ConfigurationSerialization.unregisterClass("Named");
+        assertNull(ConfigurationSerialization.getClassByAlias("Named"));
+        assertEquals("test", ((Named) ConfigurationSerialization.deserializeObject(args, Named.class)).name);
+
+        ConfigurationSerialization.unregisterClass(Named.class);
+        assertNull(ConfigurationSerialization.getClassByAlias(Named.class.getName()));
+        try {
+            ConfigurationSerialization.deserializeObject(args);
+            fail("Unregistered alias was deserialized");
+        } catch (IllegalArgumentException ex) {
+        }
+    }
+
+    @Test
+    public void testNullAlias() {
+        ConfigurationSerialization.registerClass(Named.class, null);
+        assertNull(ConfigurationSerialization.getClassByAlias(null));
+        ConfigurationSerialization.unregisterClass((String) null);
+    }
+
+    @Test
+    public void testDeserializeFallsBackToConstructor() {
+        Map<String, Object> args = new HashMap<String, Object>();
+        args.put("name", null);
+
+        assertEquals("unnamed", ((Named) ConfigurationSerialization.deserializeObject(args, Named.class)).name);
+    }
+
+    @SerializableAs("Named")
+    public static class Named implements ConfigurationSerializable {
+        final String name;
+
+        public Named(Map<String, Object> args) {
+            this.name = "unnamed";
+        }
+
+        private Named(String name) {
+            this.name = name;
+        }
+
+        public static Named deserialize(Map<String, Object> args) {
+            String name = (String) args.get("name");
+            return name == null ? null : new Named(name);
+        }
+
+        public Map<String, Object> serialize() {
+            Map<String, Object> result = new HashMap<String, Object>();
+            result.put("name", name);
+            return result;
+        }
+    }
+}
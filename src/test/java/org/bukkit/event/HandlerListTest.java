@@ -0,0 +1,127 @@
+package org.bukkit.event;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.plugin.TestPlugin;
+import org.junit.After;
+import org.junit.Test;
+
+public class HandlerListTest {
+    private static final EventExecutor executor = new EventExecutor() {
+        public void execute(Listener listener, Event event) {}
+    };
+
+    private final HandlerList handlerList = new HandlerList();
+    private final TestPlugin pluginA = new TestPlugin("A");
+    private final TestPlugin pluginB = new TestPlugin("B");
+    private final Listener listenerA = new Listener() {};
+    private final Listener listenerB = new Listener() {};
+
+    @After
+    public void tearDown() {
+        HandlerList.unregisterAll();
+    }
+
+    private RegisteredListener register(Listener listener, TestPlugin plugin, EventPriority priority) {
+        RegisteredListener registration = new RegisteredListener(listener, executor, priority, plugin, false);
+        handlerList.register(registration);
+        return registration;
+    }
+
+    private RegisteredListener[] rebaked() {
+        handlerList.invalidate(pluginA);
+        handlerList.invalidate(pluginB);
+        return handlerList.getRegisteredListeners();
+    }
+
+    @Test
+    public void testIncrementalRegisterMatchesBake() {
+        register(listenerA, pluginA, EventPriority.NORMAL);
+        register(listenerA, pluginA, EventPriority.MONITOR);
+        handlerList.bake();
+
+        register(listenerB, pluginB, EventPriority.LOWEST);
+        register(listenerB, pluginB, EventPriority.NORMAL);
+        register(listenerB, pluginB, EventPriority.HIGHEST);
+        register(listenerA, pluginA, EventPriority.MONITOR);
+        RegisteredListener[] patched = handlerList.getRegisteredListeners();
+
+        assertThat(patched.length, is(6));
+        assertThat(Arrays.asList(patched), is(Arrays.asList(rebaked())));
+        for (int i = 1; i < patched.length; i++) {
+            assertThat(patched[i - 1].getPriority().getSlot(), is(lessThanOrEqualTo(patched[i].getPriority().getSlot())));
+        }
+    }
+
+    @Test
+    public void testIncrementalUnregister() {
+        RegisteredListener first = register(listenerA, pluginA, EventPriority.LOW);
+        register(listenerB, pluginB, EventPriority.LOW);
+        register(listenerA, pluginA, EventPriority.HIGH);
+        RegisteredListener[] baked = handlerList.getRegisteredListeners();
+
+        handlerList.unregister(first);
+        RegisteredListener[] patched = handlerList.getRegisteredListeners();
+        assertThat(patched, is(not(sameInstance(baked))));
+        assertThat(patched.length, is(2));
+        assertThat(Arrays.asList(patched), is(Arrays.asList(rebaked())));
+
+        HandlerList.unregisterAll(pluginB);
+        assertThat(handlerList.getRegisteredListeners().length, is(1));
+        assertThat(HandlerList.getRegisteredListeners(pluginB), is(empty()));
+
+        HandlerList.unregisterAll(listenerA);
+        assertFalse(handlerList.hasListeners());
+        assertThat(HandlerList.getRegisteredListeners(pluginA), is(empty()));
+    }
+
+    @Test
+    public void testDisabledPluginNotInserted() {
+        handlerList.bake();
+        pluginB.setEnabled(false);
+        register(listenerB, pluginB, EventPriority.NORMAL);
+        assertFalse(handlerList.hasListeners());
+
+        pluginB.setEnabled(true);
+        HandlerList.invalidateAll(pluginB);
+        assertTrue(handlerList.hasListeners());
+    }
+
+    @Test
+    public void testPluginIndex() {
+        HandlerList other = new HandlerList();
+        register(listenerA, pluginA, EventPriority.NORMAL);
+        other.register(new RegisteredListener(listenerA, executor, EventPriority.NORMAL, pluginA, false));
+        other.register(new RegisteredListener(listenerB, executor, EventPriority.NORMAL, pluginB, false));
+
+        assertThat(HandlerList.getRegisteredListeners(pluginA).size(), is(2));
+        HandlerList.unregisterAll(pluginA);
+        assertThat(HandlerList.getRegisteredListeners(pluginA), is(empty()));
+        assertFalse(handlerList.hasListeners());
+        assertThat(other.getRegisteredListeners().length, is(1));
+    }
+
+    @Test
+    public void testIndexCountsRegistrations() {
+        RegisteredListener normal = register(listenerA, pluginA, EventPriority.NORMAL);
+        RegisteredListener monitor = register(listenerA, pluginA, EventPriority.MONITOR);
+
+        handlerList.unregister(normal);
+        assertThat(HandlerList.getRegisteredListeners(pluginA), contains(monitor));
+
+        handlerList.unregister(monitor);
+        assertThat(HandlerList.getRegisteredListeners(pluginA), is(empty()));
+
+        register(listenerA, pluginA, EventPriority.NORMAL);
+        HandlerList.unregisterAll();
+        assertThat(HandlerList.getRegisteredListeners(pluginA), is(empty()));
+
+        RegisteredListener again = register(listenerA, pluginA, EventPriority.LOW);
+        assertThat(HandlerList.getRegisteredListeners(pluginA), contains(again));
+    }
+}
@@ -0,0 +1,73 @@
+package org.bukkit.generator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bukkit.TestWorld;
+import org.bukkit.World;
+import org.bukkit.generator.ChunkGenerator.BiomeGrid;
+import org.bukkit.generator.ChunkPregenerator.ChunkConsumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Pregenerates an NxN region of an in-memory world on one thread and on all
+ * cores.
+ * <p>
+ * Run with <code>java -cp &lt;test classpath&gt; org.openjdk.jmh.Main
+ * ChunkPregeneratorBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkPregeneratorBenchmark {
+    @Param({"16", "32"})
+    public int size;
+
+    private ChunkPregenerator serial;
+    private ChunkPregenerator parallel;
+    private final AtomicLong blocks = new AtomicLong();
+    private final ChunkConsumer consumer = new ChunkConsumer() {
+        public void accept(int x, int z, short[][] sections, BiomeGrid biomes) {
+            int count = 0;
+            for (short[] section : sections) {
+                if (section != null) {
+                    count += section.length;
+                }
+            }
+            blocks.addAndGet(count);
+        }
+    };
+
+    @Setup
+    public void setup() {
+        World world = TestWorld.create("world", 42, 256);
+        ChunkGenerator generator = new TestChunkGenerator(42, true);
+        serial = new ChunkPregenerator(world, generator, 1);
+        parallel = new ChunkPregenerator(world, generator);
+    }
+
+    @Benchmark
+    public long serial() {
+        serial.generate(0, 0, size - 1, size - 1, consumer);
+        return blocks.get();
+    }
+
+    @Benchmark
+    public long parallel() {
+        parallel.generate(0, 0, size - 1, size - 1, consumer);
+        return blocks.get();
+    }
+}
@@ -0,0 +1,169 @@
+package org.bukkit.generator;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bukkit.TestWorld;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.generator.ChunkGenerator.BiomeGrid;
+import org.bukkit.generator.ChunkPregenerator.ChunkConsumer;
+import org.junit.Test;
+
+public class ChunkPregeneratorTest {
+    private final World world = TestWorld.create("world", 42, 256);
+
+    @Test
+    public void testParallelMatchesSerial() {
+        ChunkGenerator generator = new TestChunkGenerator(42, true);
+        Map<Long, short[][]> serial = generate(new ChunkPregenerator(world, generator, 1));
+        Map<Long, short[][]> parallel = generate(new ChunkPregenerator(world, generator, 4));
+
+        assertEquals(100, serial.size());
+        assertEquals(serial.keySet(), parallel.keySet());
+        for (Long key : serial.keySet()) {
+            assertTrue("Chunk " + key + " differs", Arrays.deepEquals(serial.get(key), parallel.get(key)));
+        }
+    }
+
+    @Test
+    public void testNotParallelCapable() {
+        final Thread thread = Thread.currentThread();
+        ChunkPregenerator pregenerator = new ChunkPregenerator(world, new TestChunkGenerator(42, false), 4);
+        assertEquals(1, pregenerator.getThreads());
+
+        pregenerator.generate(0, 0, 3, 3, new ChunkConsumer() {
+            public void accept(int x, int z, short[][] sections, BiomeGrid biomes) {
+                assertSame(thread, Thread.currentThread());
+            }
+        });
+    }
+
+    @Test
+    public void testLegacyGenerator() {
+        ChunkGenerator generator = new ChunkGenerator() {
+            @Override
+            public byte[] generate(World world, Random random, int x, int z) {
+                byte[] result = new byte[32768];
+                result[(3 * 16 + 5) * 128 + 20] = 1;
+                result[(15 * 16 + 15) * 128 + 127] = (byte) 200;
+                return result;
+            }
+        };
+        ChunkGenerationContext context = new ChunkGenerationContext(world);
+        context.reset(0, 0);
+        short[][] sections = generator.generateExtBlockSections(context, 0, 0);
+
+        assertEquals(16, sections.length);
+        assertEquals(1, context.getBlock(3, 20, 5));
+        assertEquals(200, context.getBlock(15, 127, 15));
+        assertNull(sections[0]);
+        assertNull(sections[8]);
+
+        context.reset(1, 0);
+        assertNull(sections[1]);
+        assertEquals(0, context.getBlock(3, 20, 5));
+        assertEquals(Biome.PLAINS, context.getBiomes().getBiome(0, 0));
+    }
+
+    @Test
+    public void testRandomSeededPerChunk() {
+        ChunkGenerationContext context = new ChunkGenerationContext(world);
+        context.reset(5, -7);
+        long first = context.getRandom().nextLong();
+        context.reset(6, -7);
+        context.getRandom().nextLong();
+        context.reset(5, -7);
+        assertEquals(first, context.getRandom().nextLong());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegionTooLarge() {
+        // 65536 * 65536 chunks wrap around to 0 in an int
+        new ChunkPregenerator(world, new TestChunkGenerator(42, true), 4).generate(0, 0, 65535, 65535, new ChunkConsumer() {
+            public void accept(int x, int z, short[][] sections, BiomeGrid biomes) {}
+        });
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testConsumerFailure() {
+        new ChunkPregenerator(world, new TestChunkGenerator(42, true), 4).generate(0, 0, 7, 7, new ChunkConsumer() {
+            public void accept(int x, int z, short[][] sections, BiomeGrid biomes) {
+                if (x == 3 && z == 5) {
+                    throw new IllegalStateException();
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testFailureStopsOtherThreads() throws InterruptedException {
+        final AtomicReference<Thread> blocked = new AtomicReference<Thread>();
+        final CountDownLatch failed = new CountDownLatch(1);
+        final AtomicInteger accepted = new AtomicInteger();
+        final AtomicBoolean returned = new AtomicBoolean();
+        final AtomicBoolean acceptedLate = new AtomicBoolean();
+
+        try {
+            new ChunkPregenerator(world, new TestChunkGenerator(42, true), 2).generate(0, 0, 63, 63, new ChunkConsumer() {
+                public void accept(int x, int z, short[][] sections, BiomeGrid biomes) {
+                    if (returned.get()) {
+                        acceptedLate.set(true);
+                    }
+                    accepted.incrementAndGet();
+
+                    // The first thread waits inside its chunk until the other one failed
+                    if (blocked.compareAndSet(null, Thread.currentThread())) {
+                        try {
+                            failed.await(5, TimeUnit.SECONDS);
+                            Thread.sleep(50);
+                        } catch (InterruptedException ex) {
+                            throw new IllegalStateException(ex);
+                        }
+                        if (returned.get()) {
+                            acceptedLate.set(true);
+                        }
+                    } else if (blocked.get() != Thread.currentThread()) {
+                        failed.countDown();
+                        throw new IllegalArgumentException();
+                    }
+                }
+            });
+            fail("Failure was not thrown");
+        } catch (IllegalArgumentException ex) {
+            returned.set(true);
+        }
+
+        Thread.sleep(50);
+        assertFalse(acceptedLate.get());
+        assertEquals(2, accepted.get());
+    }
+
+    private Map<Long, short[][]> generate(ChunkPregenerator pregenerator) {
+        final Map<Long, short[][]> chunks = new ConcurrentHashMap<Long, short[][]>();
+        pregenerator.generate(-5, -5, 4, 4, new ChunkConsumer() {
+            public void accept(int x, int z, short[][] sections, BiomeGrid biomes) {
+                // The context reuses the sections for the next chunk
+                short[][] copy = new short[sections.length + 1][];
+                for (int i = 0; i < sections.length; i++) {
+                    copy[i] = sections[i] == null ? null : sections[i].clone();
+                }
+                copy[sections.length] = new short[256];
+                for (int i = 0; i < 256; i++) {
+                    copy[sections.length][i] = (short) biomes.getBiome(i & 15, i >> 4).ordinal();
+                }
+                chunks.put(((long) x << 32) | (z & 0xFFFFFFFFL), copy);
+            }
+        });
+        return chunks;
+    }
+}
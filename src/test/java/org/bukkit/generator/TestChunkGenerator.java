@@ -0,0 +1,68 @@
+package org.bukkit.generator;
+
+import org.bukkit.Material;
+import org.bukkit.block.Biome;
+import org.bukkit.util.noise.NoiseField;
+import org.bukkit.util.noise.OctaveGenerator;
+import org.bukkit.util.noise.SimplexOctaveGenerator;
+
+/**
+ * Shapes terrain from interpolated 3D noise, keeping its buffers per thread
+ */
+public class TestChunkGenerator extends ChunkGenerator {
+    private static final short STONE = (short) Material.STONE.getId();
+    private static final short WATER = (short) Material.STATIONARY_WATER.getId();
+    private static final short BEDROCK = (short) Material.BEDROCK.getId();
+
+    private final OctaveGenerator octaves;
+    private final boolean parallel;
+    private final ThreadLocal<NoiseField> fields = new ThreadLocal<NoiseField>() {
+        @Override
+        protected NoiseField initialValue() {
+            return new NoiseField(octaves, 16, 128, 16, 4, 8, 4);
+        }
+    };
+    private final ThreadLocal<double[]> densities = new ThreadLocal<double[]>() {
+        @Override
+        protected double[] initialValue() {
+            return new double[16 * 128 * 16];
+        }
+    };
+
+    public TestChunkGenerator(long seed, boolean parallel) {
+        this.octaves = new SimplexOctaveGenerator(seed, 8);
+        this.octaves.setScale(1 / 64.0);
+        this.parallel = parallel;
+    }
+
+    @Override
+    public boolean isParallelCapable() {
+        return parallel;
+    }
+
+    @Override
+    public short[][] generateExtBlockSections(ChunkGenerationContext context, int x, int z) {
+        NoiseField field = fields.get();
+        double[] density = densities.get();
+        field.sample(x * 16, 0, z * 16, 2, 0.5, true);
+        field.fill(density);
+
+        for (int bx = 0; bx < 16; bx++) {
+            for (int bz = 0; bz < 16; bz++) {
+                int bedrock = context.getRandom().nextInt(4);
+                for (int by = 0; by < 128; by++) {
+                    double value = density[(bx * 128 + by) * 16 + bz] + (64 - by) / 32.0;
+                    if (by <= bedrock) {
+                        context.setBlock(bx, by, bz, BEDROCK);
+                    } else if (value > 0) {
+                        context.setBlock(bx, by, bz, STONE);
+                    } else if (by < 62) {
+                        context.setBlock(bx, by, bz, WATER);
+                    }
+                }
+                context.getBiomes().setBiome(bx, bz, context.getBlock(bx, 62, bz) == WATER ? Biome.OCEAN : Biome.PLAINS);
+            }
+        }
+        return context.getSections();
+    }
+}
@@ -3,7 +3,12 @@ package org.bukkit.metadata;
 import org.bukkit.plugin.TestPlugin;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -113,6 +118,154 @@ public class LazyMetadataValueTest {
         assertEquals(1, counter.value());
     }
 
+    @Test
+    public void testCacheStrategyRefreshAsynchronously() {
+        final Counter counter = new Counter();
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        subject = new LazyMetadataValue(plugin, new Executor() {
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        }, 1, TimeUnit.HOURS, new Callable<Object>() {
+            public Object call() throws Exception {
+                counter.increment();
+                return counter.value();
+            }
+        });
+
+        assertEquals(1, subject.value());
+        assertEquals(1, subject.value());
+        assertTrue(tasks.isEmpty());
+
+        subject.invalidate();
+        assertEquals(1, subject.value());
+        assertEquals(1, subject.value());
+        assertEquals(1, tasks.size());
+        assertEquals(1, counter.value());
+
+        tasks.remove(0).run();
+        assertEquals(2, subject.value());
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void testInvalidateDuringRefresh() {
+        final Counter counter = new Counter();
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        subject = new LazyMetadataValue(plugin, new Executor() {
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        }, 1, TimeUnit.HOURS, new Callable<Object>() {
+            public Object call() throws Exception {
+                counter.increment();
+                return counter.value();
+            }
+        });
+
+        assertEquals(1, subject.value());
+        subject.invalidate();
+        assertEquals(1, subject.value());
+        assertEquals(1, tasks.size());
+
+        // The running refresh may have read stale state, so another one follows
+        subject.invalidate();
+        tasks.remove(0).run();
+        assertEquals(2, subject.value());
+        assertEquals(1, tasks.size());
+
+        tasks.remove(0).run();
+        assertEquals(3, subject.value());
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void testFailedRefreshBacksOff() {
+        final Counter counter = new Counter();
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        subject = new LazyMetadataValue(plugin, new Executor() {
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        }, 1, TimeUnit.HOURS, new Callable<Object>() {
+            public Object call() throws Exception {
+                counter.increment();
+                if (counter.value() > 1) {
+                    throw new Exception("Expected");
+                }
+                return counter.value();
+            }
+        });
+
+        assertEquals(1, subject.value());
+        subject.invalidate();
+        assertEquals(1, subject.value());
+        tasks.remove(0).run();
+        assertEquals(2, counter.value());
+
+        assertEquals(1, subject.value());
+        assertEquals(1, subject.value());
+        assertTrue(tasks.isEmpty());
+
+        // Invalidating still retries at once
+        subject.invalidate();
+        assertEquals(1, subject.value());
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void testConcurrentEvaluationShared() throws Exception {
+        final Counter counter = new Counter();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        subject = new LazyMetadataValue(plugin, new Executor() {
+            public void execute(Runnable command) {
+                command.run();
+            }
+        }, 1, TimeUnit.HOURS, new Callable<Object>() {
+            public Object call() throws Exception {
+                counter.increment();
+                started.countDown();
+                release.await();
+                return "value";
+            }
+        });
+
+        final Object[] results = new Object[2];
+        Thread[] threads = new Thread[2];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    results[index] = subject.value();
+                }
+            };
+        }
+
+        threads[0].start();
+        started.await();
+        threads[1].start();
+        Thread.sleep(50);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals("value", results[0]);
+        assertEquals("value", results[1]);
+        assertEquals(1, counter.value());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testRefreshAsynchronouslyRequiresExecutor() {
+        new LazyMetadataValue(plugin, LazyMetadataValue.CacheStrategy.REFRESH_ASYNCHRONOUSLY, new Callable<Object>() {
+            public Object call() throws Exception {
+                return null;
+            }
+        });
+    }
+
     private LazyMetadataValue makeSimpleCallable(final Object value) {
         return new LazyMetadataValue(plugin, new Callable<Object>() {
             public Object call() throws Exception {
@@ -0,0 +1,181 @@
+package org.bukkit.metadata;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.TestPlugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the {@link MetadataStoreTest} operations from several threads at
+ * once, against the striped store and a copy of the former single-lock,
+ * string keyed store.
+ * <p>
+ * Run with <code>java -cp &lt;test classpath&gt; org.openjdk.jmh.Main
+ * MetadataStoreBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class MetadataStoreBenchmark {
+    private static final int SUBJECTS = 1024;
+
+    @Param({"striped", "legacy"})
+    public String store;
+
+    private MetadataStore<String> metadata;
+    private final Plugin plugin = new TestPlugin("Benchmark");
+    private final String[] subjects = new String[SUBJECTS];
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup
+        public void setup(MetadataStoreBenchmark benchmark) {
+            next = benchmark.threads.getAndIncrement() * 97;
+        }
+
+        String subject(MetadataStoreBenchmark benchmark) {
+            return benchmark.subjects[next++ & (SUBJECTS - 1)];
+        }
+    }
+
+    @Setup
+    public void setup() {
+        metadata = store.equals("striped") ? new StripedStore() : new LegacyStore();
+        for (int i = 0; i < SUBJECTS; i++) {
+            subjects[i] = "subject" + i;
+            metadata.setMetadata(subjects[i], "key", new FixedMetadataValue(plugin, i));
+        }
+    }
+
+    @Benchmark
+    public boolean hasMetadata(Cursor cursor) {
+        return metadata.hasMetadata(cursor.subject(this), "key");
+    }
+
+    @Benchmark
+    public boolean hasMetadataMissing(Cursor cursor) {
+        return metadata.hasMetadata(cursor.subject(this), "otherKey");
+    }
+
+    @Benchmark
+    public List<MetadataValue> getMetadata(Cursor cursor) {
+        return metadata.getMetadata(cursor.subject(this), "key");
+    }
+
+    @Benchmark
+    public void setAndRemove(Cursor cursor) {
+        String subject = cursor.subject(this);
+        metadata.setMetadata(subject, "tag", new FixedMetadataValue(plugin, true));
+        metadata.removeMetadata(subject, "tag", plugin);
+    }
+
+    private static class StripedStore extends MetadataStoreBase<String> implements MetadataStore<String> {
+        @Override
+        protected String disambiguate(String subject, String metadataKey) {
+            return subject + ":" + metadataKey;
+        }
+
+        @Override
+        protected Object getSubjectKey(String subject) {
+            return subject;
+        }
+    }
+
+    /**
+     * The store as it was before metadata was striped by subject
+     */
+    private static class LegacyStore implements MetadataStore<String> {
+        private final Map<String, Map<Plugin, MetadataValue>> metadataMap = new HashMap<String, Map<Plugin, MetadataValue>>();
+
+        public synchronized void setMetadata(String subject, String metadataKey, MetadataValue newMetadataValue) {
+            String key = subject + ":" + metadataKey;
+            Map<Plugin, MetadataValue> entry = metadataMap.get(key);
+            if (entry == null) {
+                entry = new WeakHashMap<Plugin, MetadataValue>(1);
+                metadataMap.put(key, entry);
+            }
+            entry.put(newMetadataValue.getOwningPlugin(), newMetadataValue);
+        }
+
+        public synchronized List<MetadataValue> getMetadata(String subject, String metadataKey) {
+            String key = subject + ":" + metadataKey;
+            if (metadataMap.containsKey(key)) {
+                Collection<MetadataValue> values = metadataMap.get(key).values();
+                return Collections.unmodifiableList(new ArrayList<MetadataValue>(values));
+            } else {
+                return Collections.emptyList();
+            }
+        }
+
+        public synchronized boolean hasMetadata(String subject, String metadataKey) {
+            return metadataMap.containsKey(subject + ":" + metadataKey);
+        }
+
+        public synchronized void removeMetadata(String subject, String metadataKey, Plugin owningPlugin) {
+            String key = subject + ":" + metadataKey;
+            Map<Plugin, MetadataValue> entry = metadataMap.get(key);
+            if (entry == null) {
+                return;
+            }
+
+            entry.remove(owningPlugin);
+            if (entry.isEmpty()) {
+                metadataMap.remove(key);
+            }
+        }
+
+        public synchronized void invalidateAll(Plugin owningPlugin) {
+            for (Map<Plugin, MetadataValue> values : metadataMap.values()) {
+                if (values.containsKey(owningPlugin)) {
+                    values.get(owningPlugin).invalidate();
+                }
+            }
+        }
+
+        public synchronized void removeAll(Plugin owningPlugin) {
+            for (Iterator<Map<Plugin, MetadataValue>> i = metadataMap.values().iterator(); i.hasNext();) {
+                Map<Plugin, MetadataValue> values = i.next();
+                values.remove(owningPlugin);
+                if (values.isEmpty()) {
+                    i.remove();
+                }
+            }
+        }
+
+        public synchronized void removeAll(String subject) {
+            for (Iterator<String> i = metadataMap.keySet().iterator(); i.hasNext();) {
+                if (i.next().startsWith(subject + ":")) {
+                    i.remove();
+                }
+            }
+        }
+    }
+}
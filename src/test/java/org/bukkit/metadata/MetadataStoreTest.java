@@ -4,9 +4,19 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.TestPlugin;
 import org.junit.Test;
@@ -122,6 +132,156 @@ public class MetadataStoreTest {
         assertFalse(subject.hasMetadata("subject", "otherKey"));
     }
 
+    @Test
+    public void testSubjectKey() {
+        MetadataStoreBase<StringBuilder> store = new MetadataStoreBase<StringBuilder>() {
+            @Override
+            protected String disambiguate(StringBuilder subject, String metadataKey) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected Object getSubjectKey(StringBuilder subject) {
+                return subject.toString();
+            }
+        };
+
+        store.setMetadata(new StringBuilder("subject"), "key", new FixedMetadataValue(pluginX, 10));
+        assertTrue(store.hasMetadata(new StringBuilder("subject"), "key"));
+        assertFalse(store.hasMetadata(new StringBuilder("other"), "key"));
+        assertEquals(10, store.getMetadata(new StringBuilder("subject"), "key").get(0).value());
+
+        store.removeMetadata(new StringBuilder("subject"), "key", pluginX);
+        assertFalse(store.hasMetadata(new StringBuilder("subject"), "key"));
+    }
+
+    private static <T> T stub(Class<T> type, final Object... values) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                for (int i = 0; i < values.length; i += 2) {
+                    if (method.getName().equals(values[i])) {
+                        return values[i + 1];
+                    }
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        }));
+    }
+
+    @Test
+    public void testDefaultSubjectKeys() {
+        MetadataStoreBase<Object> store = new MetadataStoreBase<Object>() {
+            @Override
+            protected String disambiguate(Object subject, String metadataKey) {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        World world = stub(World.class, "getUID", UUID.randomUUID());
+        store.setMetadata(stub(Block.class, "getWorld", world, "getX", 1, "getY", 2, "getZ", 3), "key", new FixedMetadataValue(pluginX, 10));
+        assertTrue(store.hasMetadata(stub(Block.class, "getWorld", world, "getX", 1, "getY", 2, "getZ", 3), "key"));
+        assertFalse(store.hasMetadata(stub(Block.class, "getWorld", world, "getX", 1, "getY", 3, "getZ", 2), "key"));
+
+        UUID id = UUID.randomUUID();
+        store.setMetadata(stub(Player.class, "getUniqueId", id), "key", new FixedMetadataValue(pluginX, 20));
+        assertEquals(20, store.getMetadata(stub(OfflinePlayer.class, "getUniqueId", id), "key").get(0).value());
+        assertFalse(store.hasMetadata(stub(OfflinePlayer.class, "getUniqueId", UUID.randomUUID()), "key"));
+    }
+
+    @Test
+    public void testRemoveAllPlugin() {
+        subject.setMetadata("subject", "key", new FixedMetadataValue(pluginX, 10));
+        subject.setMetadata("subject", "key", new FixedMetadataValue(pluginY, 10));
+        subject.setMetadata("other", "key", new FixedMetadataValue(pluginX, 10));
+        assertEquals(Integer.valueOf(2), subject.getValueCounts().get(pluginX));
+
+        subject.removeAll(pluginX);
+        assertEquals(1, subject.getMetadata("subject", "key").size());
+        assertFalse(subject.hasMetadata("other", "key"));
+        assertEquals(1, subject.getSubjectCount());
+        assertEquals(null, subject.getValueCounts().get(pluginX));
+    }
+
+    @Test
+    public void testRemoveAllSubject() {
+        subject.setMetadata("subject", "key", new FixedMetadataValue(pluginX, 10));
+        subject.setMetadata("subject", "otherKey", new FixedMetadataValue(pluginY, 10));
+        subject.setMetadata("other", "key", new FixedMetadataValue(pluginX, 10));
+
+        subject.removeAll("subject");
+        assertFalse(subject.hasMetadata("subject", "key"));
+        assertFalse(subject.hasMetadata("subject", "otherKey"));
+        assertTrue(subject.hasMetadata("other", "key"));
+    }
+
+    @Test
+    public void testMaximumSubjects() {
+        subject.setMaximumSubjects(8);
+        for (int i = 0; i < 8; i++) {
+            subject.setMetadata("subject" + i, "key", new FixedMetadataValue(pluginX, i));
+        }
+        assertEquals(8, subject.getSubjectCount());
+
+        subject.setMetadata("subject8", "key", new FixedMetadataValue(pluginX, 8));
+        assertEquals(7, subject.getSubjectCount());
+    }
+
+    @Test
+    public void testRecentlyAccessedKept() throws InterruptedException {
+        subject.setMaximumSubjects(8);
+        for (int i = 0; i < 8; i++) {
+            subject.setMetadata("subject" + i, "key", new FixedMetadataValue(pluginX, i));
+        }
+        Thread.sleep(5);
+        assertTrue(subject.hasMetadata("subject0", "key"));
+
+        subject.setMetadata("subject8", "key", new FixedMetadataValue(pluginX, 8));
+        assertEquals(7, subject.getSubjectCount());
+        assertTrue(subject.hasMetadata("subject0", "key"));
+        assertTrue(subject.hasMetadata("subject8", "key"));
+    }
+
+    @Test
+    public void testEvictWhileAccessed() throws InterruptedException {
+        final int subjects = 256;
+        subject.setMaximumSubjects(subjects);
+        for (int i = 0; i < subjects; i++) {
+            subject.setMetadata("subject" + i, "key", new FixedMetadataValue(pluginX, i));
+        }
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; running.get(); i = (i + 7) % (subjects * 2)) {
+                    subject.hasMetadata("subject" + i, "key");
+                }
+            }
+        };
+        reader.start();
+        try {
+            // Sorting live access times could fail with "Comparison method violates its general contract!"
+            for (int i = subjects; i < subjects * 8; i++) {
+                subject.setMetadata("subject" + (i % (subjects * 2)), "key", new FixedMetadataValue(pluginX, i));
+            }
+        } finally {
+            running.set(false);
+            reader.join();
+        }
+        assertTrue(subject.getSubjectCount() <= subjects);
+    }
+
+    @Test
+    public void testMaximumAge() throws InterruptedException {
+        subject.setMetadata("subject", "key", new FixedMetadataValue(pluginX, 10));
+        assertEquals(0, subject.evict());
+
+        subject.setMaximumAge(1, TimeUnit.MILLISECONDS);
+        Thread.sleep(10);
+        assertEquals(1, subject.evict());
+        assertFalse(subject.hasMetadata("subject", "key"));
+    }
+
     private class StringMetadataStore extends MetadataStoreBase<String> implements MetadataStore<String> {
         @Override
         protected String disambiguate(String subject, String metadataKey) {
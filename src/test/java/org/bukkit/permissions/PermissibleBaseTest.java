@@ -0,0 +1,196 @@
+package org.bukkit.permissions;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.TestServer;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.TestPlugin;
+import org.junit.After;
+import org.junit.Test;
+
+public class PermissibleBaseTest {
+    private static final PluginManager pm = TestServer.getInstance().getPluginManager();
+
+    private final TestPlugin plugin = new TestPlugin("PermissionTest");
+    private boolean op = false;
+    private final PermissibleBase permissible = new PermissibleBase(new ServerOperator() {
+        public boolean isOp() {
+            return op;
+        }
+
+        public void setOp(boolean value) {
+            op = value;
+        }
+    });
+
+    @After
+    public void tearDown() {
+        pm.clearPlugins();
+    }
+
+    @Test
+    public void testAttachmentChanges() {
+        plugin.setEnabled(true);
+        PermissionAttachment attachment = permissible.addAttachment(plugin, "Test.Node", true);
+
+        assertTrue(permissible.isPermissionSet("test.node"));
+        assertTrue(permissible.hasPermission("TEST.NODE"));
+        assertTrue(permissible.hasPermission(new Permission("test.Node")));
+
+        attachment.setPermission("test.node", false);
+        assertFalse(permissible.hasPermission("Test.Node"));
+
+        attachment.remove();
+        assertFalse(permissible.isPermissionSet("test.node"));
+    }
+
+    @Test
+    public void testChildren() {
+        Map<String, Boolean> children = new HashMap<String, Boolean>();
+        children.put("test.child", true);
+        children.put("test.denied", false);
+        pm.addPermission(new Permission("test.parent", PermissionDefault.FALSE, children));
+
+        plugin.setEnabled(true);
+        permissible.addAttachment(plugin, "test.parent", true);
+
+        assertTrue(permissible.hasPermission("test.child"));
+        assertTrue(permissible.isPermissionSet("test.denied"));
+        assertFalse(permissible.hasPermission("test.denied"));
+    }
+
+    @Test
+    public void testNestedChildrenInverted() {
+        Map<String, Boolean> grandChildren = new HashMap<String, Boolean>();
+        grandChildren.put("test.grandchild", true);
+        pm.addPermission(new Permission("test.child", PermissionDefault.FALSE, grandChildren));
+        Map<String, Boolean> children = new HashMap<String, Boolean>();
+        children.put("test.child", false);
+        pm.addPermission(new Permission("test.parent", PermissionDefault.FALSE, children));
+
+        plugin.setEnabled(true);
+        PermissionAttachment attachment = permissible.addAttachment(plugin, "test.parent", true);
+        assertFalse(permissible.hasPermission("test.child"));
+        assertFalse(permissible.hasPermission("test.grandchild"));
+
+        attachment.setPermission("test.parent", false);
+        assertTrue(permissible.hasPermission("test.child"));
+        assertTrue(permissible.hasPermission("test.grandchild"));
+    }
+
+    @Test
+    public void testChangedChildrenRecalculated() {
+        Permission child = new Permission("test.child", PermissionDefault.FALSE);
+        pm.addPermission(child);
+        Map<String, Boolean> children = new HashMap<String, Boolean>();
+        children.put("test.child", true);
+        pm.addPermission(new Permission("test.parent", PermissionDefault.FALSE, children));
+
+        plugin.setEnabled(true);
+        permissible.addAttachment(plugin, "test.parent", true);
+        assertFalse(permissible.isPermissionSet("test.added"));
+
+        new Permission("test.added", PermissionDefault.FALSE).addParent(child, true);
+        assertTrue(permissible.hasPermission("test.added"));
+
+        pm.removePermission(child);
+        permissible.recalculatePermissions();
+        assertFalse(permissible.isPermissionSet("test.added"));
+        assertTrue(permissible.hasPermission("test.child"));
+    }
+
+    @Test
+    public void testCycle() {
+        Map<String, Boolean> children = new HashMap<String, Boolean>();
+        children.put("test.second", true);
+        pm.addPermission(new Permission("test.first", PermissionDefault.FALSE, children));
+        children.clear();
+        children.put("test.first", true);
+        pm.addPermission(new Permission("test.second", PermissionDefault.FALSE, children));
+
+        plugin.setEnabled(true);
+        permissible.addAttachment(plugin, "test.first", true);
+        assertTrue(permissible.hasPermission("test.first"));
+        assertTrue(permissible.hasPermission("test.second"));
+    }
+
+    @Test
+    public void testCycleWarnedOnce() {
+        Map<String, Boolean> children = new HashMap<String, Boolean>();
+        children.put("test.second", true);
+        pm.addPermission(new Permission("test.first", PermissionDefault.FALSE, children));
+        children.clear();
+        children.put("test.first", true);
+        pm.addPermission(new Permission("test.second", PermissionDefault.FALSE, children));
+
+        final List<LogRecord> records = new ArrayList<LogRecord>();
+        Handler handler = new Handler() {
+            public void publish(LogRecord record) {
+                records.add(record);
+            }
+
+            public void flush() {}
+
+            public void close() {}
+        };
+        Logger logger = Bukkit.getServer().getLogger();
+        logger.addHandler(handler);
+        try {
+            plugin.setEnabled(true);
+            permissible.addAttachment(plugin, "test.first", true);
+            permissible.recalculatePermissions();
+            permissible.recalculatePermissions();
+        } finally {
+            logger.removeHandler(handler);
+        }
+        assertEquals(1, records.size());
+        assertTrue(permissible.hasPermission("test.second"));
+    }
+
+    @Test
+    public void testChildrenChangedInPlace() {
+        Map<String, Boolean> grandChildren = new HashMap<String, Boolean>();
+        grandChildren.put("test.grandchild", true);
+        Permission child = new Permission("test.child", PermissionDefault.FALSE, grandChildren);
+        pm.addPermission(child);
+        Map<String, Boolean> children = new HashMap<String, Boolean>();
+        children.put("test.child", true);
+        pm.addPermission(new Permission("test.parent", PermissionDefault.FALSE, children));
+
+        plugin.setEnabled(true);
+        permissible.addAttachment(plugin, "test.parent", true);
+        assertTrue(permissible.hasPermission("test.grandchild"));
+
+        // Edited without recalculatePermissibles(), so only this permissible sees it
+        child.getChildren().put("test.grandchild", false);
+        child.getChildren().put("test.added", true);
+        permissible.recalculatePermissions();
+        assertTrue(permissible.isPermissionSet("test.grandchild"));
+        assertFalse(permissible.hasPermission("test.grandchild"));
+        assertTrue(permissible.hasPermission("test.added"));
+    }
+
+    @Test
+    public void testDefaultsFollowRegistry() {
+        assertFalse(permissible.hasPermission("test.registered"));
+        op = true;
+        assertTrue(permissible.hasPermission("test.registered"));
+
+        pm.addPermission(new Permission("test.registered", PermissionDefault.NOT_OP));
+        assertFalse(permissible.hasPermission("test.registered"));
+        op = false;
+        assertTrue(permissible.hasPermission("test.registered"));
+
+        pm.removePermission("test.registered");
+        assertFalse(permissible.hasPermission("test.registered"));
+    }
+}
@@ -0,0 +1,119 @@
+package org.bukkit.plugin;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.TestEvent;
+import org.junit.Test;
+
+public class ListenerTimingsTest {
+
+    @Test
+    public void testBuckets() {
+        assertThat(ListenerTimings.bucket(0), is(0));
+        assertThat(ListenerTimings.bucket(1), is(1));
+        assertThat(ListenerTimings.bucket(1023), is(10));
+        assertThat(ListenerTimings.bucket(1024), is(11));
+        assertThat(ListenerTimings.bucket(Long.MAX_VALUE), is(ListenerTimings.BUCKETS - 1));
+        assertThat(ListenerTimings.bucketUpperBound(10), is(1023L));
+    }
+
+    @Test
+    public void testSnapshot() {
+        ListenerTimings timings = new ListenerTimings();
+        for (int i = 0; i < 99; i++) {
+            timings.record(1000);
+        }
+        timings.record(1000000);
+
+        TimingsSnapshot snapshot = timings.getSnapshot();
+        assertThat(snapshot.getCount(), is(100L));
+        assertThat(snapshot.getTotalTime(), is(99 * 1000L + 1000000L));
+        assertThat(snapshot.getMaxTime(), is(1000000L));
+        assertThat(snapshot.getPercentile(50), is(both(greaterThanOrEqualTo(1000L)).and(lessThan(2000L))));
+        assertThat(snapshot.getPercentile(99), is(lessThan(2000L)));
+        assertThat(snapshot.getPercentile(100), is(1000000L));
+
+        timings.reset();
+        assertThat(timings.getSnapshot().getCount(), is(0L));
+        assertThat(timings.getSnapshot().getPercentile(99), is(0L));
+    }
+
+    @Test
+    public void testUnused() {
+        ListenerTimings timings = new ListenerTimings();
+        timings.reset();
+        timings.endWindow(20);
+        assertThat(timings.getSnapshot().getCount(), is(0L));
+        assertThat(timings.getWindow().getCount(), is(0L));
+        assertThat(timings.getWindow().getTicks(), is(20));
+
+        timings.record(5000);
+        assertThat(timings.getSnapshot().getCount(), is(1L));
+    }
+
+    @Test
+    public void testWindow() {
+        ListenerTimings timings = new ListenerTimings();
+        timings.record(5000);
+        timings.endWindow(20);
+        timings.record(100);
+        timings.record(300);
+        timings.endWindow(10);
+
+        TimingsSnapshot window = timings.getWindow();
+        assertThat(window.getCount(), is(2L));
+        assertThat(window.getTotalTime(), is(400L));
+        assertThat(window.getMaxTime(), is(300L));
+        assertThat(window.getTicks(), is(10));
+        assertThat(window.getTimePerTick(), is(40L));
+        assertThat(timings.getSnapshot().getCount(), is(3L));
+
+        Map<String, Object> values = window.serialize();
+        assertThat(values.get("count"), is((Object) 2L));
+        assertThat(values.get("per-tick"), is((Object) 40L));
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        final ListenerTimings timings = new ListenerTimings();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        timings.record(j);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        TimingsSnapshot snapshot = timings.getSnapshot();
+        assertThat(snapshot.getCount(), is(80000L));
+        assertThat(snapshot.getTotalTime(), is(8 * (9999L * 10000L / 2)));
+        assertThat(snapshot.getMaxTime(), is(9999L));
+    }
+
+    @Test
+    public void testRecordedByDefault() throws EventException {
+        assertThat(ListenerTimings.isEnabled(), is(true));
+
+        EventExecutor executor = new EventExecutor() {
+            public void execute(Listener listener, Event event) {}
+        };
+        RegisteredListener registration = new RegisteredListener(new Listener() {}, executor, EventPriority.NORMAL, new TestPlugin("Test"), false);
+        registration.callEvent(new TestEvent(false));
+        assertThat(registration.getTimings().getSnapshot().getCount(), is(1L));
+        assertThat(registration.getEventClass(), is((Object) TestEvent.class));
+    }
+}
@@ -0,0 +1,162 @@
+package org.bukkit.plugin;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bukkit.TestServer;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.TestEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelEventDispatcherTest {
+    private static final SimplePluginManager pm = (SimplePluginManager) TestServer.getInstance().getPluginManager();
+
+    private final TestPlugin plugin = new TestPlugin("Parallel");
+    private final Listener listener = new Listener() {};
+    private volatile Throwable failure;
+
+    @Before
+    public void setUp() {
+        pm.useParallelAsyncDispatch(true);
+        pm.setAsyncPoolSize(plugin, 4);
+    }
+
+    @After
+    public void tearDown() {
+        pm.clearPlugins();
+        assertTrue(pm.useParallelAsyncDispatch());
+        pm.useParallelAsyncDispatch(false);
+    }
+
+    private void register(EventPriority priority, boolean concurrent, EventExecutor executor) {
+        TestEvent.getHandlerList().register(new RegisteredListener(listener, executor, priority, plugin, false, concurrent));
+    }
+
+    private void callAsync() throws InterruptedException {
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                pm.callEvent(new TestEvent(true));
+            }
+        });
+        thread.start();
+        thread.join();
+        if (failure != null) {
+            throw new AssertionError(failure);
+        }
+    }
+
+    @Test
+    public void testConcurrentListenersOverlap() throws InterruptedException {
+        final int count = 3;
+        final CyclicBarrier barrier = new CyclicBarrier(count);
+        final AtomicInteger finished = new AtomicInteger();
+
+        for (int i = 0; i < count; i++) {
+            register(EventPriority.NORMAL, true, new EventExecutor() {
+                public void execute(Listener listener, Event event) {
+                    try {
+                        // Only passes if all of them run at the same time
+                        barrier.await(5, TimeUnit.SECONDS);
+                        finished.incrementAndGet();
+                    } catch (Exception ex) {
+                        failure = ex;
+                    }
+                }
+            });
+        }
+        register(EventPriority.HIGH, false, new EventExecutor() {
+            public void execute(Listener listener, Event event) {
+                if (finished.get() != count) {
+                    failure = new IllegalStateException("Higher priority ran before lower priority finished");
+                }
+            }
+        });
+
+        callAsync();
+        assertThat(finished.get(), is(count));
+
+        AsyncDispatchStatistics statistics = pm.getAsyncDispatchStatistics(plugin);
+        assertThat(statistics.getPoolSize(), is(4));
+        assertThat(statistics.getSubmitted(), is((long) count - 1));
+        assertThat(statistics.getActive(), is(0));
+    }
+
+    @Test
+    public void testPriorityOrderAcrossSlots() throws InterruptedException {
+        final StringBuffer order = new StringBuffer();
+        EventPriority[] priorities = { EventPriority.MONITOR, EventPriority.LOWEST, EventPriority.NORMAL };
+        for (final EventPriority priority : priorities) {
+            for (int i = 0; i < 2; i++) {
+                register(priority, true, new EventExecutor() {
+                    public void execute(Listener listener, Event event) {
+                        order.append(priority.getSlot());
+                    }
+                });
+            }
+        }
+
+        callAsync();
+        assertThat(order.toString(), is("002255"));
+    }
+
+    @Test
+    public void testExceptionsDoNotStopDispatch() throws InterruptedException {
+        final AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            register(EventPriority.NORMAL, true, new EventExecutor() {
+                public void execute(Listener listener, Event event) throws EventException {
+                    calls.incrementAndGet();
+                    throw new EventException(new RuntimeException("Expected"));
+                }
+            });
+        }
+
+        callAsync();
+        assertThat(calls.get(), is(3));
+    }
+
+    @Test
+    public void testDisabledPluginGetsNoPool() throws InterruptedException {
+        final AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            register(EventPriority.NORMAL, true, new EventExecutor() {
+                public void execute(Listener listener, Event event) {
+                    calls.incrementAndGet();
+                }
+            });
+        }
+        callAsync();
+        assertThat(pm.getAsyncDispatchStatistics(plugin).getSubmitted(), is(2L));
+
+        // As on disable, the pool is shut down after the plugin is marked disabled
+        plugin.setEnabled(false);
+        pm.setAsyncPoolSize(plugin, 4);
+
+        callAsync();
+        assertThat(calls.get(), is(3)); // Listeners of disabled plugins are skipped
+        assertThat(pm.getAsyncDispatchStatistics(plugin).getSubmitted(), is(0L));
+    }
+
+    @Test
+    public void testPoolSizeForgottenOnShutdown() {
+        ParallelEventDispatcher dispatcher = new ParallelEventDispatcher(pm, 2);
+        dispatcher.setPoolSize(plugin, 4);
+        assertThat(dispatcher.getPoolSize(plugin), is(4));
+
+        dispatcher.shutdown(plugin);
+        assertThat(dispatcher.getPoolSize(plugin), is(2));
+
+        dispatcher.setPoolSize(plugin, 4);
+        dispatcher.shutdown();
+        assertThat(dispatcher.getPoolSize(plugin), is(2));
+    }
+}
@@ -0,0 +1,79 @@
+package org.bukkit.plugin;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class PluginDependencyGraphTest {
+    private final Map<String, Collection<String>> depend = new HashMap<String, Collection<String>>();
+    private final Map<String, Collection<String>> softDepend = new HashMap<String, Collection<String>>();
+
+    private PluginDependencyGraph graph(String... plugins) {
+        return new PluginDependencyGraph(new HashSet<String>(Arrays.asList(plugins)), depend, softDepend);
+    }
+
+    private List<String> loadAll(PluginDependencyGraph graph, String... failing) {
+        List<String> order = new ArrayList<String>();
+        String next;
+        while ((next = graph.next()) != null) {
+            order.add(next);
+            if (Arrays.asList(failing).contains(next)) {
+                graph.failed(next);
+            } else {
+                graph.loaded(next);
+            }
+        }
+        return order;
+    }
+
+    @Test
+    public void testDependencyOrder() {
+        depend.put("A", Arrays.asList("C"));
+        softDepend.put("C", Arrays.asList("B", "Missing"));
+        softDepend.put("D", Arrays.asList("A"));
+
+        assertThat(loadAll(graph("A", "B", "C", "D")), is(Arrays.asList("B", "C", "A", "D")));
+    }
+
+    @Test
+    public void testMissingDependencyCascades() {
+        depend.put("A", Arrays.asList("Missing"));
+        depend.put("B", Arrays.asList("A"));
+        softDepend.put("C", Arrays.asList("B"));
+
+        PluginDependencyGraph graph = graph("A", "B", "C");
+        assertThat(loadAll(graph), is(Arrays.asList("C")));
+        assertThat(graph.getMissingDependencies().get("A"), is("Missing"));
+        assertThat(graph.getMissingDependencies().get("B"), is("A"));
+    }
+
+    @Test
+    public void testFailedDependencyCascades() {
+        depend.put("B", Arrays.asList("A"));
+
+        PluginDependencyGraph graph = graph("A", "B");
+        assertThat(loadAll(graph, "A"), is(Arrays.asList("A")));
+        assertThat(graph.getMissingDependencies().get("B"), is("A"));
+    }
+
+    @Test
+    public void testCycles() {
+        softDepend.put("A", Arrays.asList("B"));
+        softDepend.put("B", Arrays.asList("A"));
+        depend.put("C", Arrays.asList("D"));
+        depend.put("D", Arrays.asList("C"));
+
+        PluginDependencyGraph graph = graph("A", "B", "C", "D");
+        assertThat(loadAll(graph), is(Arrays.asList("A", "B")));
+        assertThat(graph.getCircular(), containsInAnyOrder("C", "D"));
+    }
+}
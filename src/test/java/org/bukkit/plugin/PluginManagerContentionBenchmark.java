@@ -0,0 +1,76 @@
+package org.bukkit.plugin;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.TestServer;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.TestEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Fires synchronous events from one thread while several other threads
+ * query the plugin manager, with and without lock-free dispatch.
+ * <p>
+ * Run with <code>java -cp &lt;test classpath&gt; org.openjdk.jmh.Main
+ * PluginManagerContentionBenchmark</code>.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PluginManagerContentionBenchmark {
+    @Param({"false", "true"})
+    public boolean lockFree;
+
+    private SimplePluginManager pm;
+    private final Event event = new TestEvent(false);
+
+    @Setup
+    public void setup() {
+        pm = (SimplePluginManager) TestServer.getInstance().getPluginManager();
+        pm.useLockFreeDispatch(lockFree);
+        for (int i = 0; i < 10; i++) {
+            pm.registerEvent(TestEvent.class, new Listener() {}, EventPriority.NORMAL, new EventExecutor() {
+                public void execute(Listener listener, Event event) {}
+            }, new TestPlugin("Benchmark" + i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pm.useLockFreeDispatch(false);
+        HandlerList.unregisterAll();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void fire() {
+        pm.callEvent(event);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public boolean query() {
+        return pm.getPlugin("Vault") == null && pm.isPluginEnabled("Vault");
+    }
+}
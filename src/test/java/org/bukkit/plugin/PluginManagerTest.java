@@ -3,10 +3,20 @@ package org.bukkit.plugin;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.bukkit.TestServer;
 import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
 import org.bukkit.event.TestEvent;
+import org.bukkit.permissions.PermissibleBase;
 import org.bukkit.permissions.Permission;
+import org.bukkit.permissions.PermissionDefault;
 
 import org.junit.After;
 import org.junit.Test;
@@ -123,6 +133,103 @@ public class PluginManagerTest {
         }
     }
 
+    @Test
+    public void testLockFreeDispatchWhileLocked() throws InterruptedException {
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Thread lockingThread = new Thread(
+            new Runnable() {
+                public void run() {
+                    synchronized (pm) {
+                        locked.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException ex) {
+                            store.value = ex;
+                        }
+                    }
+                }
+            }
+        );
+        lockingThread.start();
+        locked.await();
+
+        ((SimplePluginManager) pm).useLockFreeDispatch(true);
+        try {
+            pm.callEvent(new TestEvent(false));
+            assertThat(pm.getPlugin("Vault"), is(nullValue()));
+            assertThat(pm.getPlugins().length, is(0));
+        } finally {
+            ((SimplePluginManager) pm).useLockFreeDispatch(false);
+            release.countDown();
+            lockingThread.join();
+        }
+        if (store.value != null) {
+            throw new RuntimeException((Throwable) store.value);
+        }
+    }
+
+    @Test
+    public void testIsListenedTo() {
+        final TestPlugin plugin = new TestPlugin("Listening");
+        final Listener listener = new Listener() {};
+        final EventExecutor executor = new EventExecutor() {
+            public void execute(Listener listener, Event event) {
+                store.value = event;
+            }
+        };
+
+        assertFalse(pm.isListenedTo(TestEvent.class));
+        pm.registerEvent(TestEvent.class, listener, EventPriority.NORMAL, executor, plugin);
+        assertTrue(pm.isListenedTo(TestEvent.class));
+
+        final Event event = new TestEvent(false);
+        pm.callEvent(event);
+        assertThat(store.value, is((Object) event));
+    }
+
+    @Test
+    public void testDisabledPluginNotBaked() {
+        final TestPlugin plugin = new TestPlugin("Disabled");
+        final Listener listener = new Listener() {};
+        final EventExecutor executor = new EventExecutor() {
+            public void execute(Listener listener, Event event) {
+                store.value = event;
+            }
+        };
+
+        pm.registerEvent(TestEvent.class, listener, EventPriority.NORMAL, executor, plugin);
+        plugin.setEnabled(false);
+        HandlerList.invalidateAll(plugin);
+
+        assertFalse(pm.isListenedTo(TestEvent.class));
+        pm.callEvent(new TestEvent(false));
+        assertThat(store.value, is(nullValue()));
+
+        plugin.setEnabled(true);
+        HandlerList.invalidateAll(plugin);
+        assertTrue(pm.isListenedTo(TestEvent.class));
+    }
+
+    @Test
+    public void testPluginDisabledDirectlyNotCalled() {
+        final TestPlugin plugin = new TestPlugin("DisabledDirectly");
+        final Listener listener = new Listener() {};
+        final EventExecutor executor = new EventExecutor() {
+            public void execute(Listener listener, Event event) {
+                store.value = event;
+            }
+        };
+
+        pm.registerEvent(TestEvent.class, listener, EventPriority.NORMAL, executor, plugin);
+        assertTrue(pm.isListenedTo(TestEvent.class));
+
+        // Nothing tells the handler lists about this
+        plugin.setEnabled(false);
+        pm.callEvent(new TestEvent(false));
+        assertThat(store.value, is(nullValue()));
+    }
+
     @Test
     public void testRemovePermissionByNameLower() {
         this.testRemovePermissionByName("lower");
@@ -168,6 +275,73 @@ public class PluginManagerTest {
         assertThat("Permission \"" + name + "\" was not removed", pm.getPermission(name), is(nullValue()));
     }
 
+    @Test
+    public void testPermissionBatch() {
+        final int[] recalculations = new int[1];
+        PermissibleBase permissible = new PermissibleBase(null) {
+            @Override
+            public void recalculatePermissions() {
+                recalculations[0]++;
+                super.recalculatePermissions();
+            }
+        };
+        recalculations[0] = 0;
+
+        pm.beginPermissionBatch();
+        pm.beginPermissionBatch();
+        pm.addPermission(new Permission("batch.first", PermissionDefault.TRUE));
+        pm.addPermission(new Permission("batch.second", PermissionDefault.NOT_OP));
+        pm.endPermissionBatch();
+        assertThat(recalculations[0], is(0));
+        assertFalse(permissible.isPermissionSet("batch.first"));
+
+        pm.endPermissionBatch();
+        assertThat(recalculations[0], is(1));
+        assertTrue(permissible.isPermissionSet("batch.first"));
+        assertTrue(permissible.isPermissionSet("batch.second"));
+
+        pm.addPermission(new Permission("batch.third", PermissionDefault.TRUE));
+        assertThat(recalculations[0], is(2));
+    }
+
+    @Test
+    public void testParallelPermissionBatches() {
+        final AtomicInteger recalculations = new AtomicInteger();
+        List<PermissibleBase> permissibles = new ArrayList<PermissibleBase>();
+        for (int i = 0; i < 8; i++) {
+            permissibles.add(new PermissibleBase(null) {
+                @Override
+                public void recalculatePermissions() {
+                    recalculations.incrementAndGet();
+                    super.recalculatePermissions();
+                }
+            });
+        }
+
+        ((SimplePluginManager) pm).useParallelPermissionRecalculation(true);
+        try {
+            // The second batch runs on the pool kept from the first
+            for (int batch = 1; batch <= 2; batch++) {
+                recalculations.set(0);
+                pm.beginPermissionBatch();
+                pm.addPermission(new Permission("parallel.batch" + batch, PermissionDefault.TRUE));
+                pm.endPermissionBatch();
+
+                assertThat(recalculations.get(), is(permissibles.size()));
+                for (PermissibleBase permissible : permissibles) {
+                    assertTrue(permissible.isPermissionSet("parallel.batch" + batch));
+                }
+            }
+        } finally {
+            ((SimplePluginManager) pm).useParallelPermissionRecalculation(false);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnbalancedPermissionBatch() {
+        pm.endPermissionBatch();
+    }
+
     @After
     public void tearDown() {
         pm.clearPlugins();
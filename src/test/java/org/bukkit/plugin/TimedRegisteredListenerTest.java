@@ -7,6 +7,7 @@ import org.bukkit.event.Event;
 import org.bukkit.event.EventException;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.TestEvent;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.player.PlayerEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
@@ -53,4 +54,21 @@ public class TimedRegisteredListenerTest {
         trl.callEvent(moveEvent);
         assertThat(trl.getEventClass(), is((Object) Event.class));
     }
+
+    @Test
+    public void testAsyncEventsCounted() throws EventException {
+        Listener listener = new Listener() {};
+        EventExecutor executor = new EventExecutor() {
+            public void execute(Listener listener, Event event) {}
+        };
+        TimedRegisteredListener trl = new TimedRegisteredListener(listener, executor, EventPriority.NORMAL, new TestPlugin("Test"), false);
+
+        trl.callEvent(new TestEvent(true));
+        trl.callEvent(new TestEvent(false));
+        assertThat(trl.getCount(), is(2));
+        assertThat(trl.getEventClass(), is((Object) TestEvent.class));
+
+        trl.reset();
+        assertThat(trl.getCount(), is(0));
+    }
 }
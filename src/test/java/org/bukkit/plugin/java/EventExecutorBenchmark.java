@@ -0,0 +1,66 @@
+package org.bukkit.plugin.java;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.event.EventException;
+import org.bukkit.event.Listener;
+import org.bukkit.event.TestEvent;
+import org.bukkit.plugin.EventExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the reflective and generated {@link EventExecutor}s.
+ * <p>
+ * Run with <code>java -cp &lt;test classpath&gt; org.openjdk.jmh.Main
+ * EventExecutorBenchmark</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventExecutorBenchmark {
+    public static class BenchmarkListener implements Listener {
+        public int calls;
+
+        public void onEvent(TestEvent event) {
+            calls++;
+        }
+    }
+
+    private final BenchmarkListener listener = new BenchmarkListener();
+    private final TestEvent event = new TestEvent(false);
+    private EventExecutor reflective;
+    private EventExecutor generated;
+
+    @Setup
+    public void setup() throws Exception {
+        Method method = BenchmarkListener.class.getMethod("onEvent", TestEvent.class);
+        method.setAccessible(true);
+        reflective = EventExecutorFactory.createReflective(method, TestEvent.class);
+        generated = new EventExecutorFactoryTest.GeneratingClassLoader().generate(method, TestEvent.class);
+    }
+
+    @Benchmark
+    public int reflective() throws EventException {
+        reflective.execute(listener, event);
+        return listener.calls;
+    }
+
+    @Benchmark
+    public int generated() throws EventException {
+        generated.execute(listener, event);
+        return listener.calls;
+    }
+}
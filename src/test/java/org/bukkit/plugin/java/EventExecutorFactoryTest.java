@@ -0,0 +1,138 @@
+package org.bukkit.plugin.java;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Method;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.Listener;
+import org.bukkit.event.TestEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.plugin.EventExecutor;
+import org.junit.Test;
+
+public class EventExecutorFactoryTest {
+    static final class GeneratingClassLoader extends ClassLoader {
+        GeneratingClassLoader() {
+            super(EventExecutorFactoryTest.class.getClassLoader());
+        }
+
+        EventExecutor generate(Method method, Class<?> eventClass) throws Exception {
+            String name = "org.bukkit.plugin.java.generated.TestExecutor" + method.getName();
+            byte[] bytes = EventExecutorFactory.generateClass(name, method, eventClass);
+            return EventExecutorFactory.newInstance(defineClass(name, bytes, 0, bytes.length));
+        }
+    }
+
+    public static class CountingListener implements Listener {
+        int calls;
+        static int staticCalls;
+
+        public void onEvent(TestEvent event) {
+            calls++;
+        }
+
+        public long onEventReturning(TestEvent event) {
+            calls++;
+            return calls;
+        }
+
+        public static void onEventStatic(TestEvent event) {
+            staticCalls++;
+        }
+
+        public void onEventThrowing(TestEvent event) {
+            throw new IllegalStateException("Expected");
+        }
+
+        void onEventHidden(TestEvent event) {
+            calls++;
+        }
+    }
+
+    @Test
+    public void testGeneratedExecutorCallsHandler() throws Exception {
+        CountingListener listener = new CountingListener();
+        EventExecutor executor = new GeneratingClassLoader().generate(CountingListener.class.getMethod("onEvent", TestEvent.class), TestEvent.class);
+
+        executor.execute(listener, new TestEvent(false));
+        executor.execute(listener, new TestEvent(false));
+        assertThat(listener.calls, is(2));
+    }
+
+    @Test
+    public void testGeneratedExecutorDiscardsReturnValue() throws Exception {
+        CountingListener listener = new CountingListener();
+        EventExecutor executor = new GeneratingClassLoader().generate(CountingListener.class.getMethod("onEventReturning", TestEvent.class), TestEvent.class);
+
+        executor.execute(listener, new TestEvent(false));
+        assertThat(listener.calls, is(1));
+    }
+
+    @Test
+    public void testGeneratedExecutorCallsStaticHandler() throws Exception {
+        EventExecutor executor = new GeneratingClassLoader().generate(CountingListener.class.getMethod("onEventStatic", TestEvent.class), TestEvent.class);
+        int before = CountingListener.staticCalls;
+
+        executor.execute(new CountingListener(), new TestEvent(false));
+        assertThat(CountingListener.staticCalls, is(before + 1));
+    }
+
+    @Test
+    public void testGeneratedExecutorIgnoresOtherEvents() throws Exception {
+        CountingListener listener = new CountingListener();
+        EventExecutor executor = new GeneratingClassLoader().generate(CountingListener.class.getMethod("onEvent", TestEvent.class), TestEvent.class);
+
+        executor.execute(listener, new PlayerMoveEvent(null, null, null));
+        assertThat(listener.calls, is(0));
+    }
+
+    @Test
+    public void testGeneratedExecutorWrapsExceptions() throws Exception {
+        EventExecutor executor = new GeneratingClassLoader().generate(CountingListener.class.getMethod("onEventThrowing", TestEvent.class), TestEvent.class);
+
+        try {
+            executor.execute(new CountingListener(), new TestEvent(false));
+            fail("No exception thrown");
+        } catch (EventException ex) {
+            assertThat(ex.getCause(), is(instanceOf(IllegalStateException.class)));
+        }
+    }
+
+    @Test
+    public void testReflectiveFallbackForInaccessibleMethods() throws Exception {
+        Method hidden = CountingListener.class.getDeclaredMethod("onEventHidden", TestEvent.class);
+        assertFalse(EventExecutorFactory.canGenerate(new GeneratingClassLoader(), hidden, TestEvent.class));
+        assertTrue(EventExecutorFactory.canGenerate(new GeneratingClassLoader(), CountingListener.class.getMethod("onEvent", TestEvent.class), TestEvent.class));
+
+        hidden.setAccessible(true);
+        CountingListener listener = new CountingListener();
+        EventExecutor executor = EventExecutorFactory.create(null, hidden, TestEvent.class);
+        executor.execute(listener, new TestEvent(false));
+        assertThat(listener.calls, is(1));
+    }
+
+    @Test
+    public void testReflectiveExecutorWrapsExceptions() throws Exception {
+        EventExecutor executor = EventExecutorFactory.createReflective(CountingListener.class.getMethod("onEventThrowing", TestEvent.class), TestEvent.class);
+
+        try {
+            executor.execute(new CountingListener(), new TestEvent(false));
+            fail("No exception thrown");
+        } catch (EventException ex) {
+            assertThat(ex.getCause(), is(instanceOf(IllegalStateException.class)));
+        }
+    }
+
+    @Test
+    public void testReflectiveExecutorIgnoresOtherEvents() throws Exception {
+        CountingListener listener = new CountingListener();
+        Class<? extends Event> eventClass = TestEvent.class;
+        EventExecutor executor = EventExecutorFactory.createReflective(CountingListener.class.getMethod("onEvent", TestEvent.class), eventClass);
+
+        executor.execute(listener, new PlayerMoveEvent(null, null, null));
+        assertThat(listener.calls, is(0));
+    }
+}
@@ -0,0 +1,186 @@
+package org.bukkit.plugin.java;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.bukkit.TestServer;
+import org.bukkit.plugin.Plugin;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JavaPluginLoaderTest {
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private JavaPluginLoader loader;
+
+    @Before
+    @SuppressWarnings("deprecation")
+    public void setUp() {
+        loader = new JavaPluginLoader(TestServer.getInstance());
+    }
+
+    /**
+     * Writes a class with a public no-argument constructor and nothing else
+     */
+    private static byte[] classBytes(String name, String superName) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(50);
+
+        out.writeShort(10);
+        out.writeByte(1); // #1
+        out.writeUTF(name.replace('.', '/'));
+        out.writeByte(7); // #2
+        out.writeShort(1);
+        out.writeByte(1); // #3
+        out.writeUTF(superName.replace('.', '/'));
+        out.writeByte(7); // #4
+        out.writeShort(3);
+        out.writeByte(1); // #5
+        out.writeUTF("<init>");
+        out.writeByte(1); // #6
+        out.writeUTF("()V");
+        out.writeByte(12); // #7
+        out.writeShort(5);
+        out.writeShort(6);
+        out.writeByte(10); // #8
+        out.writeShort(4);
+        out.writeShort(7);
+        out.writeByte(1); // #9
+        out.writeUTF("Code");
+
+        out.writeShort(0x0021);
+        out.writeShort(2);
+        out.writeShort(4);
+        out.writeShort(0);
+        out.writeShort(0);
+
+        out.writeShort(1);
+        out.writeShort(0x0001);
+        out.writeShort(5);
+        out.writeShort(6);
+        out.writeShort(1);
+        out.writeShort(9);
+        out.writeInt(17);
+        out.writeShort(1);
+        out.writeShort(1);
+        out.writeInt(5);
+        out.writeByte(0x2A); // aload_0
+        out.writeByte(0xB7); // invokespecial #8
+        out.writeShort(8);
+        out.writeByte(0xB1); // return
+        out.writeShort(0);
+        out.writeShort(0);
+
+        out.writeShort(0);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private File writePlugin(String name, String classPath, String... classes) throws IOException {
+        File file = new File(testFolder.getRoot(), name + ".jar");
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (classPath != null) {
+            manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath);
+        }
+
+        String main = name.toLowerCase() + ".Main";
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(file), manifest);
+        try {
+            out.putNextEntry(new JarEntry("plugin.yml"));
+            out.write(("name: " + name + "\nversion: 1.0\nmain: " + main + "\n").getBytes("UTF-8"));
+            out.putNextEntry(new JarEntry(main.replace('.', '/') + ".class"));
+            out.write(classBytes(main, "org.bukkit.plugin.java.JavaPlugin"));
+            for (String className : classes) {
+                out.putNextEntry(new JarEntry(className.replace('.', '/') + ".class"));
+                out.write(classBytes(className, "java.lang.Object"));
+            }
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private void writeClass(File directory, String name) throws IOException {
+        File file = new File(directory, name.replace('.', '/') + ".class");
+        assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(classBytes(name, "java.lang.Object"));
+        } finally {
+            out.close();
+        }
+    }
+
+    @Test
+    public void testClassFoundThroughPackageIndex() throws Exception {
+        Plugin first = loader.loadPlugin(writePlugin("First", null, "first.Shared", "first.util.Helper"));
+        Plugin second = loader.loadPlugin(writePlugin("Second", null, "second.Shared"));
+
+        Class<?> shared = loader.getClassByName("first.Shared");
+        assertThat(shared, is(notNullValue()));
+        assertThat(shared.getClassLoader(), is(sameInstance(first.getClass().getClassLoader())));
+        assertThat(loader.getClassByName("first.util.Helper").getClassLoader(), is(sameInstance(first.getClass().getClassLoader())));
+        assertThat(loader.getClassByName("second.Shared").getClassLoader(), is(sameInstance(second.getClass().getClassLoader())));
+
+        // Neither jar has the package, so no loader is asked
+        assertThat(loader.getClassByName("third.Shared"), is(nullValue()));
+    }
+
+    @Test
+    public void testUnindexedLoaderScanned() throws Exception {
+        File libraries = testFolder.newFolder("libraries");
+        writeClass(libraries, "library.Thing");
+        Plugin linked = loader.loadPlugin(writePlugin("Linked", "libraries/"));
+        loader.loadPlugin(writePlugin("Other", null));
+
+        // The Class-Path entry makes the contents of the loader unknown
+        Class<?> thing = loader.getClassByName("library.Thing");
+        assertThat(thing, is(notNullValue()));
+        assertThat(thing.getClassLoader(), is(sameInstance(linked.getClass().getClassLoader())));
+    }
+
+    @Test
+    public void testMissingClassCached() throws Exception {
+        File libraries = testFolder.newFolder("libraries");
+        loader.loadPlugin(writePlugin("Linked", "libraries/"));
+
+        assertThat(loader.getClassByName("library.Late"), is(nullValue()));
+        writeClass(libraries, "library.Late");
+        assertThat(loader.getClassByName("library.Late"), is(nullValue()));
+    }
+
+    @Test
+    public void testMissingClassesClearedOnEnableAndDisable() throws Exception {
+        File libraries = testFolder.newFolder("libraries");
+        loader.loadPlugin(writePlugin("Linked", "libraries/"));
+        Plugin other = loader.loadPlugin(writePlugin("Other", null));
+        loader.enablePlugin(other);
+
+        assertThat(loader.getClassByName("library.First"), is(nullValue()));
+        writeClass(libraries, "library.First");
+        loader.disablePlugin(other);
+        assertThat(loader.getClassByName("library.First"), is(notNullValue()));
+
+        assertThat(loader.getClassByName("library.Second"), is(nullValue()));
+        writeClass(libraries, "library.Second");
+        loader.enablePlugin(other);
+        assertThat(loader.getClassByName("library.Second"), is(notNullValue()));
+    }
+}
@@ -0,0 +1,147 @@
+package org.bukkit.plugin.java;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.logging.Logger;
+
+import org.bukkit.TestServer;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PluginIndexTest {
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private final Logger logger = Logger.getLogger(PluginIndexTest.class.getName());
+
+    private File writeJar(String name, String version) throws IOException {
+        File file = new File(testFolder.getRoot(), name);
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(file));
+        try {
+            out.putNextEntry(new JarEntry("plugin.yml"));
+            out.write(("name: Indexed\nversion: " + version + "\nmain: test.Indexed\n").getBytes("UTF-8"));
+            out.putNextEntry(new JarEntry("test/Indexed.class"));
+            out.write(new byte[] {(byte) 0xCA, (byte) 0xFE});
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private Map<String, Object> description(String version) {
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("name", "Indexed");
+        map.put("version", version);
+        map.put("main", "test.Indexed");
+        return map;
+    }
+
+    @Test
+    public void testPersistedAcrossInstances() throws Exception {
+        File jar = writeJar("indexed.jar", "1.0");
+        Set<String> classes = new HashSet<String>();
+        classes.add("test.Indexed");
+
+        PluginIndex index = new PluginIndex(testFolder.getRoot(), logger);
+        assertThat(index.getDescription(jar), is(nullValue()));
+        index.put(jar, description("1.0"), classes);
+        index.saveIfDirty();
+
+        PluginIndex reloaded = new PluginIndex(testFolder.getRoot(), logger);
+        assertThat(new PluginDescriptionFile(reloaded.getDescription(jar)).getVersion(), is("1.0"));
+        assertThat(reloaded.getClasses(jar), is(classes));
+    }
+
+    @Test
+    public void testTouchedJarKept() throws Exception {
+        File jar = writeJar("indexed.jar", "1.0");
+        PluginIndex index = new PluginIndex(testFolder.getRoot(), logger);
+        index.put(jar, description("1.0"), null);
+
+        assertTrue(jar.setLastModified(jar.lastModified() - 10000));
+        assertThat(index.getDescription(jar), is(notNullValue()));
+        assertThat(index.getClasses(jar), is(nullValue()));
+    }
+
+    @Test
+    public void testChangedJarDropped() throws Exception {
+        File jar = writeJar("indexed.jar", "1.0");
+        PluginIndex index = new PluginIndex(testFolder.getRoot(), logger);
+        index.put(jar, description("1.0"), null);
+
+        writeJar("indexed.jar", "2.0-SNAPSHOT");
+        assertTrue(jar.setLastModified(jar.lastModified() - 10000));
+        assertThat(index.getDescription(jar), is(nullValue()));
+    }
+
+    @Test
+    public void testLoaderUsesIndex() throws Exception {
+        File jar = writeJar("indexed.jar", "1.0");
+        @SuppressWarnings("deprecation")
+        JavaPluginLoader loader = new JavaPluginLoader(TestServer.getInstance());
+
+        assertThat(loader.getPluginDescription(jar).getVersion(), is("1.0"));
+
+        PluginIndex index = new PluginIndex(testFolder.getRoot(), logger);
+        assertThat(index.getDescription(jar), is(nullValue())); // Only saved when plugins are loaded
+
+        // Cached descriptions are used while the jar is unchanged
+        index = new PluginIndex(testFolder.getRoot(), logger);
+        index.put(jar, description("cached"), null);
+        index.saveIfDirty();
+        loader = new JavaPluginLoader(TestServer.getInstance());
+        assertThat(loader.getPluginDescription(jar).getVersion(), is("cached"));
+    }
+
+    @Test
+    public void testNestedValuesKept() throws Exception {
+        File jar = writeJar("indexed.jar", "1.0");
+        Map<String, Object> description = description("1.0");
+        Map<String, Object> permission = new LinkedHashMap<String, Object>();
+        permission.put("default", false);
+        permission.put("children", Arrays.asList("a", null, 3, 4L, 0.5, new BigInteger("123456789012345678901234567890")));
+        description.put("permissions", Collections.singletonMap("indexed.use", permission));
+
+        PluginIndex index = new PluginIndex(testFolder.getRoot(), logger);
+        index.put(jar, description, null);
+        index.saveIfDirty();
+
+        assertEquals(description, new PluginIndex(testFolder.getRoot(), logger).getDescription(jar));
+    }
+
+    @Test
+    public void testUnstorableDescriptionNotCached() throws Exception {
+        File jar = writeJar("indexed.jar", "1.0");
+        Set<String> classes = Collections.singleton("test.Indexed");
+        Map<String, Object> description = description("1.0");
+        description.put("date", new Date());
+        Map<String, Object> recursive = new HashMap<String, Object>();
+        recursive.put("self", recursive);
+        description.put("recursive", recursive);
+
+        PluginIndex index = new PluginIndex(testFolder.getRoot(), logger);
+        index.put(jar, description, classes);
+        index.saveIfDirty();
+
+        PluginIndex reloaded = new PluginIndex(testFolder.getRoot(), logger);
+        assertThat(reloaded.getDescription(jar), is(nullValue()));
+        assertThat(reloaded.getClasses(jar), is(classes));
+    }
+}
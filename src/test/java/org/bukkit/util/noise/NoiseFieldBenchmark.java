@@ -0,0 +1,61 @@
+package org.bukkit.util.noise;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Computes the 3D terrain noise of a chunk at every block, and interpolated
+ * from a 4x8x4 lattice.
+ * <p>
+ * Run with <code>java -cp &lt;test classpath&gt; org.openjdk.jmh.Main
+ * NoiseFieldBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoiseFieldBenchmark {
+    @Param({"perlin", "simplex"})
+    public String type;
+
+    private OctaveGenerator octaves;
+    private NoiseField field;
+    private final double[] out = new double[16 * 128 * 16];
+
+    @Setup
+    public void setup() {
+        if (type.equals("perlin")) {
+            octaves = new PerlinOctaveGenerator(42, 8);
+        } else {
+            octaves = new SimplexOctaveGenerator(42, 8);
+        }
+        octaves.setScale(1 / 64.0);
+        field = new NoiseField(octaves, 16, 128, 16, 4, 8, 4);
+    }
+
+    @Benchmark
+    public double[] everyBlock() {
+        octaves.fill(out, 320, 0, -160, 16, 128, 16, 1, 1, 1, 2, 0.5, true);
+        return out;
+    }
+
+    @Benchmark
+    public double[] interpolated() {
+        field.sample(320, 0, -160, 2, 0.5, true);
+        field.fill(out);
+        return out;
+    }
+}
@@ -0,0 +1,66 @@
+package org.bukkit.util.noise;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class NoiseFieldTest {
+    private final OctaveGenerator generator = createGenerator();
+    private final NoiseField field = new NoiseField(generator, 16, 32, 16, 4, 8, 4);
+
+    private static OctaveGenerator createGenerator() {
+        OctaveGenerator generator = new SimplexOctaveGenerator(42, 4);
+        generator.setScale(1 / 32.0);
+        return generator;
+    }
+
+    @Test
+    public void testLatticePoints() {
+        field.sample(-160, 0, 48, 2, 0.5, true);
+        for (int x = 0; x < 16; x += 4) {
+            for (int y = 0; y < 32; y += 8) {
+                for (int z = 0; z < 16; z += 4) {
+                    assertEquals(generator.noise(-160 + x, y, 48 + z, 2, 0.5, true), field.get(x, y, z), 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testInterpolation() {
+        field.sample(0, 0, 0, 2, 0.5, false);
+        double low = generator.noise(4, 8, 4, 2, 0.5, false);
+        double high = generator.noise(4, 8, 8, 2, 0.5, false);
+        assertEquals(low + (high - low) * 0.25, field.get(4, 8, 5), 1e-9);
+        assertEquals(low + (high - low) * 0.5, field.get(4, 8, 6), 1e-9);
+    }
+
+    @Test
+    public void testFillMatchesGet() {
+        field.sample(37, 12, -5, 2, 0.5, true);
+        double[] out = new double[16 * 32 * 16];
+        field.fill(out);
+        for (int x = 0; x < 16; x++) {
+            for (int y = 0; y < 32; y++) {
+                for (int z = 0; z < 16; z++) {
+                    assertEquals(field.get(x, y, z), out[(x * 32 + y) * 16 + z], 0);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSizeNotMultiple() {
+        new NoiseField(generator, 16, 30, 16, 4, 8, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFillTooSmall() {
+        field.fill(new double[16 * 32 * 16 - 1]);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutside() {
+        field.get(0, 32, 0);
+    }
+}
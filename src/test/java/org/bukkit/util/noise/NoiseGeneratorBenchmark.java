@@ -0,0 +1,103 @@
+package org.bukkit.util.noise;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Samples the noise for a whole chunk, point by point and with the bulk
+ * fills, in double and float precision.
+ * <p>
+ * Run with <code>java -cp &lt;test classpath&gt; org.openjdk.jmh.Main
+ * NoiseGeneratorBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoiseGeneratorBenchmark {
+    private static final int SIZE_X = 16;
+    private static final int SIZE_Y = 128;
+    private static final int SIZE_Z = 16;
+
+    @Param({"perlin", "simplex"})
+    public String type;
+
+    private NoiseGenerator noise;
+    private OctaveGenerator octaves;
+    private final double[] out = new double[SIZE_X * SIZE_Y * SIZE_Z];
+    private final float[] floatOut = new float[SIZE_X * SIZE_Y * SIZE_Z];
+
+    @Setup
+    public void setup() {
+        if (type.equals("perlin")) {
+            octaves = new PerlinOctaveGenerator(42, 4);
+        } else {
+            octaves = new SimplexOctaveGenerator(42, 4);
+        }
+        octaves.setScale(1 / 64.0);
+        noise = octaves.getOctaves()[0];
+    }
+
+    @Benchmark
+    public double[] noisePerPoint() {
+        int index = 0;
+        for (int x = 0; x < SIZE_X; x++) {
+            for (int y = 0; y < SIZE_Y; y++) {
+                for (int z = 0; z < SIZE_Z; z++) {
+                    out[index++] = noise.noise((x + 320) / 64.0, y / 64.0, (z - 160) / 64.0);
+                }
+            }
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] noiseFill() {
+        noise.fill(out, 320 / 64.0, 0, -160 / 64.0, SIZE_X, SIZE_Y, SIZE_Z, 1 / 64.0, 1 / 64.0, 1 / 64.0);
+        return out;
+    }
+
+    @Benchmark
+    public float[] noiseFillFloat() {
+        noise.fill(floatOut, 320 / 64.0, 0, -160 / 64.0, SIZE_X, SIZE_Y, SIZE_Z, 1 / 64.0, 1 / 64.0, 1 / 64.0);
+        return floatOut;
+    }
+
+    @Benchmark
+    public double[] octavesPerPoint() {
+        int index = 0;
+        for (int x = 0; x < SIZE_X; x++) {
+            for (int y = 0; y < SIZE_Y; y++) {
+                for (int z = 0; z < SIZE_Z; z++) {
+                    out[index++] = octaves.noise(x + 320, y, z - 160, 2, 0.5, true);
+                }
+            }
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] octavesFill() {
+        octaves.fill(out, 320, 0, -160, SIZE_X, SIZE_Y, SIZE_Z, 1, 1, 1, 2, 0.5, true);
+        return out;
+    }
+
+    @Benchmark
+    public float[] octavesFillFloat() {
+        octaves.fill(floatOut, 320, 0, -160, SIZE_X, SIZE_Y, SIZE_Z, 1, 1, 1, 2, 0.5, true);
+        return floatOut;
+    }
+}
@@ -0,0 +1,200 @@
+package org.bukkit.util.noise;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class NoiseGeneratorTest {
+    private static final int NX = 5;
+    private static final int NY = 7;
+    private static final int NZ = 9;
+    private static final int SEEDS = 4;
+    private static final int CHUNKS = 16;
+    private static final double FLOAT_ERROR = 1e-5;
+
+    @Test
+    public void testPerlinFill() {
+        assertFillMatches(new PerlinNoiseGenerator(42));
+    }
+
+    @Test
+    public void testSimplexFill() {
+        assertFillMatches(new SimplexNoiseGenerator(42));
+    }
+
+    @Test
+    public void testOctaveFill() {
+        assertOctaveFillMatches(new PerlinOctaveGenerator(42, 4));
+        assertOctaveFillMatches(new SimplexOctaveGenerator(42, 4));
+    }
+
+    @Test
+    public void testFloatFillAccuracy() {
+        assertFloatFillAccurate(new PerlinNoiseGenerator(42));
+        assertFloatFillAccurate(new SimplexNoiseGenerator(42));
+    }
+
+    @Test
+    public void testOctaveFloatFillAccuracy() {
+        OctaveGenerator[] generators = {new PerlinOctaveGenerator(42, 8), new SimplexOctaveGenerator(42, 8)};
+        for (OctaveGenerator generator : generators) {
+            generator.setScale(1 / 64.0);
+            double[] expected = new double[16 * 128 * 16];
+            float[] actual = new float[expected.length];
+            generator.fill(expected, 29999984, 0, -29999984, 16, 128, 16, 1, 1, 1, 2, 0.5, true);
+            generator.fill(actual, 29999984, 0, -29999984, 16, 128, 16, 1, 1, 1, 2, 0.5, true);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], actual[i], FLOAT_ERROR);
+            }
+        }
+    }
+
+    @Test
+    public void testFillLeavesRestOfArray() {
+        double[] out = new double[NX * NY + 1];
+        out[NX * NY] = 5;
+        new SimplexNoiseGenerator(42).fill(out, 0, 0, NX, NY, 1, 1);
+        assertEquals(5, out[NX * NY], 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFillTooSmall() {
+        new PerlinNoiseGenerator(42).fill(new double[NX * NY * NZ - 1], 0, 0, 0, NX, NY, NZ, 1, 1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOctaveFillTooSmall() {
+        new PerlinOctaveGenerator(42, 2).fill(new double[NX * NY - 1], 0, 0, NX, NY, 1, 1, 2, 0.5, false);
+    }
+
+    @Test
+    public void testOffsetWIsPerInstance() {
+        SimplexNoiseGenerator generator = new SimplexNoiseGenerator(1);
+        double expected = generator.noise(1.5, 2.5, 3.5, 4.5);
+        new SimplexNoiseGenerator(2);
+        assertEquals(expected, generator.noise(1.5, 2.5, 3.5, 4.5), 0);
+    }
+
+    @Test
+    public void testConcurrentGeneration() throws Exception {
+        byte[][][] expected = new byte[SEEDS][CHUNKS][];
+        for (int seed = 0; seed < SEEDS; seed++) {
+            SimplexOctaveGenerator generator = new SimplexOctaveGenerator(seed, 4);
+            for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                expected[seed][chunk] = generateChunk(generator, chunk);
+            }
+        }
+
+        // Generators are created on the worker threads as well, in any order
+        final SimplexOctaveGenerator[] shared = new SimplexOctaveGenerator[SEEDS];
+        for (int seed = 0; seed < SEEDS; seed++) {
+            shared[seed] = new SimplexOctaveGenerator(seed, 4);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<byte[]>> results = new ArrayList<Future<byte[]>>();
+            for (int i = 0; i < SEEDS * CHUNKS * 2; i++) {
+                final int seed = i % SEEDS;
+                final int chunk = (i / SEEDS) % CHUNKS;
+                final boolean own = i >= SEEDS * CHUNKS;
+                results.add(executor.submit(new Callable<byte[]>() {
+                    public byte[] call() {
+                        return generateChunk(own ? new SimplexOctaveGenerator(seed, 4) : shared[seed], chunk);
+                    }
+                }));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                assertArrayEquals(expected[i % SEEDS][(i / SEEDS) % CHUNKS], results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static byte[] generateChunk(SimplexOctaveGenerator generator, int chunk) {
+        double[] density = new double[16 * 32 * 16];
+        generator.fill(density, chunk * 16, 0, 0, 16, 32, 16, 0.5, 0.5, 0.5, 2, 0.5, true);
+
+        byte[] blocks = new byte[density.length];
+        for (int i = 0; i < density.length; i++) {
+            double x = chunk * 16 + i / (32 * 16);
+            double y = (i / 16) % 32;
+            double z = i % 16;
+            blocks[i] = (byte) (density[i] * 64 + generator.noise(x, y, z, chunk, 2, 0.5, true) * 63);
+        }
+        return blocks;
+    }
+
+    private void assertFillMatches(NoiseGenerator generator) {
+        // Negative coordinates and steps both smaller and larger than a lattice cell
+        double[][] steps = {{0.1, 0.3, 0.05}, {1.7, 2.5, 3.1}};
+        for (double[] step : steps) {
+            double[] out = new double[NX * NY * NZ];
+            generator.fill(out, -3.2, 4.7, -0.4, NX, NY, NZ, step[0], step[1], step[2]);
+            for (int ix = 0; ix < NX; ix++) {
+                for (int iy = 0; iy < NY; iy++) {
+                    for (int iz = 0; iz < NZ; iz++) {
+                        double expected = generator.noise(-3.2 + ix * step[0], 4.7 + iy * step[1], -0.4 + iz * step[2]);
+                        assertEquals(expected, out[(ix * NY + iy) * NZ + iz], 0);
+                    }
+                }
+            }
+
+            out = new double[NX * NY];
+            generator.fill(out, -3.2, 4.7, NX, NY, step[0], step[1]);
+            for (int ix = 0; ix < NX; ix++) {
+                for (int iy = 0; iy < NY; iy++) {
+                    double expected = generator.noise(-3.2 + ix * step[0], 4.7 + iy * step[1]);
+                    assertEquals(expected, out[ix * NY + iy], 0);
+                }
+            }
+        }
+    }
+
+    private void assertFloatFillAccurate(NoiseGenerator generator) {
+        // Near the origin, and near the edge of the world where the fractions of the coordinates lose the most precision
+        double[] origins = {-3.2, 468749.75};
+        for (double origin : origins) {
+            double[] expected = new double[32 * 32 * 32];
+            float[] actual = new float[expected.length];
+            generator.fill(expected, origin, 0.3, -origin, 32, 32, 32, 0.13, 0.07, 0.29);
+            generator.fill(actual, origin, 0.3, -origin, 32, 32, 32, 0.13, 0.07, 0.29);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], actual[i], FLOAT_ERROR);
+            }
+        }
+    }
+
+    private void assertOctaveFillMatches(OctaveGenerator generator) {
+        generator.setScale(1 / 16.0);
+        for (boolean normalized : new boolean[] {false, true}) {
+            double[] out = new double[NX * NY * NZ];
+            generator.fill(out, -40, 12, 7, NX, NY, NZ, 3, 1, 2, 2, 0.5, normalized);
+            for (int ix = 0; ix < NX; ix++) {
+                for (int iy = 0; iy < NY; iy++) {
+                    for (int iz = 0; iz < NZ; iz++) {
+                        double expected = generator.noise(-40 + ix * 3, 12 + iy, 7 + iz * 2, 2, 0.5, normalized);
+                        assertEquals(expected, out[(ix * NY + iy) * NZ + iz], 1e-9);
+                    }
+                }
+            }
+
+            out = new double[NX * NY];
+            generator.fill(out, -40, 12, NX, NY, 3, 1, 2, 0.5, normalized);
+            for (int ix = 0; ix < NX; ix++) {
+                for (int iy = 0; iy < NY; iy++) {
+                    double expected = generator.noise(-40 + ix * 3, 12 + iy, 2, 0.5, normalized);
+                    assertEquals(expected, out[ix * NY + iy], 1e-9);
+                }
+            }
+        }
+    }
+}